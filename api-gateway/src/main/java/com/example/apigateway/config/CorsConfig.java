@@ -26,7 +26,12 @@ public class CorsConfig {
         corsConfig.setExposedHeaders(List.of(
             "Authorization",
             "X-User-Id",
-            "X-Username"
+            "X-Username",
+            "RateLimit-Limit",
+            "RateLimit-Remaining",
+            "RateLimit-Reset",
+            "Retry-After",
+            "Idempotent-Replayed"
         ));
 
         // Token-based auth uses Authorization header, not cookies.
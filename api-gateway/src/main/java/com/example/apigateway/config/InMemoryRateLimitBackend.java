@@ -0,0 +1,65 @@
+package com.example.apigateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Bucket4j buckets held in this gateway instance only.
+ * The store is bounded; buckets idle for longer than the idle timeout are dropped.
+ */
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+
+    private final Cache<String, Bucket> buckets;
+
+    /**
+     * @param maxBuckets    upper bound on tracked clients
+     * @param idleTimeout   buckets untouched for this long are evicted
+     * @param ticker        time source for idle expiry
+     * @param meterRegistry optional registry for size/eviction metrics
+     */
+    public InMemoryRateLimitBackend(long maxBuckets, Duration idleTimeout, Ticker ticker, MeterRegistry meterRegistry) {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            // cache.size = live buckets, cache.evictions = buckets dropped by size or idle expiry
+            CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit.buckets");
+        }
+    }
+
+    @Override
+    public Mono<RateLimitResult> tryConsume(String clientKey, RateLimitPolicy policy) {
+        return Mono.just(RateLimitResult.from(resolveBucket(clientKey, policy).tryConsumeAndReturnRemaining(1)));
+    }
+
+    /**
+     * Get or create a bucket for a client under a policy
+     */
+    public Bucket resolveBucket(String clientKey, RateLimitPolicy policy) {
+        return buckets.get(policy.name() + '|' + clientKey, k -> policy.newBucket());
+    }
+
+    /**
+     * @return approximate number of buckets currently held
+     */
+    public long bucketCount() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * Run pending evictions now (normally amortized over cache operations)
+     */
+    public void cleanUp() {
+        buckets.cleanUp();
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.apigateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate-limit buckets shared by every gateway replica through a database table.
+ * <p>
+ * Each limit of a policy is a fixed window aligned to the epoch ({@code 60/1m} allows 60 requests
+ * per calendar minute) with one row per client and limit holding the tokens used in the current
+ * window. Instances do not go to the database per request: they lease a small batch of tokens
+ * under a row lock and hand them out locally until the batch runs out. A lease never exceeds
+ * {@code 1/leaseDivisor} of what is left in the window (and never more than {@code maxBatch}),
+ * so the global limit is never exceeded and tokens stranded on other replicas stay small.
+ * Once the database reports a window exhausted, further requests are rejected locally until the
+ * window ends.
+ * <p>
+ * Database round trips run on the bounded-elastic scheduler. If the database is unreachable the
+ * request is checked against the per-instance fallback backend instead of being rejected.
+ */
+public class JdbcRateLimitBackend implements RateLimitBackend {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitBackend.class);
+
+    static final String TABLE = "gateway_rate_limit";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final String SELECT_FOR_UPDATE =
+            "SELECT window_end, used FROM " + TABLE + " WHERE bucket_key = ? FOR UPDATE";
+    private static final String UPDATE =
+            "UPDATE " + TABLE + " SET window_end = ?, used = ? WHERE bucket_key = ?";
+    private static final String INSERT =
+            "INSERT INTO " + TABLE + " (bucket_key, window_end, used) VALUES (?, ?, ?)";
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM " + TABLE + " WHERE window_end < ?";
+
+    /**
+     * @param maxBatch         most tokens leased in one round trip
+     * @param leaseDivisor     a lease takes at most 1/leaseDivisor of the tokens left in the window
+     * @param maxLeases        upper bound on locally tracked client leases
+     * @param leaseIdleTimeout leases untouched for this long are dropped
+     * @param cleanupInterval  how often expired rows are deleted; zero disables cleanup
+     */
+    public record Settings(long maxBatch, long leaseDivisor, long maxLeases,
+                           Duration leaseIdleTimeout, Duration cleanupInterval) {
+    }
+
+    /** Tokens leased from one database row */
+    private record Grant(long windowEnd, long granted, long globalRemaining) {
+    }
+
+    private final DataSource dataSource;
+    private final Settings settings;
+    private final RateLimitBackend fallback;
+    private final LongSupplier clock;
+    private final Cache<String, Lease> leases;
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private ScheduledExecutorService janitor;
+
+    /**
+     * @param dataSource    shared database
+     * @param settings      lease and cleanup settings
+     * @param fallback      backend used while the database is unavailable
+     * @param meterRegistry optional registry for round-trip and failure counters
+     * @param clock         epoch-millisecond time source
+     */
+    public JdbcRateLimitBackend(DataSource dataSource, Settings settings, RateLimitBackend fallback,
+                                MeterRegistry meterRegistry, LongSupplier clock) {
+        this.dataSource = dataSource;
+        this.settings = settings;
+        this.fallback = fallback;
+        this.clock = clock;
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(settings.maxLeases())
+                .expireAfterAccess(settings.leaseIdleTimeout())
+                .build();
+
+        if (meterRegistry != null) {
+            FunctionCounter.builder("rate-limit.jdbc.round-trips", roundTrips, AtomicLong::get)
+                    .description("Token leases fetched from the shared rate-limit table")
+                    .register(meterRegistry);
+            FunctionCounter.builder("rate-limit.jdbc.failures", failures, AtomicLong::get)
+                    .description("Rate-limit checks served by the local fallback after a database error")
+                    .register(meterRegistry);
+        }
+
+        if (!settings.cleanupInterval().isZero()) {
+            janitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rate-limit-jdbc-cleanup");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = settings.cleanupInterval().toMillis();
+            janitor.scheduleWithFixedDelay(this::deleteExpired, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Create the bucket table if it does not exist (PostgreSQL and H2 syntax)
+     */
+    public void initializeSchema() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                    + "bucket_key VARCHAR(512) PRIMARY KEY, "
+                    + "window_end BIGINT NOT NULL, "
+                    + "used BIGINT NOT NULL)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_" + TABLE + "_window_end ON " + TABLE + " (window_end)");
+        }
+    }
+
+    @Override
+    public Mono<RateLimitResult> tryConsume(String clientKey, RateLimitPolicy policy) {
+        String bucketKey = policy.name() + '|' + clientKey;
+        Lease lease = leases.get(bucketKey, k -> new Lease(policy.limits().size()));
+
+        RateLimitResult local = lease.tryConsume(clock.getAsLong());
+        if (local != null) {
+            return Mono.just(local);
+        }
+
+        return Mono.fromCallable(() -> refillAndConsume(bucketKey, lease, policy))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(SQLException.class, ex -> {
+                    failures.incrementAndGet();
+                    logger.warn("Shared rate-limit store unavailable, using local limits: {}", ex.getMessage());
+                    return fallback.tryConsume(clientKey, policy);
+                });
+    }
+
+    /**
+     * @return number of leases fetched from the database so far
+     */
+    public long roundTrips() {
+        return roundTrips.get();
+    }
+
+    @Override
+    public void close() {
+        if (janitor != null) {
+            janitor.shutdownNow();
+        }
+    }
+
+    /**
+     * Lease tokens for every limit that ran out locally, then consume
+     */
+    private RateLimitResult refillAndConsume(String bucketKey, Lease lease, RateLimitPolicy policy) throws SQLException {
+        List<RateLimitPolicy.Limit> limits = policy.limits();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long now = clock.getAsLong();
+            for (int i = 0; i < limits.size(); i++) {
+                if (lease.needsRefill(i, now)) {
+                    lease.add(i, acquire(bucketKey + '#' + i, limits.get(i), now));
+                }
+            }
+            RateLimitResult result = lease.tryConsume(clock.getAsLong());
+            if (result != null) {
+                return result;
+            }
+            // A window rolled over or concurrent requests drained the lease in between; try once more
+        }
+        return lease.reject(clock.getAsLong());
+    }
+
+    private Grant acquire(String rowKey, RateLimitPolicy.Limit limit, long now) throws SQLException {
+        long periodMs = limit.period().toMillis();
+        long windowEnd = (now / periodMs + 1) * periodMs;
+        roundTrips.incrementAndGet();
+
+        for (int attempt = 0; ; attempt++) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try {
+                    Grant grant = acquire(connection, rowKey, limit.capacity(), windowEnd);
+                    connection.commit();
+                    return grant;
+                } catch (SQLException ex) {
+                    connection.rollback();
+                    // Another replica inserted the row first; retry as an update under its lock
+                    if (attempt == 0 && UNIQUE_VIOLATION.equals(ex.getSQLState())) {
+                        continue;
+                    }
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private Grant acquire(Connection connection, String rowKey, long capacity, long windowEnd) throws SQLException {
+        boolean exists = false;
+        long used = 0;
+        try (PreparedStatement select = connection.prepareStatement(SELECT_FOR_UPDATE)) {
+            select.setString(1, rowKey);
+            try (ResultSet row = select.executeQuery()) {
+                if (row.next()) {
+                    exists = true;
+                    long rowWindowEnd = row.getLong(1);
+                    // A row from an older window starts over; a later one (clock skew) is taken as current
+                    if (rowWindowEnd >= windowEnd) {
+                        windowEnd = rowWindowEnd;
+                        used = row.getLong(2);
+                    }
+                }
+            }
+        }
+
+        long granted = leaseSize(capacity, used);
+        if (exists) {
+            try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                update.setLong(1, windowEnd);
+                update.setLong(2, used + granted);
+                update.setString(3, rowKey);
+                update.executeUpdate();
+            }
+        } else {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                insert.setString(1, rowKey);
+                insert.setLong(2, windowEnd);
+                insert.setLong(3, used + granted);
+                insert.executeUpdate();
+            }
+        }
+        return new Grant(windowEnd, granted, Math.max(0L, capacity - used - granted));
+    }
+
+    private long leaseSize(long capacity, long used) {
+        long left = capacity - used;
+        if (left <= 0) {
+            return 0;
+        }
+        long share = Math.max(1L, left / settings.leaseDivisor());
+        return Math.min(left, Math.min(settings.maxBatch(), share));
+    }
+
+    private void deleteExpired() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement delete = connection.prepareStatement(DELETE_EXPIRED)) {
+            delete.setLong(1, clock.getAsLong());
+            int deleted = delete.executeUpdate();
+            if (deleted > 0) {
+                logger.debug("Deleted {} expired rate-limit rows", deleted);
+            }
+        } catch (SQLException ex) {
+            logger.warn("Unable to delete expired rate-limit rows: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Tokens this instance holds for one client, per limit of the policy.
+     * All state changes are short and in memory; database calls happen outside the lock.
+     */
+    private static final class Lease {
+        private final long[] windowEnd;
+        private final long[] available;
+        private final long[] globalRemaining;
+
+        Lease(int limits) {
+            windowEnd = new long[limits];
+            available = new long[limits];
+            globalRemaining = new long[limits];
+        }
+
+        /**
+         * @return the result, or null when some limit has to be refilled from the database first
+         */
+        synchronized RateLimitResult tryConsume(long now) {
+            boolean refill = false;
+            long exhaustedUntil = 0;
+            for (int i = 0; i < windowEnd.length; i++) {
+                if (windowEnd[i] <= now) {
+                    refill = true;
+                } else if (available[i] == 0) {
+                    if (globalRemaining[i] > 0) {
+                        refill = true;
+                    } else {
+                        exhaustedUntil = Math.max(exhaustedUntil, windowEnd[i]);
+                    }
+                }
+            }
+            if (exhaustedUntil > 0) {
+                return rejected(now, exhaustedUntil);
+            }
+            if (refill) {
+                return null;
+            }
+
+            long remaining = Long.MAX_VALUE;
+            for (int i = 0; i < windowEnd.length; i++) {
+                available[i]--;
+                remaining = Math.min(remaining, available[i] + globalRemaining[i]);
+            }
+            return new RateLimitResult(true, remaining, nanosToReset(now), 0L);
+        }
+
+        synchronized boolean needsRefill(int limit, long now) {
+            return windowEnd[limit] <= now || (available[limit] == 0 && globalRemaining[limit] > 0);
+        }
+
+        synchronized void add(int limit, Grant grant) {
+            if (grant.windowEnd() > windowEnd[limit]) {
+                windowEnd[limit] = grant.windowEnd();
+                available[limit] = grant.granted();
+            } else if (grant.windowEnd() == windowEnd[limit]) {
+                available[limit] += grant.granted();
+            } else {
+                return;
+            }
+            globalRemaining[limit] = grant.globalRemaining();
+        }
+
+        synchronized RateLimitResult reject(long now) {
+            long retryAt = Long.MAX_VALUE;
+            for (long end : windowEnd) {
+                retryAt = Math.min(retryAt, Math.max(end, now));
+            }
+            return rejected(now, retryAt);
+        }
+
+        private RateLimitResult rejected(long now, long retryAt) {
+            return new RateLimitResult(false, 0L, nanosToReset(now),
+                    TimeUnit.MILLISECONDS.toNanos(Math.max(0L, retryAt - now)));
+        }
+
+        private long nanosToReset(long now) {
+            long resetAt = now;
+            for (long end : windowEnd) {
+                resetAt = Math.max(resetAt, end);
+            }
+            return TimeUnit.MILLISECONDS.toNanos(resetAt - now);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.apigateway.config;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Storage for rate-limit buckets.
+ * <p>
+ * {@link InMemoryRateLimitBackend} keeps buckets per gateway instance; {@link JdbcRateLimitBackend}
+ * shares them through a database so the limits hold across all replicas.
+ */
+public interface RateLimitBackend extends AutoCloseable {
+
+    /**
+     * Try to take one token for a client under a policy
+     * @param clientKey user or IP key
+     * @param policy    policy to enforce
+     * @return the outcome; implementations must not block the calling (event-loop) thread
+     */
+    Mono<RateLimitResult> tryConsume(String clientKey, RateLimitPolicy policy);
+
+    @Override
+    default void close() {
+    }
+}
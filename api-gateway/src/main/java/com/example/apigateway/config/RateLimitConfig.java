@@ -1,30 +1,182 @@
 package com.example.apigateway.config;
 
-import io.github.bucket4j.Bandwidth;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import reactor.core.publisher.Mono;
 
+import java.sql.SQLException;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
 @Configuration
 public class RateLimitConfig {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitConfig.class);
 
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    public static final String DEFAULT_POLICY = "default";
+
+    /** {@code memory} keeps buckets per instance; {@code jdbc} shares them across replicas */
+    @Value("${app.rate-limit.backend:memory}")
+    private String backendType = "memory";
+
+    @Value("${app.rate-limit.jdbc.url:}")
+    private String jdbcUrl = "";
+
+    @Value("${app.rate-limit.jdbc.username:}")
+    private String jdbcUsername = "";
+
+    @Value("${app.rate-limit.jdbc.password:}")
+    private String jdbcPassword = "";
+
+    @Value("${app.rate-limit.jdbc.pool-size:4}")
+    private int jdbcPoolSize = 4;
+
+    /** Most tokens an instance leases from the shared table per round trip */
+    @Value("${app.rate-limit.jdbc.max-batch:20}")
+    private long jdbcMaxBatch = 20;
+
+    /** A lease takes at most this fraction (1/n) of the tokens left in the window */
+    @Value("${app.rate-limit.jdbc.lease-divisor:10}")
+    private long jdbcLeaseDivisor = 10;
+
+    @Value("${app.rate-limit.jdbc.cleanup-interval:PT1M}")
+    private Duration jdbcCleanupInterval = Duration.ofMinutes(1);
+
+    @Value("${app.rate-limit.jdbc.initialize-schema:true}")
+    private boolean jdbcInitializeSchema = true;
+
+    /** Upper bound on tracked clients; least-recently-used buckets are evicted beyond it */
+    @Value("${app.rate-limit.max-buckets:100000}")
+    private long maxBuckets = 100_000;
+
+    /**
+     * Buckets untouched for this long are dropped. It is raised to the longest policy period if
+     * configured lower: an idle bucket is full again by then, so evicting it resets nobody's budget.
+     */
+    @Value("${app.rate-limit.bucket-idle-timeout:PT2M}")
+    private Duration bucketIdleTimeout = Duration.ofMinutes(2);
+
+    @Autowired(required = false)
+    private Environment environment;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    /** Policy specs by route id, e.g. {@code catalog-service -> 50/1s,600/1m} */
+    private Map<String, String> policySpecs = Map.of(DEFAULT_POLICY, "100/1m");
+
+    /** Time source for idle expiry; replaced in tests */
+    private Ticker ticker = Ticker.systemTicker();
+
+    /** Wall clock for the shared backend's windows; replaced in tests */
+    private LongSupplier clock = System::currentTimeMillis;
+
+    private Map<String, RateLimitPolicy> policies;
+
+    private RateLimitPolicy defaultPolicy;
+
+    private InMemoryRateLimitBackend localBackend;
+
+    private RateLimitBackend backend;
+
+    private HikariDataSource dataSource;
+
+    @PostConstruct
+    public void init() {
+        if (environment != null) {
+            policySpecs = Binder.get(environment)
+                    .bind("app.rate-limit.policies", Bindable.mapOf(String.class, String.class))
+                    .orElse(policySpecs);
+        }
+
+        Map<String, RateLimitPolicy> parsed = new HashMap<>();
+        policySpecs.forEach((routeId, spec) -> parsed.put(routeId, RateLimitPolicy.parse(routeId, spec)));
+        defaultPolicy = parsed.containsKey(DEFAULT_POLICY)
+                ? parsed.get(DEFAULT_POLICY)
+                : RateLimitPolicy.parse(DEFAULT_POLICY, "100/1m");
+        policies = Map.copyOf(parsed);
+
+        Duration idleTimeout = bucketIdleTimeout;
+        for (RateLimitPolicy policy : policies.values()) {
+            if (policy.longestPeriod().compareTo(idleTimeout) > 0) {
+                idleTimeout = policy.longestPeriod();
+            }
+        }
+
+        localBackend = new InMemoryRateLimitBackend(maxBuckets, idleTimeout, ticker, meterRegistry);
+        backend = "jdbc".equalsIgnoreCase(backendType) ? jdbcBackend(idleTimeout) : localBackend;
+        logger.info("Rate limiting with {} backend, {} route policies", backendType, policies.size());
+    }
+
+    /**
+     * Shared backend over a small dedicated connection pool.
+     * Falls back to the per-instance buckets while the database is unreachable.
+     */
+    private RateLimitBackend jdbcBackend(Duration idleTimeout) {
+        if (jdbcUrl == null || jdbcUrl.isBlank()) {
+            throw new IllegalStateException("app.rate-limit.backend=jdbc requires app.rate-limit.jdbc.url");
+        }
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName("rate-limit");
+        hikari.setJdbcUrl(jdbcUrl);
+        hikari.setUsername(jdbcUsername);
+        hikari.setPassword(jdbcPassword);
+        hikari.setMaximumPoolSize(jdbcPoolSize);
+        if (meterRegistry != null) {
+            hikari.setMetricRegistry(meterRegistry);
+        }
+        dataSource = new HikariDataSource(hikari);
+
+        JdbcRateLimitBackend jdbc = new JdbcRateLimitBackend(
+                dataSource,
+                new JdbcRateLimitBackend.Settings(jdbcMaxBatch, jdbcLeaseDivisor, maxBuckets, idleTimeout, jdbcCleanupInterval),
+                localBackend,
+                meterRegistry,
+                clock
+        );
+        if (jdbcInitializeSchema) {
+            try {
+                jdbc.initializeSchema();
+            } catch (SQLException ex) {
+                logger.warn("Unable to create rate-limit table; assuming it exists: {}", ex.getMessage());
+            }
+        }
+        return jdbc;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (backend != null) {
+            backend.close();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
 
     /**
      * Key resolver for rate limiting based on IP address
-     * In production, consider using Redis for distributed rate limiting
      */
     @Bean
     public KeyResolver ipAddressKeyResolver() {
         return exchange -> {
-            String ip = exchange.getRequest().getRemoteAddress() != null 
+            String ip = exchange.getRequest().getRemoteAddress() != null
                 ? exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
                 : "unknown";
             return Mono.just(ip);
@@ -32,20 +184,61 @@ public class RateLimitConfig {
     }
 
     /**
-     * Get or create a bucket for rate limiting
-     * Limit: 100 requests per minute per IP
+     * Policy for a gateway route
+     * @param routeId matched route id, or null when no route matched
+     * @return the route's policy, or the default policy
+     */
+    public RateLimitPolicy resolvePolicy(String routeId) {
+        if (routeId == null) {
+            return defaultPolicy;
+        }
+        RateLimitPolicy policy = policies.get(routeId);
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    /**
+     * Take one token for a client from the configured backend
+     * @param clientKey user or IP key
+     * @param policy    policy to enforce
+     */
+    public Mono<RateLimitResult> tryConsume(String clientKey, RateLimitPolicy policy) {
+        return backend.tryConsume(clientKey, policy);
+    }
+
+    /**
+     * @return the active backend
+     */
+    public RateLimitBackend backend() {
+        return backend;
+    }
+
+    /**
+     * Get or create the local default-policy bucket for a client
      */
     public Bucket resolveBucket(String key) {
-        return buckets.computeIfAbsent(key, k -> createNewBucket());
+        return resolveBucket(key, defaultPolicy);
     }
 
-    private Bucket createNewBucket() {
-        Bandwidth limit = Bandwidth.classic(
-            100,  // capacity: 100 requests
-            Refill.intervally(100, Duration.ofMinutes(1))  // refill 100 tokens every minute
-        );
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
+    /**
+     * Get or create a local bucket for a client under a policy
+     * @param clientKey user or IP key
+     * @param policy    policy the bucket enforces
+     */
+    public Bucket resolveBucket(String clientKey, RateLimitPolicy policy) {
+        return localBackend.resolveBucket(clientKey, policy);
+    }
+
+    /**
+     * @return approximate number of local buckets currently held
+     */
+    public long bucketCount() {
+        return localBackend.bucketCount();
+    }
+
+    /**
+     * Run pending evictions now (normally amortized over cache operations)
+     */
+    public void cleanUp() {
+        localBackend.cleanUp();
     }
 }
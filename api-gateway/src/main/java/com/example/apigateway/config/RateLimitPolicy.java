@@ -0,0 +1,93 @@
+package com.example.apigateway.config;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Rate-limit policy for one gateway route: one or more token-bucket limits that must all allow
+ * a request, typically a short burst window plus a longer sustained window.
+ * <p>
+ * Parsed from specs such as {@code 20/1s,300/1m} ({@code capacity/period}, comma-separated).
+ *
+ * @param name   policy name (route id, or {@code default})
+ * @param limits individual limits, smallest capacity first
+ */
+public record RateLimitPolicy(String name, List<Limit> limits) {
+
+    /**
+     * @param capacity tokens available per period
+     * @param period   refill period
+     */
+    public record Limit(long capacity, Duration period) {
+    }
+
+    public RateLimitPolicy {
+        if (limits.isEmpty()) {
+            throw new IllegalArgumentException("Rate limit policy '" + name + "' has no limits");
+        }
+        limits = limits.stream()
+                .sorted(Comparator.comparingLong(Limit::capacity))
+                .toList();
+    }
+
+    /**
+     * Parse a policy spec
+     * @param name policy name
+     * @param spec e.g. {@code 20/1s,300/1m}
+     * @return policy
+     * @throws IllegalArgumentException if the spec is malformed
+     */
+    public static RateLimitPolicy parse(String name, String spec) {
+        List<Limit> limits = Arrays.stream(spec.split(","))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .map(part -> {
+                    int slash = part.indexOf('/');
+                    if (slash <= 0) {
+                        throw new IllegalArgumentException("Rate limit must be '<capacity>/<period>': " + part);
+                    }
+                    long capacity = Long.parseLong(part.substring(0, slash).trim());
+                    Duration period = DurationStyle.detectAndParse(part.substring(slash + 1).trim());
+                    return new Limit(capacity, period);
+                })
+                .toList();
+        return new RateLimitPolicy(name, limits);
+    }
+
+    /**
+     * @return smallest capacity across all limits (reported as {@code RateLimit-Limit})
+     */
+    public long limit() {
+        return limits.get(0).capacity();
+    }
+
+    /**
+     * @return longest refill period across all limits
+     */
+    public Duration longestPeriod() {
+        return limits.stream()
+                .map(Limit::period)
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+    }
+
+    /**
+     * @return a new bucket enforcing every limit of this policy
+     */
+    public Bucket newBucket() {
+        var builder = Bucket.builder();
+        for (Limit limit : limits) {
+            builder.addLimit(Bandwidth.builder()
+                    .capacity(limit.capacity())
+                    .refillIntervally(limit.capacity(), limit.period())
+                    .build());
+        }
+        return builder.build();
+    }
+}
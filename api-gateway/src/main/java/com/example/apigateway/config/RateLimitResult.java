@@ -0,0 +1,28 @@
+package com.example.apigateway.config;
+
+import io.github.bucket4j.ConsumptionProbe;
+
+/**
+ * Outcome of one rate-limit check, independent of the backend that produced it.
+ *
+ * @param consumed     whether the request may proceed
+ * @param remaining    requests left before the next limit is hit
+ * @param nanosToReset time until every limit is fully available again
+ * @param nanosToRetry time until a rejected request could succeed (0 when consumed)
+ */
+public record RateLimitResult(boolean consumed, long remaining, long nanosToReset, long nanosToRetry) {
+
+    /**
+     * Adapt a Bucket4j probe
+     * @param probe result of {@code tryConsumeAndReturnRemaining}
+     * @return equivalent result
+     */
+    public static RateLimitResult from(ConsumptionProbe probe) {
+        return new RateLimitResult(
+                probe.isConsumed(),
+                probe.getRemainingTokens(),
+                probe.getNanosToWaitForReset(),
+                probe.isConsumed() ? 0L : probe.getNanosToWaitForRefill()
+        );
+    }
+}
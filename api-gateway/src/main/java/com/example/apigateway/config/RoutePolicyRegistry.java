@@ -0,0 +1,134 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.util.RouteDecision;
+import com.example.apigateway.util.RouteMatcher;
+import com.example.apigateway.util.RouteRules;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the compiled route-policy table used by {@code SecurityConfig} and
+ * {@code JwtAuthenticationFilter}.
+ * <p>
+ * Rules are read from {@code app.security.routes.*} at startup. If
+ * {@code app.security.routes.file} points at a properties file with the same keys, that file
+ * takes precedence and is polled for changes; each change compiles a new table and swaps it in
+ * atomically, so requests in flight keep using the table they started with.
+ */
+@Component
+public class RoutePolicyRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(RoutePolicyRegistry.class);
+
+    private final Path rulesFile;
+    private volatile RouteRules rules;
+    private volatile RouteMatcher matcher;
+    private volatile FileTime rulesFileModified;
+    private ScheduledExecutorService watcher;
+
+    @Autowired
+    public RoutePolicyRegistry(Environment environment,
+                               @Value("${app.security.routes.file:}") String rulesFile,
+                               @Value("${app.security.routes.reload-interval-seconds:30}") long reloadIntervalSeconds) {
+        this.rulesFile = rulesFile == null || rulesFile.isBlank() ? null : Path.of(rulesFile);
+        replace(RouteRules.from(environment::getProperty));
+
+        if (this.rulesFile != null) {
+            reload();
+            watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "route-policy-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::reloadIfChanged,
+                    reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Registry with fixed rules and no file watching
+     */
+    public RoutePolicyRegistry(RouteRules rules) {
+        this.rulesFile = null;
+        replace(rules);
+    }
+
+    /**
+     * Resolve the policy for a request
+     * @param method HTTP method name
+     * @param path   request path
+     * @return policy decision
+     */
+    public RouteDecision match(String method, String path) {
+        return matcher.match(method, path);
+    }
+
+    /**
+     * @return rules the current table was compiled from
+     */
+    public RouteRules currentRules() {
+        return rules;
+    }
+
+    /**
+     * Compile and atomically install a new rule set
+     * @throws IllegalArgumentException if a rule is malformed; the current table is kept
+     */
+    public void replace(RouteRules newRules) {
+        RouteMatcher compiled = RouteMatcher.compile(newRules);
+        rules = newRules;
+        matcher = compiled;
+    }
+
+    /**
+     * Re-read the rules file. A missing or invalid file keeps the current table.
+     */
+    public synchronized void reload() {
+        try {
+            rulesFileModified = Files.getLastModifiedTime(rulesFile);
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(rulesFile, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            replace(RouteRules.from(properties::getProperty));
+            logger.info("Loaded route policies from {}", rulesFile);
+        } catch (IOException ex) {
+            logger.warn("Unable to read route policy file {}: {}", rulesFile, ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            logger.error("Invalid route policy file {}; keeping current policies: {}", rulesFile, ex.getMessage());
+        }
+    }
+
+    private void reloadIfChanged() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(rulesFile);
+            if (!modified.equals(rulesFileModified)) {
+                reload();
+            }
+        } catch (IOException ex) {
+            logger.debug("Route policy file {} not readable: {}", rulesFile, ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+}
@@ -1,60 +1,42 @@
 package com.example.apigateway.config;
 
+import com.example.apigateway.util.JwtPrincipal;
 import com.example.apigateway.util.JwtTokenValidator;
+import com.example.apigateway.util.RouteDecision;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
 import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
-    private static final String[] PUBLIC_ENDPOINTS = {
-            "/",
-            "/health",
-            "/actuator/**",
-            "/swagger-ui.html",
-            "/swagger-ui/**",
-            "/v3/api-docs/**",
-            "/webjars/**",
-            "/auth/register",
-            "/auth/login",
-            "/auth/refresh",
-            "/auth/forgot-password",
-            "/auth/reset-password",
-            "/auth/health",
-            "/auth/actuator/**",
-            "/catalog/actuator/**",
-            "/orders/actuator/**",
-            "/payments/actuator/**",
-            "/auth/v3/api-docs/**",
-            "/catalog/v3/api-docs/**",
-            "/orders/v3/api-docs/**",
-            "/payments/v3/api-docs/**"
-    };
-
-    private static final String[] PUBLIC_CATALOG_GET_PATHS = {
-            "/catalog/items/**",
-            "/catalog/categories/**"
-    };
-
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtTokenValidator jwtTokenValidator) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         JwtTokenValidator jwtTokenValidator,
+                                                         RoutePolicyRegistry routePolicyRegistry) {
         AuthenticationWebFilter jwtAuthFilter = jwtAuthenticationWebFilter(jwtTokenValidator);
 
         return http
@@ -65,10 +47,7 @@ public class SecurityConfig {
                 .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
                 .authorizeExchange(exchanges -> exchanges
                     .pathMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-                        .pathMatchers(PUBLIC_ENDPOINTS).permitAll()
-                        .pathMatchers(HttpMethod.GET, PUBLIC_CATALOG_GET_PATHS).permitAll()
-                        .pathMatchers(HttpMethod.HEAD, PUBLIC_CATALOG_GET_PATHS).permitAll()
-                        .anyExchange().authenticated()
+                        .anyExchange().access(routePolicyAuthorization(routePolicyRegistry))
                 )
                 .exceptionHandling(exceptionHandling -> exceptionHandling
                         .authenticationEntryPoint((exchange, ex) -> {
@@ -80,15 +59,34 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * Authorize every exchange against the shared route-policy table (app.security.routes.*)
+     */
+    private ReactiveAuthorizationManager<AuthorizationContext> routePolicyAuthorization(RoutePolicyRegistry routePolicyRegistry) {
+        return (authentication, context) -> {
+            ServerHttpRequest request = context.getExchange().getRequest();
+            RouteDecision decision = routePolicyRegistry.match(request.getMethod().name(), request.getPath().value());
+            if (decision.permitsAnonymous()) {
+                return Mono.just(new AuthorizationDecision(true));
+            }
+            return authentication
+                    .filter(Authentication::isAuthenticated)
+                    .map(auth -> new AuthorizationDecision(decision.permitsRoles(
+                            auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())))
+                    .defaultIfEmpty(new AuthorizationDecision(false));
+        };
+    }
+
     private AuthenticationWebFilter jwtAuthenticationWebFilter(JwtTokenValidator jwtTokenValidator) {
         ReactiveAuthenticationManager authenticationManager = authentication -> {
             String token = String.valueOf(authentication.getCredentials());
-            if (!jwtTokenValidator.validateToken(token)) {
+            Optional<JwtPrincipal> principal = jwtTokenValidator.resolvePrincipal(token);
+            if (principal.isEmpty()) {
                 return Mono.error(new BadCredentialsException("Invalid JWT token"));
             }
 
-            String username = jwtTokenValidator.extractUsername(token);
-            List<SimpleGrantedAuthority> authorities = jwtTokenValidator.extractRoles(token).stream()
+            String username = principal.get().username();
+            List<SimpleGrantedAuthority> authorities = principal.get().roles().stream()
                     .filter(role -> role != null && !role.isBlank())
                     .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
                     .map(SimpleGrantedAuthority::new)
@@ -0,0 +1,63 @@
+package com.example.apigateway.controller;
+
+import com.example.apigateway.util.ResponseCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Invalidation hook for the gateway response cache.
+ * Called by downstream services (e.g. catalog-service) after their data changes; authenticated
+ * with a shared token since the caller is a service, not a user.
+ */
+@RestController
+@RequestMapping("/gateway/cache")
+public class GatewayCacheController {
+    private static final Logger logger = LoggerFactory.getLogger(GatewayCacheController.class);
+
+    static final String TOKEN_HEADER = "X-Cache-Invalidation-Token";
+
+    @Value("${app.response-cache.invalidation-token:}")
+    private String invalidationToken;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @PostMapping("/invalidate")
+    public ResponseEntity<Map<String, Object>> invalidate(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @RequestParam(defaultValue = "") String prefix) {
+        if (invalidationToken == null || invalidationToken.isBlank() || token == null
+                || !MessageDigest.isEqual(invalidationToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("status", HttpStatus.FORBIDDEN.value());
+            error.put("error", HttpStatus.FORBIDDEN.getReasonPhrase());
+            error.put("message", "Invalid cache invalidation token");
+            error.put("timestamp", LocalDateTime.now().toString());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+        }
+
+        int removed = responseCache.invalidate(prefix);
+        logger.info("Response cache invalidated for prefix '{}': {} entries removed", prefix, removed);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("prefix", prefix);
+        result.put("removed", removed);
+        result.put("timestamp", LocalDateTime.now().toString());
+        return ResponseEntity.ok(result);
+    }
+}
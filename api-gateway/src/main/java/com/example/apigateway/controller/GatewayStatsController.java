@@ -0,0 +1,32 @@
+package com.example.apigateway.controller;
+
+import com.example.apigateway.util.RouteStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-route latency and error statistics for the gateway (rolling window)
+ */
+@RestController
+@RequestMapping("/gateway")
+public class GatewayStatsController {
+
+    @Autowired
+    private RouteStats routeStats;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("timestamp", LocalDateTime.now().toString());
+        stats.put("window", routeStats.window().toString());
+        stats.put("routes", routeStats.snapshot());
+        return ResponseEntity.ok(stats);
+    }
+}
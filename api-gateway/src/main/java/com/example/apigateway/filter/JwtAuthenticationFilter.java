@@ -1,6 +1,9 @@
 package com.example.apigateway.filter;
 
+import com.example.apigateway.config.RoutePolicyRegistry;
+import com.example.apigateway.util.JwtPrincipal;
 import com.example.apigateway.util.JwtTokenValidator;
+import com.example.apigateway.util.RouteDecision;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +19,7 @@ import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Global JWT Authentication Filter for API Gateway
@@ -26,35 +30,14 @@ import java.util.List;
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    /** Exchange attribute holding the authenticated user id (read by the access log) */
+    public static final String USER_ID_ATTR = JwtAuthenticationFilter.class.getName() + ".userId";
+
     @Autowired
     private JwtTokenValidator jwtTokenValidator;
 
-    private static final String[] PUBLIC_ENDPOINTS = {
-            "/auth/register",
-            "/auth/login",
-            "/auth/refresh",
-            "/auth/forgot-password",
-            "/auth/reset-password",
-            "/auth/health",
-            "/actuator/",        // All actuator endpoints
-            "/auth/actuator/",   // Auth service actuator endpoints via gateway
-            "/catalog/actuator/",// Catalog service actuator endpoints via gateway
-            "/orders/actuator/", // Order service actuator endpoints via gateway
-            "/payments/actuator/", // Payment service actuator endpoints via gateway
-            "/auth/v3/api-docs",
-            "/catalog/v3/api-docs",
-            "/orders/v3/api-docs",
-            "/payments/v3/api-docs",
-            "/swagger-ui",
-            "/v3/api-docs",
-            "/webjars"
-    };
-
-    /** Catalog browse paths that are public for GET/HEAD only */
-    private static final String[] PUBLIC_GET_PATHS = {
-            "/catalog/items",
-            "/catalog/categories",
-    };
+    @Autowired
+    private RoutePolicyRegistry routePolicyRegistry;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -70,15 +53,10 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             return chain.filter(exchange);
         }
 
-        // Check if the request path is a public endpoint (method-agnostic)
-        if (isPublicEndpoint(path)) {
-            logger.debug("Public endpoint accessed: {}", path);
-            return chain.filter(exchange);
-        }
-
-        // Allow GET/HEAD on catalog browse paths without a token
-        if (("GET".equals(method) || "HEAD".equals(method)) && isPublicGetPath(path)) {
-            logger.debug("Public GET catalog path: {}", path);
+        // Resolve the route policy (public / public-read / authenticated / role-required) in one lookup
+        RouteDecision decision = routePolicyRegistry.match(method, path);
+        if (decision.permitsAnonymous()) {
+            logger.debug("{} endpoint accessed: {}", decision.policy(), path);
             return chain.filter(exchange);
         }
 
@@ -91,18 +69,26 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
         String token = authHeader.substring(7);
 
-        // Validate JWT token
-        if (!jwtTokenValidator.validateToken(token)) {
+        // Validate JWT token once and extract user information from it
+        Optional<JwtPrincipal> principal = jwtTokenValidator.resolvePrincipal(token);
+        if (principal.isEmpty()) {
             logger.warn("Invalid or expired JWT token for path: {}", path);
             return onError(exchange, "Invalid or expired JWT token", HttpStatus.UNAUTHORIZED);
         }
 
-        // Extract user information from token
-        String userId = jwtTokenValidator.extractUserId(token);
-        String username = jwtTokenValidator.extractUsername(token);
-        List<String> roles = jwtTokenValidator.extractRoles(token);
+        String userId = principal.get().userId();
+        String username = principal.get().username();
+        List<String> roles = principal.get().roles();
 
-        logger.info("Authenticated user: {} (ID: {}) accessing: {}", username, userId, path);
+        if (!decision.permitsRoles(roles)) {
+            logger.warn("User {} lacks role {} for path: {}", userId, decision.requiredRole(), path);
+            return onError(exchange, "Insufficient role for this resource", HttpStatus.FORBIDDEN);
+        }
+
+        logger.debug("Authenticated user: {} (ID: {}) accessing: {}", username, userId, path);
+        if (userId != null) {
+            exchange.getAttributes().put(USER_ID_ATTR, userId);
+        }
 
         // Add user information to request headers for downstream services
         ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
@@ -115,30 +101,6 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         return chain.filter(exchange.mutate().request(mutatedRequest).build());
     }
 
-    /**
-     * Check if the request path is a public endpoint
-     */
-    private boolean isPublicEndpoint(String path) {
-        for (String endpoint : PUBLIC_ENDPOINTS) {
-            if (path.startsWith(endpoint)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Catalog browse paths that are accessible via GET without authentication
-     */
-    private boolean isPublicGetPath(String path) {
-        for (String prefix : PUBLIC_GET_PATHS) {
-            if (path.startsWith(prefix)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * Handle authentication errors
      */
@@ -1,49 +1,62 @@
 package com.example.apigateway.filter;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.example.apigateway.util.AccessLogWriter;
+import com.example.apigateway.util.RouteStats;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 /**
  * Logging Filter for API Gateway
- * Logs all incoming requests and responses
+ * Times every request, feeds the per-route {@link RouteStats} and hands one access-log entry to the
+ * asynchronous {@link AccessLogWriter}; nothing is formatted or written on the event loop
  */
 @Component
 public class LoggingFilter implements GlobalFilter, Ordered {
-    private static final Logger logger = LoggerFactory.getLogger(LoggingFilter.class);
+
+    @Autowired
+    private AccessLogWriter accessLogWriter;
+
+    @Autowired
+    private RouteStats routeStats;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        long startTime = System.currentTimeMillis();
-        
-        String method = exchange.getRequest().getMethod().toString();
-        String path = exchange.getRequest().getPath().value();
-        String ip = exchange.getRequest().getRemoteAddress() != null 
-            ? exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
-            : "unknown";
-
-        logger.info("→ Incoming request: {} {} from {}", method, path, ip);
-
-        return chain.filter(exchange).then(
-            Mono.fromRunnable(() -> {
-                long duration = System.currentTimeMillis() - startTime;
-                int statusCode = exchange.getResponse().getStatusCode() != null 
-                    ? exchange.getResponse().getStatusCode().value() 
-                    : 0;
-                    
-                logger.info("← Response: {} {} - Status: {} - Duration: {}ms", 
-                    method, path, statusCode, duration);
-            })
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+        long startNanos = System.nanoTime();
+        routeStats.begin(routeId);
+        return chain.filter(exchange)
+                .doFinally(signal -> complete(exchange, routeId, startNanos));
+    }
+
+    private void complete(ServerWebExchange exchange, String routeId, long startNanos) {
+        long latencyNanos = System.nanoTime() - startNanos;
+        ServerHttpResponse response = exchange.getResponse();
+        HttpStatusCode statusCode = response.getStatusCode();
+        int status = statusCode != null ? statusCode.value() : 0;
+
+        routeStats.end(routeId, status, latencyNanos);
+        accessLogWriter.record(
+                exchange.getRequest().getMethod(),
+                routeId,
+                status,
+                latencyNanos,
+                response.getHeaders().getContentLength(),
+                exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTR)
         );
     }
 
     @Override
     public int getOrder() {
-        return -3; // Execute first
+        return -4; // Execute first
     }
 }
@@ -1,58 +1,114 @@
 package com.example.apigateway.filter;
 
 import com.example.apigateway.config.RateLimitConfig;
-import io.github.bucket4j.Bucket;
+import com.example.apigateway.config.RateLimitPolicy;
+import com.example.apigateway.config.RateLimitResult;
+import com.example.apigateway.util.JwtPrincipal;
+import com.example.apigateway.util.JwtTokenValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Global Rate Limiting Filter
- * Limits requests per IP address to prevent abuse
+ * Applies the matched route's policy per authenticated user, falling back to the client IP
+ * for anonymous requests, and reports quota through RateLimit-* / Retry-After headers
  */
 @Component
 public class RateLimitFilter implements GlobalFilter, Ordered {
     private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
 
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+
     @Autowired
     private RateLimitConfig rateLimitConfig;
 
+    @Autowired
+    private JwtTokenValidator jwtTokenValidator;
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        String ip = exchange.getRequest().getRemoteAddress() != null 
-            ? exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
-            : "unknown";
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RateLimitPolicy policy = rateLimitConfig.resolvePolicy(route != null ? route.getId() : null);
+        String clientKey = resolveClientKey(exchange);
+
+        return rateLimitConfig.tryConsume(clientKey, policy)
+                .flatMap(result -> apply(exchange, chain, clientKey, policy, result));
+    }
 
-        Bucket bucket = rateLimitConfig.resolveBucket(ip);
+    private Mono<Void> apply(ServerWebExchange exchange, GatewayFilterChain chain, String clientKey,
+                             RateLimitPolicy policy, RateLimitResult result) {
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set(LIMIT_HEADER, Long.toString(policy.limit()));
+        headers.set(REMAINING_HEADER, Long.toString(result.remaining()));
+        headers.set(RESET_HEADER, Long.toString(toSeconds(result.nanosToReset())));
 
-        if (bucket.tryConsume(1)) {
-            logger.debug("Request allowed for IP: {}", ip);
+        if (result.consumed()) {
+            logger.debug("Request allowed for {} under policy {}", clientKey, policy.name());
             return chain.filter(exchange);
         } else {
-            logger.warn("Rate limit exceeded for IP: {}", ip);
+            logger.warn("Rate limit exceeded for {} under policy {}", clientKey, policy.name());
             exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
-            exchange.getResponse().getHeaders().add("Content-Type", "application/json");
-            
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(toSeconds(result.nanosToRetry())));
+            headers.add("Content-Type", "application/json");
+
             String errorJson = String.format(
                 "{\"timestamp\":\"%s\",\"status\":429,\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded. Please try again later.\"}",
                 java.time.LocalDateTime.now().toString()
             );
-            
+
             return exchange.getResponse().writeWith(
                 Mono.just(exchange.getResponse().bufferFactory().wrap(errorJson.getBytes()))
             );
         }
     }
 
+    /**
+     * Rate-limit key: the verified user id when a valid bearer token is present, otherwise the IP.
+     * The inbound X-User-Id header is never trusted here since clients can set it themselves;
+     * the token lookup hits the validator's cache, so JwtAuthenticationFilter does not re-verify.
+     */
+    private String resolveClientKey(ServerWebExchange exchange) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String userId = jwtTokenValidator.resolvePrincipal(authHeader.substring(7))
+                    .map(JwtPrincipal::userId)
+                    .orElse(null);
+            if (userId != null && !userId.isBlank()) {
+                return "user:" + userId;
+            }
+        }
+        String ip = exchange.getRequest().getRemoteAddress() != null
+            ? exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
+            : "unknown";
+        return "ip:" + ip;
+    }
+
+    /** Round up so clients never retry before the bucket has refilled */
+    private static long toSeconds(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+        return nanos % TimeUnit.SECONDS.toNanos(1) == 0 ? seconds : seconds + 1;
+    }
+
     @Override
     public int getOrder() {
-        return -2; // Execute before JWT authentication filter
+        return -3; // Execute before the response cache and JWT authentication filter
     }
 }
@@ -0,0 +1,151 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.util.ResponseCache;
+import com.example.apigateway.util.ResponseCache.CachedResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Response Cache Filter
+ * Serves configured GET routes from {@link ResponseCache}, answers matching If-None-Match
+ * requests with 304, and lets only one request per key go upstream on a miss
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    static final String CACHE_HEADER = "X-Cache";
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || !responseCache.covers(request)) {
+            return chain.filter(exchange);
+        }
+
+        String key = ResponseCache.key(request);
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            return replay(exchange, cached, "HIT");
+        }
+
+        ResponseCache.Flight flight = responseCache.join(key);
+        if (flight.leader()) {
+            ServerHttpResponse capturing = new CapturingResponse(exchange, key, flight);
+            return chain.filter(exchange.mutate().response(capturing).build())
+                    .doFinally(signal -> responseCache.leave(key, flight));
+        }
+
+        // Another request is already fetching this key; reuse its response if it was cacheable
+        return responseCache.awaitLeader(flight)
+                .flatMap(result -> result.isPresent()
+                        ? replay(exchange, result.get(), "COALESCED")
+                        : chain.filter(exchange));
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, CachedResponse cached, String outcome) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.set(CACHE_HEADER, outcome);
+
+        if (cached.matches(exchange.getRequest().getHeaders().getIfNoneMatch())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        headers.putAll(cached.headers());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean cacheable(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != 200 || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    /**
+     * Buffers the leader's upstream body so it can be stored, shared with waiting requests
+     * and given an ETag, then writes it to the client
+     */
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final ResponseCache.Flight flight;
+
+        CapturingResponse(ServerWebExchange exchange, String key, ResponseCache.Flight flight) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            long contentLength = headers.getContentLength();
+            if (!cacheable(getStatusCode(), headers) || contentLength > responseCache.maxEntryBytes()) {
+                flight.complete(null);
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                CachedResponse captured = CachedResponse.of(getStatusCode().value(), headers, bytes);
+                boolean stored = responseCache.store(key, flight, captured);
+                flight.complete(stored ? captured : null);
+
+                headers.setETag(captured.etag());
+                headers.set(CACHE_HEADER, "MISS");
+                List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+                if (captured.matches(ifNoneMatch)) {
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    return setComplete();
+                }
+                headers.setContentLength(bytes.length);
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streaming responses are never cached
+            flight.complete(null);
+            return super.writeAndFlushWith(body);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // Must wrap the response before NettyWriteResponseFilter writes the upstream body
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
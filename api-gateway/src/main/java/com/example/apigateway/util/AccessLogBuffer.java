@@ -0,0 +1,135 @@
+package com.example.apigateway.util;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size ring of access-log entries: many request threads write, one background thread reads.
+ * <p>
+ * Every slot is pre-allocated as parallel primitive/reference arrays, so recording an entry
+ * allocates nothing. Writers claim a sequence number with a CAS and publish the slot once its
+ * fields are written; the reader consumes slots strictly in sequence order. When the reader
+ * falls a full ring behind, new entries are dropped (and counted) rather than blocking a request.
+ */
+public final class AccessLogBuffer {
+
+    /** Receives drained entries; called on the draining thread only */
+    @FunctionalInterface
+    public interface EntryHandler {
+        void handle(long timestampMillis, HttpMethod method, String routeId, int status,
+                    long latencyNanos, long bytes, String userId);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final long[] timestamps;
+    private final HttpMethod[] methods;
+    private final String[] routeIds;
+    private final int[] statuses;
+    private final long[] latencies;
+    private final long[] bytes;
+    private final String[] userIds;
+
+    /** Sequence + 1 of the entry last published in each slot (0 = never written) */
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param requestedCapacity number of slots, rounded up to a power of two
+     */
+    public AccessLogBuffer(int requestedCapacity) {
+        if (requestedCapacity < 1 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Access log buffer size must be between 1 and 2^30: " + requestedCapacity);
+        }
+        capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        mask = capacity - 1;
+        timestamps = new long[capacity];
+        methods = new HttpMethod[capacity];
+        routeIds = new String[capacity];
+        statuses = new int[capacity];
+        latencies = new long[capacity];
+        bytes = new long[capacity];
+        userIds = new String[capacity];
+        published = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Record one entry without blocking
+     * @return false if the ring was full and the entry was dropped
+     */
+    public boolean offer(long timestampMillis, HttpMethod method, String routeId, int status,
+                         long latencyNanos, long byteCount, String userId) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= capacity) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        timestamps[slot] = timestampMillis;
+        methods[slot] = method;
+        routeIds[slot] = routeId;
+        statuses[slot] = status;
+        latencies[slot] = latencyNanos;
+        bytes[slot] = byteCount;
+        userIds[slot] = userId;
+        published.lazySet(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Hand published entries to the handler in order. Must only be called from one thread.
+     * @param handler receives each entry
+     * @param max     upper bound on entries drained in this call
+     * @return number of entries drained
+     */
+    public int drain(EntryHandler handler, int max) {
+        long sequence = consumed.get();
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) (sequence & mask);
+            if (published.get(slot) != sequence + 1) {
+                break;
+            }
+            handler.handle(timestamps[slot], methods[slot], routeIds[slot], statuses[slot],
+                    latencies[slot], bytes[slot], userIds[slot]);
+            // Release references so drained entries do not pin request data
+            methods[slot] = null;
+            routeIds[slot] = null;
+            userIds[slot] = null;
+            sequence++;
+            drained++;
+            consumed.lazySet(sequence);
+        }
+        return drained;
+    }
+
+    /**
+     * @return number of slots
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return entries claimed but not yet drained (approximate while writers are active)
+     */
+    public long pending() {
+        return claimed.get() - consumed.get();
+    }
+
+    /**
+     * @return entries dropped because the ring was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.apigateway.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous gateway access log.
+ * <p>
+ * Request threads only copy a handful of fields into an {@link AccessLogBuffer}; a background
+ * thread formats the entries as JSON lines and writes them to the {@code gateway.access} logger. Successful requests are sampled at
+ * {@code app.access-log.sample-rate}; server errors are always logged.
+ */
+@Component
+public class AccessLogWriter {
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+    private static final Logger accessLog = LoggerFactory.getLogger("gateway.access");
+
+    private static final int DRAIN_BATCH = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Value("${app.access-log.enabled:true}")
+    private boolean enabled = true;
+
+    /** Ring slots; entries are dropped (and counted) while the writer is this far behind */
+    @Value("${app.access-log.buffer-size:8192}")
+    private int bufferSize = 8192;
+
+    /** Fraction of non-5xx requests written to the access log (0.0 - 1.0) */
+    @Value("${app.access-log.sample-rate:1.0}")
+    private double sampleRate = 1.0;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private AccessLogBuffer buffer;
+
+    /** Reused by the drain thread for every line */
+    private final StringBuilder line = new StringBuilder(256);
+
+    private final AccessLogBuffer.EntryHandler lineWriter = this::writeLine;
+
+    private volatile boolean running;
+
+    private Thread drainThread;
+
+    @PostConstruct
+    public void init() {
+        buffer = new AccessLogBuffer(bufferSize);
+        if (meterRegistry != null) {
+            Gauge.builder("gateway.access-log.pending", buffer, AccessLogBuffer::pending)
+                    .description("Access log entries waiting to be written")
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.access-log.dropped", buffer, AccessLogBuffer::dropped)
+                    .description("Access log entries dropped because the buffer was full")
+                    .register(meterRegistry);
+        }
+        if (enabled) {
+            running = true;
+            drainThread = new Thread(this::drainLoop, "access-log-writer");
+            drainThread.setDaemon(true);
+            drainThread.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (drainThread != null) {
+            LockSupport.unpark(drainThread);
+            try {
+                drainThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Record a completed request. Does not block and does not format anything.
+     * @param method       request method
+     * @param routeId      matched gateway route, or null
+     * @param status       response status (0 if none was set)
+     * @param latencyNanos time spent in the filter chain, from {@link System#nanoTime()}
+     * @param bytes        response Content-Length, or -1 when unknown
+     * @param userId       authenticated user id, or null
+     */
+    public void record(HttpMethod method, String routeId, int status, long latencyNanos, long bytes, String userId) {
+        if (!enabled) {
+            return;
+        }
+        if (status < 500 && sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        buffer.offer(System.currentTimeMillis(), method, routeId, status, latencyNanos, bytes, userId);
+    }
+
+    /**
+     * Write every pending entry now
+     * @return number of entries written
+     */
+    public int flush() {
+        int total = 0;
+        int drained;
+        while ((drained = drainBatch()) > 0) {
+            total += drained;
+        }
+        return total;
+    }
+
+    /** The buffer allows a single reader; the lock is uncontended except during {@link #flush()} */
+    private synchronized int drainBatch() {
+        return buffer.drain(lineWriter, DRAIN_BATCH);
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (drainBatch() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException ex) {
+                logger.warn("Access log write failed: {}", ex.getMessage());
+            }
+        }
+        flush();
+    }
+
+    private void writeLine(long timestampMillis, HttpMethod method, String routeId, int status,
+                           long latencyNanos, long bytes, String userId) {
+        if (!accessLog.isInfoEnabled()) {
+            return;
+        }
+        line.setLength(0);
+        appendJson(line, timestampMillis, method, routeId, status, latencyNanos, bytes, userId);
+        accessLog.info(line.toString());
+    }
+
+    /**
+     * Format one entry as a single JSON object
+     */
+    static void appendJson(StringBuilder out, long timestampMillis, HttpMethod method, String routeId,
+                           int status, long latencyNanos, long bytes, String userId) {
+        out.append("{\"ts\":\"").append(Instant.ofEpochMilli(timestampMillis)).append('"');
+        out.append(",\"method\":");
+        appendString(out, method != null ? method.name() : null);
+        out.append(",\"route\":");
+        appendString(out, routeId);
+        out.append(",\"status\":").append(status);
+        out.append(",\"latencyMs\":").append(latencyNanos / 1_000_000).append('.');
+        long micros = (latencyNanos / 1_000) % 1_000;
+        if (micros < 100) {
+            out.append('0');
+        }
+        if (micros < 10) {
+            out.append('0');
+        }
+        out.append(micros);
+        out.append(",\"bytes\":").append(bytes);
+        out.append(",\"userId\":");
+        appendString(out, userId);
+        out.append('}');
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.apigateway.util;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of a verified JWT.
+ * Produced once per token by {@link JwtTokenValidator#resolvePrincipal(String)} and
+ * shared by every filter that needs the caller's identity.
+ *
+ * @param userId    value of the {@code userId} claim (may be null for legacy tokens)
+ * @param username  token subject
+ * @param roles     roles from the {@code roles} list claim or the single {@code role} claim
+ * @param expiresAt token expiry, or null when the token carries no {@code exp} claim
+ */
+public record JwtPrincipal(String userId, String username, List<String> roles, Instant expiresAt) {
+
+    public JwtPrincipal {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    /**
+     * Check whether the token behind this principal has expired
+     * @param now reference instant
+     * @return true if expired, false otherwise
+     */
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -1,16 +1,31 @@
 package com.example.apigateway.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 @Component
 public class JwtTokenValidator {
@@ -19,30 +34,98 @@ public class JwtTokenValidator {
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
+    /** Maximum number of verified tokens kept in memory */
+    @Value("${app.jwt.cache.max-size:10000}")
+    private long cacheMaxSize = 10_000;
+
+    /** Optional properties file with rotating keys (see {@link JwtKeyRing}) */
+    @Value("${app.jwt.keys.file:}")
+    private String keyFile;
+
+    @Value("${app.jwt.keys.reload-interval-seconds:30}")
+    private long keyReloadIntervalSeconds = 30;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private JwtKeyRing keyRing;
+
+    private JwtParser jwtParser;
+
+    /** Verified principals keyed by SHA-256 digest of the raw token; entries expire with the token */
+    private Cache<String, JwtPrincipal> principalCache;
+
+    /**
+     * Build the key ring, parser and principal cache once.
+     * The parser is immutable and safe to share across event-loop threads; it resolves the
+     * verification key by the token's {@code kid} header with a single map lookup.
+     */
+    @PostConstruct
+    public void init() {
+        keyRing = new JwtKeyRing(jwtSecret, keyFile, Duration.ofSeconds(keyReloadIntervalSeconds));
+        jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        SecretKey key = keyRing.resolve(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown JWT key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+        principalCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        // A retired key must stop authenticating tokens immediately, not when their cache entries expire
+        keyRing.onReload(principalCache::invalidateAll);
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, principalCache, "jwt.principals");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (keyRing != null) {
+            keyRing.close();
+        }
+    }
+
+    /**
+     * Verify a token once and return the caller's identity.
+     * Repeated calls with the same token are served from the cache until the token expires.
+     * @param token JWT token string
+     * @return principal if the token is valid, empty otherwise
+     */
+    public Optional<JwtPrincipal> resolvePrincipal(String token) {
+        if (token == null || token.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return Optional.empty();
+        }
+
+        String cacheKey = digest(token);
+        JwtPrincipal cached = principalCache.getIfPresent(cacheKey);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return Optional.of(cached);
+        }
+
+        JwtPrincipal principal = parsePrincipal(token);
+        if (principal != null && principal.expiresAt() != null) {
+            principalCache.put(cacheKey, principal);
+        }
+        return Optional.ofNullable(principal);
+    }
+
     /**
      * Validate JWT token
      * @param token JWT token string
      * @return true if valid, false otherwise
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (MalformedJwtException ex) {
-            logger.error("Invalid JWT token: {}", ex.getMessage());
-        } catch (ExpiredJwtException ex) {
-            logger.error("Expired JWT token: {}", ex.getMessage());
-        } catch (UnsupportedJwtException ex) {
-            logger.error("Unsupported JWT token: {}", ex.getMessage());
-        } catch (IllegalArgumentException ex) {
-            logger.error("JWT claims string is empty: {}", ex.getMessage());
-        } catch (Exception ex) {
-            logger.error("JWT token validation error: {}", ex.getMessage());
-        }
-        return false;
+        return resolvePrincipal(token).isPresent();
     }
 
     /**
@@ -51,13 +134,7 @@ public class JwtTokenValidator {
      * @return User ID
      */
     public String extractUserId(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            return claims.get("userId", String.class);
-        } catch (Exception e) {
-            logger.error("Error extracting userId from token: {}", e.getMessage());
-            return null;
-        }
+        return resolvePrincipal(token).map(JwtPrincipal::userId).orElse(null);
     }
 
     /**
@@ -66,13 +143,7 @@ public class JwtTokenValidator {
      * @return Username
      */
     public String extractUsername(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            return claims.getSubject();
-        } catch (Exception e) {
-            logger.error("Error extracting username from token: {}", e.getMessage());
-            return null;
-        }
+        return resolvePrincipal(token).map(JwtPrincipal::username).orElse(null);
     }
 
     /**
@@ -80,22 +151,8 @@ public class JwtTokenValidator {
      * @param token JWT token string
      * @return List of roles
      */
-    @SuppressWarnings("unchecked")
     public List<String> extractRoles(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            Object rolesObj = claims.get("roles");
-            if (rolesObj instanceof List) {
-                return (List<String>) rolesObj;
-            }
-            Object roleObj = claims.get("role");
-            if (roleObj instanceof String roleValue && !roleValue.isBlank()) {
-                return List.of(roleValue);
-            }
-        } catch (Exception e) {
-            logger.error("Error extracting roles from token: {}", e.getMessage());
-        }
-        return List.of();
+        return resolvePrincipal(token).map(JwtPrincipal::roles).orElse(List.of());
     }
 
     /**
@@ -104,33 +161,86 @@ public class JwtTokenValidator {
      * @return true if expired, false otherwise
      */
     public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            return claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
+        return resolvePrincipal(token)
+                .map(principal -> principal.isExpired(Instant.now()))
+                .orElse(true);
     }
 
     /**
-     * Extract all claims from token
+     * Verify the signature and map the claims to a principal
      * @param token JWT token string
-     * @return Claims object
+     * @return principal, or null if the token is invalid
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private JwtPrincipal parsePrincipal(String token) {
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            return new JwtPrincipal(
+                    claims.get("userId", String.class),
+                    claims.getSubject(),
+                    rolesFrom(claims),
+                    expiration != null ? expiration.toInstant() : null
+            );
+        } catch (MalformedJwtException ex) {
+            logger.error("Invalid JWT token: {}", ex.getMessage());
+        } catch (ExpiredJwtException ex) {
+            logger.error("Expired JWT token: {}", ex.getMessage());
+        } catch (UnsupportedJwtException ex) {
+            logger.error("Unsupported JWT token: {}", ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            logger.error("JWT claims string is empty: {}", ex.getMessage());
+        } catch (Exception ex) {
+            logger.error("JWT token validation error: {}", ex.getMessage());
+        }
+        return null;
+    }
+
+    private List<String> rolesFrom(Claims claims) {
+        Object rolesObj = claims.get("roles");
+        if (rolesObj instanceof List<?> rolesList) {
+            return rolesList.stream()
+                    .filter(Objects::nonNull)
+                    .map(String::valueOf)
+                    .toList();
+        }
+        Object roleObj = claims.get("role");
+        if (roleObj instanceof String roleValue && !roleValue.isBlank()) {
+            return List.of(roleValue);
+        }
+        return List.of();
     }
 
     /**
-     * Get signing key from secret
-     * @return SecretKey for JWT verification
+     * Cache key for a token. Hashing keeps raw bearer tokens out of the heap-resident cache
+     * and gives every key the same small size.
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Expire each cached principal exactly when its token expires */
+    private static final class TokenExpiry implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal value, long currentTime) {
+            long remaining = Duration.between(Instant.now(), value.expiresAt()).toNanos();
+            return Math.max(0L, remaining);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,318 @@
+package com.example.apigateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in response cache for public GET routes (e.g. the catalog).
+ * <p>
+ * Entries are keyed by path plus raw query, expire after a fixed TTL and are bounded by total
+ * body size. Concurrent misses for the same key are coalesced: the first request becomes the
+ * leader and goes upstream, the others wait for its response. {@link #invalidate(String)}
+ * drops entries by path prefix and prevents responses already in flight from being stored.
+ */
+@Component
+public class ResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    /** Response headers replayed from the cache; everything else is dropped */
+    static final List<String> REPLAYED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.LAST_MODIFIED
+    );
+
+    /** Fixed per-entry overhead added to the body size when weighing entries */
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    @Value("${app.response-cache.enabled:false}")
+    private boolean enabled = false;
+
+    /** Path patterns (Spring PathPattern syntax) whose GET responses may be cached */
+    @Value("${app.response-cache.paths:}")
+    private List<String> paths = List.of();
+
+    @Value("${app.response-cache.ttl:PT30S}")
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /** Upper bound on the summed size of all cached bodies */
+    @Value("${app.response-cache.max-size:32MB}")
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+
+    /** Larger responses are passed through without being cached */
+    @Value("${app.response-cache.max-entry-size:512KB}")
+    private DataSize maxEntrySize = DataSize.ofKilobytes(512);
+
+    /** How long a coalesced request waits for the leader before going upstream itself */
+    @Value("${app.response-cache.coalesce-timeout:PT10S}")
+    private Duration coalesceTimeout = Duration.ofSeconds(10);
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private List<PathPattern> patterns = List.of();
+
+    private Cache<String, CachedResponse> entries;
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    /** Bumped by every invalidation; a response fetched under an older generation is not stored */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * A cached upstream response
+     *
+     * @param status  HTTP status (only 200 responses are cached)
+     * @param headers replayed headers, see {@link #REPLAYED_HEADERS}
+     * @param body    response body
+     * @param etag    strong entity tag (quoted)
+     */
+    public record CachedResponse(int status, HttpHeaders headers, byte[] body, String etag) {
+
+        /**
+         * Capture an upstream response, keeping its ETag or deriving one from the body
+         */
+        public static CachedResponse of(int status, HttpHeaders upstreamHeaders, byte[] body) {
+            HttpHeaders headers = new HttpHeaders();
+            for (String name : REPLAYED_HEADERS) {
+                List<String> values = upstreamHeaders.get(name);
+                if (values != null) {
+                    headers.put(name, values);
+                }
+            }
+            String etag = upstreamHeaders.getETag();
+            return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body,
+                    etag != null ? etag : etagOf(body));
+        }
+
+        /**
+         * @return true if one of the client's If-None-Match tags matches (weak comparison)
+         */
+        public boolean matches(List<String> ifNoneMatch) {
+            String own = opaque(etag);
+            for (String candidate : ifNoneMatch) {
+                if ("*".equals(candidate) || opaque(candidate).equals(own)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String opaque(String tag) {
+            return tag.startsWith("W/") ? tag.substring(2) : tag;
+        }
+    }
+
+    /**
+     * One upstream fetch that concurrent misses for the same key wait on.
+     * Completes with the cached response, or empty when the response was not cacheable.
+     */
+    public static final class Flight {
+        private final Sinks.One<Optional<CachedResponse>> sink;
+        private final long generation;
+        private final boolean leader;
+
+        private Flight(Sinks.One<Optional<CachedResponse>> sink, long generation, boolean leader) {
+            this.sink = sink;
+            this.generation = generation;
+            this.leader = leader;
+        }
+
+        /** Same fetch, seen from a request that waits on it */
+        private Flight asFollower() {
+            return new Flight(sink, generation, false);
+        }
+
+        /**
+         * @return true if this request must fetch the response upstream
+         */
+        public boolean leader() {
+            return leader;
+        }
+
+        /**
+         * Publish the leader's outcome to waiting requests; later calls are ignored
+         */
+        public void complete(CachedResponse response) {
+            sink.tryEmitValue(Optional.ofNullable(response));
+        }
+
+        Mono<Optional<CachedResponse>> result() {
+            return sink.asMono();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        PathPatternParser parser = new PathPatternParser();
+        patterns = paths.stream()
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(parser::parse)
+                .toList();
+        entries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse value) -> key.length() + value.body().length + ENTRY_OVERHEAD_BYTES)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, entries, "gateway.responses");
+            FunctionCounter.builder("gateway.response-cache.coalesced", coalesced, AtomicLong::get)
+                    .description("Cache misses served by waiting on another request's upstream call")
+                    .register(meterRegistry);
+        }
+        if (enabled) {
+            logger.info("Response cache enabled for {} (ttl {}, max {})", paths, ttl, maxSize);
+        }
+    }
+
+    /**
+     * @return true if GET responses for this request may be served from the cache
+     */
+    public boolean covers(ServerHttpRequest request) {
+        if (!enabled || patterns.isEmpty()) {
+            return false;
+        }
+        PathContainer path = request.getPath().pathWithinApplication();
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cache key: path plus raw query string
+     */
+    public static String key(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String path = request.getPath().value();
+        return query == null || query.isEmpty() ? path : path + '?' + query;
+    }
+
+    /**
+     * @return the cached response, or null
+     */
+    public CachedResponse get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * Join the upstream fetch for a key, becoming its leader if none is running
+     */
+    public Flight join(String key) {
+        Flight created = new Flight(Sinks.one(), generation.get(), true);
+        Flight existing = flights.putIfAbsent(key, created);
+        if (existing == null) {
+            return created;
+        }
+        coalesced.incrementAndGet();
+        return existing.asFollower();
+    }
+
+    /**
+     * Finish a leader's fetch so later misses start a new one
+     */
+    public void leave(String key, Flight flight) {
+        flight.complete(null);
+        flights.remove(key, flight);
+    }
+
+    /**
+     * Wait for the leader's outcome, giving up after the coalesce timeout
+     */
+    public Mono<Optional<CachedResponse>> awaitLeader(Flight flight) {
+        return flight.result().timeout(coalesceTimeout, Mono.just(Optional.empty()));
+    }
+
+    /**
+     * Store a leader's response unless the cache was invalidated while it was in flight
+     * @return true if stored
+     */
+    public boolean store(String key, Flight flight, CachedResponse response) {
+        if (response.status() != 200 || response.body().length > maxEntrySize.toBytes()
+                || generation.get() != flight.generation) {
+            return false;
+        }
+        entries.put(key, response);
+        if (generation.get() != flight.generation) {
+            // An invalidation raced with the put
+            entries.invalidate(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drop cached responses whose key starts with a path prefix
+     * @param prefix path prefix, blank for everything
+     * @return number of entries removed
+     */
+    public int invalidate(String prefix) {
+        generation.incrementAndGet();
+        if (prefix == null || prefix.isBlank()) {
+            int size = (int) entries.estimatedSize();
+            entries.invalidateAll();
+            return size;
+        }
+        int before = entries.asMap().size();
+        entries.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        return before - entries.asMap().size();
+    }
+
+    /**
+     * @return largest body that is cached
+     */
+    public long maxEntryBytes() {
+        return maxEntrySize.toBytes();
+    }
+
+    /**
+     * @return number of cached responses
+     */
+    public long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    static String etagOf(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.apigateway.util;
+
+import java.util.Collection;
+
+/**
+ * Result of a {@link RouteMatcher} lookup.
+ * Instances are created when the route table is compiled and shared by every request.
+ *
+ * @param policy       matched policy
+ * @param requiredRole role name (without {@code ROLE_} prefix) for {@link RoutePolicy#ROLE_REQUIRED}, null otherwise
+ */
+public record RouteDecision(RoutePolicy policy, String requiredRole) {
+
+    public static final RouteDecision PUBLIC = new RouteDecision(RoutePolicy.PUBLIC, null);
+    public static final RouteDecision PUBLIC_READ = new RouteDecision(RoutePolicy.PUBLIC_READ, null);
+    public static final RouteDecision AUTHENTICATED = new RouteDecision(RoutePolicy.AUTHENTICATED, null);
+
+    /**
+     * @return true if the request may proceed without a token
+     */
+    public boolean permitsAnonymous() {
+        return policy == RoutePolicy.PUBLIC || policy == RoutePolicy.PUBLIC_READ;
+    }
+
+    /**
+     * Check an authenticated caller's roles against this decision
+     * @param roles caller roles, with or without {@code ROLE_} prefix
+     * @return true if access is allowed
+     */
+    public boolean permitsRoles(Collection<String> roles) {
+        if (policy != RoutePolicy.ROLE_REQUIRED) {
+            return true;
+        }
+        for (String role : roles) {
+            if (role == null) {
+                continue;
+            }
+            String name = role.startsWith("ROLE_") ? role.substring(5) : role;
+            if (name.equalsIgnoreCase(requiredRole)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
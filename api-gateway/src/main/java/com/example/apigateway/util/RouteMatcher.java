@@ -0,0 +1,228 @@
+package com.example.apigateway.util;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiled route-policy table: a trie keyed by path segment, with per-method rules on each node.
+ * <p>
+ * {@link #match(String, String)} walks the request path once, segment by segment, hashing each
+ * segment in place and probing an open-addressed child table, so the cost depends on path depth
+ * rather than the number of configured routes and no objects are allocated per request.
+ * The most specific rule wins; an exact-path rule beats a subtree rule on the same node and a
+ * method-specific rule beats a method-agnostic one.
+ * <p>
+ * Instances are immutable; {@code RoutePolicyRegistry} swaps in a newly compiled table on reload.
+ */
+public final class RouteMatcher {
+
+    private static final String SUBTREE_SUFFIX = "/**";
+
+    private final Node root;
+
+    private RouteMatcher(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compile rules into a lookup table
+     * @param rules source rules
+     * @return immutable matcher
+     * @throws IllegalArgumentException if an entry is malformed
+     */
+    public static RouteMatcher compile(RouteRules rules) {
+        Node root = new Node();
+        for (String entry : rules.publicRoutes()) {
+            add(root, entry, RouteDecision.PUBLIC);
+        }
+        for (String entry : rules.publicReadRoutes()) {
+            String path = stripMethod(entry);
+            add(root, "GET " + path, RouteDecision.PUBLIC_READ);
+            add(root, "HEAD " + path, RouteDecision.PUBLIC_READ);
+        }
+        for (String entry : rules.roleRequiredRoutes()) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalArgumentException("Role route must be '<path>=<ROLE>': " + entry);
+            }
+            String role = entry.substring(separator + 1).trim().toUpperCase(Locale.ROOT);
+            add(root, entry.substring(0, separator).trim(), new RouteDecision(RoutePolicy.ROLE_REQUIRED, role));
+        }
+        root.freeze();
+        return new RouteMatcher(root);
+    }
+
+    /**
+     * Resolve the policy for a request
+     * @param method HTTP method name (upper case)
+     * @param path   request path
+     * @return matching decision, {@link RouteDecision#AUTHENTICATED} if nothing matches
+     */
+    public RouteDecision match(String method, String path) {
+        Node node = root;
+        RouteDecision best = node.subtreeDecision(method);
+        int length = path.length();
+        int position = 0;
+
+        while (true) {
+            while (position < length && path.charAt(position) == '/') {
+                position++;
+            }
+            if (position >= length) {
+                break;
+            }
+            int end = path.indexOf('/', position);
+            if (end < 0) {
+                end = length;
+            }
+            Node child = node.child(path, position, end);
+            if (child == null) {
+                return best != null ? best : RouteDecision.AUTHENTICATED;
+            }
+            node = child;
+            RouteDecision subtree = node.subtreeDecision(method);
+            if (subtree != null) {
+                best = subtree;
+            }
+            position = end;
+        }
+
+        RouteDecision exact = node.exactDecision(method);
+        if (exact != null) {
+            return exact;
+        }
+        return best != null ? best : RouteDecision.AUTHENTICATED;
+    }
+
+    private static void add(Node root, String entry, RouteDecision decision) {
+        String method = null;
+        String path = entry.trim();
+        int space = path.indexOf(' ');
+        if (space > 0) {
+            method = path.substring(0, space).toUpperCase(Locale.ROOT);
+            path = path.substring(space + 1).trim();
+        }
+        if (!path.startsWith("/")) {
+            throw new IllegalArgumentException("Route path must start with '/': " + entry);
+        }
+
+        boolean subtree = path.endsWith(SUBTREE_SUFFIX);
+        if (subtree) {
+            path = path.substring(0, path.length() - SUBTREE_SUFFIX.length());
+        }
+
+        Node node = root;
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                node = node.childForBuild(segment);
+            }
+        }
+        (subtree ? node.subtreeRule : node.exactRule).put(method, decision);
+    }
+
+    private static String stripMethod(String entry) {
+        String trimmed = entry.trim();
+        int space = trimmed.indexOf(' ');
+        return space > 0 ? trimmed.substring(space + 1).trim() : trimmed;
+    }
+
+    /** Decisions for one node, by method; a null method key means "any method" */
+    private static final class Rule {
+        private Map<String, RouteDecision> byMethod = new HashMap<>();
+        private RouteDecision anyMethod;
+
+        void put(String method, RouteDecision decision) {
+            if (method == null) {
+                anyMethod = decision;
+            } else {
+                byMethod.put(method, decision);
+            }
+        }
+
+        RouteDecision get(String method) {
+            RouteDecision decision = byMethod.isEmpty() ? null : byMethod.get(method);
+            return decision != null ? decision : anyMethod;
+        }
+
+        void freeze() {
+            byMethod = Map.copyOf(byMethod);
+        }
+    }
+
+    private static final class Node {
+        private final Rule exactRule = new Rule();
+        private final Rule subtreeRule = new Rule();
+
+        /** Build-time children; replaced by the open-addressed arrays in {@link #freeze()} */
+        private Map<String, Node> building = new HashMap<>();
+
+        private String[] segments = new String[0];
+        private int[] hashes = new int[0];
+        private Node[] children = new Node[0];
+        private int mask = -1;
+
+        Node childForBuild(String segment) {
+            return building.computeIfAbsent(segment, key -> new Node());
+        }
+
+        RouteDecision exactDecision(String method) {
+            return exactRule.get(method);
+        }
+
+        RouteDecision subtreeDecision(String method) {
+            return subtreeRule.get(method);
+        }
+
+        /**
+         * Look up the child for {@code path[start, end)} without creating a substring
+         */
+        Node child(String path, int start, int end) {
+            if (mask < 0) {
+                return null;
+            }
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int segmentLength = end - start;
+            for (int slot = spread(hash) & mask; segments[slot] != null; slot = (slot + 1) & mask) {
+                String candidate = segments[slot];
+                if (hashes[slot] == hash
+                        && candidate.length() == segmentLength
+                        && path.regionMatches(start, candidate, 0, segmentLength)) {
+                    return children[slot];
+                }
+            }
+            return null;
+        }
+
+        void freeze() {
+            exactRule.freeze();
+            subtreeRule.freeze();
+            if (!building.isEmpty()) {
+                int capacity = Integer.highestOneBit(Math.max(2, building.size() * 2 - 1)) << 1;
+                segments = new String[capacity];
+                hashes = new int[capacity];
+                children = new Node[capacity];
+                mask = capacity - 1;
+                for (Map.Entry<String, Node> entry : building.entrySet()) {
+                    int hash = entry.getKey().hashCode();
+                    int slot = spread(hash) & mask;
+                    while (segments[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    segments[slot] = entry.getKey();
+                    hashes[slot] = hash;
+                    children[slot] = entry.getValue();
+                    entry.getValue().freeze();
+                }
+            }
+            building = null;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
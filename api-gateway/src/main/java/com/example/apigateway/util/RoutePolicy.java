@@ -0,0 +1,15 @@
+package com.example.apigateway.util;
+
+/**
+ * Access policy attached to a gateway route.
+ */
+public enum RoutePolicy {
+    /** No token required for any method */
+    PUBLIC,
+    /** No token required for GET/HEAD; other methods fall through to the enclosing rule */
+    PUBLIC_READ,
+    /** Valid token required (default for unmatched paths) */
+    AUTHENTICATED,
+    /** Valid token carrying a specific role required */
+    ROLE_REQUIRED
+}
@@ -0,0 +1,52 @@
+package com.example.apigateway.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Source form of the gateway route-policy table.
+ * <p>
+ * Each entry is {@code [METHOD ]path}; a path ending in {@code /**} covers the whole subtree,
+ * any other path matches exactly. Role entries append {@code =ROLE}, e.g.
+ * {@code /payments/admin/**=ADMIN}. Unmatched paths require authentication.
+ *
+ * @param publicRoutes       {@code app.security.routes.public}
+ * @param publicReadRoutes   {@code app.security.routes.public-read} (GET/HEAD only)
+ * @param roleRequiredRoutes {@code app.security.routes.role-required}
+ */
+public record RouteRules(List<String> publicRoutes, List<String> publicReadRoutes, List<String> roleRequiredRoutes) {
+
+    public static final String PUBLIC_KEY = "app.security.routes.public";
+    public static final String PUBLIC_READ_KEY = "app.security.routes.public-read";
+    public static final String ROLE_REQUIRED_KEY = "app.security.routes.role-required";
+
+    public RouteRules {
+        publicRoutes = List.copyOf(publicRoutes);
+        publicReadRoutes = List.copyOf(publicReadRoutes);
+        roleRequiredRoutes = List.copyOf(roleRequiredRoutes);
+    }
+
+    /**
+     * Read rules from any property source (Spring {@code Environment}, a properties file, ...)
+     * @param lookup property lookup returning null for missing keys
+     * @return parsed rules
+     */
+    public static RouteRules from(Function<String, String> lookup) {
+        return new RouteRules(
+                split(lookup.apply(PUBLIC_KEY)),
+                split(lookup.apply(PUBLIC_READ_KEY)),
+                split(lookup.apply(ROLE_REQUIRED_KEY))
+        );
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.apigateway.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-route latency, throughput and error statistics.
+ * <p>
+ * Every completed request is recorded twice: into a Micrometer timer tagged with route id and
+ * status class ({@code gateway.route.latency}), and into a per-route HDR histogram kept over a
+ * rolling window of {@code slices} intervals. The rolling window backs {@code /gateway/stats},
+ * so percentiles reflect recent traffic instead of everything since startup.
+ */
+@Component
+public class RouteStats {
+
+    static final String LATENCY_METRIC = "gateway.route.latency";
+    static final String IN_FLIGHT_METRIC = "gateway.route.in-flight";
+
+    private static final String UNKNOWN_ROUTE = "unknown";
+    private static final String[] STATUS_CLASSES = {"none", "1xx", "2xx", "3xx", "4xx", "5xx"};
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    /** Length of the rolling window behind /gateway/stats */
+    @Value("${app.gateway.stats.window:PT1M}")
+    private Duration window = Duration.ofMinutes(1);
+
+    /** The window advances in this many steps */
+    @Value("${app.gateway.stats.slices:6}")
+    private int slices = 6;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, RouteWindow> routes = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService rotation;
+
+    /**
+     * Rolling-window view of one route
+     *
+     * @param route             gateway route id
+     * @param inFlight          requests currently being proxied
+     * @param requests          requests completed in the window
+     * @param requestsPerSecond completed requests per second over the window
+     * @param clientErrorRate   share of 4xx responses
+     * @param serverErrorRate   share of 5xx responses
+     * @param p50Ms             median latency in milliseconds
+     * @param p95Ms             95th percentile latency in milliseconds
+     * @param p99Ms             99th percentile latency in milliseconds
+     * @param maxMs             slowest request in milliseconds
+     */
+    public record RouteSnapshot(String route, int inFlight, long requests, double requestsPerSecond,
+                                double clientErrorRate, double serverErrorRate,
+                                double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (slices < 1) {
+            throw new IllegalArgumentException("app.gateway.stats.slices must be at least 1");
+        }
+        rotation = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-stats-rotation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sliceMs = sliceInterval().toMillis();
+        rotation.scheduleAtFixedRate(this::rotate, sliceMs, sliceMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rotation != null) {
+            rotation.shutdownNow();
+        }
+    }
+
+    /**
+     * Mark a request as started on a route
+     * @param routeId matched route id, or null
+     */
+    public void begin(String routeId) {
+        routeWindow(routeId).inFlight.incrementAndGet();
+    }
+
+    /**
+     * Record a completed request
+     * @param routeId      matched route id, or null
+     * @param status       response status, 0 if none was set
+     * @param latencyNanos time spent in the filter chain
+     */
+    public void end(String routeId, int status, long latencyNanos) {
+        RouteWindow route = routeWindow(routeId);
+        route.inFlight.decrementAndGet();
+        route.record(status, latencyNanos);
+    }
+
+    /**
+     * Close the current slice and drop the oldest one
+     */
+    public void rotate() {
+        routes.values().forEach(RouteWindow::rotate);
+    }
+
+    /**
+     * @return rolling-window statistics for every route seen so far, ordered by route id
+     */
+    public List<RouteSnapshot> snapshot() {
+        return routes.values().stream()
+                .map(RouteWindow::snapshot)
+                .sorted(Comparator.comparing(RouteSnapshot::route))
+                .toList();
+    }
+
+    /**
+     * @return length of the rolling window
+     */
+    public Duration window() {
+        return window;
+    }
+
+    private Duration sliceInterval() {
+        return window.dividedBy(slices);
+    }
+
+    private RouteWindow routeWindow(String routeId) {
+        String route = routeId != null ? routeId : UNKNOWN_ROUTE;
+        RouteWindow existing = routes.get(route);
+        return existing != null ? existing : routes.computeIfAbsent(route, RouteWindow::new);
+    }
+
+    private static int statusClassIndex(int status) {
+        int index = status / 100;
+        return index >= 1 && index < STATUS_CLASSES.length ? index : 0;
+    }
+
+    /**
+     * State for one route. Recording is lock-free (HdrHistogram {@link Recorder} plus adders);
+     * only rotation and snapshots synchronize on the slice arrays.
+     */
+    private final class RouteWindow {
+        private final String route;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final Timer[] timers = new Timer[STATUS_CLASSES.length];
+
+        private final Histogram[] sliceHistograms = new Histogram[slices];
+        private final long[] sliceRequests = new long[slices];
+        private final long[] sliceClientErrors = new long[slices];
+        private final long[] sliceServerErrors = new long[slices];
+        private int currentSlice;
+        private int filledSlices;
+
+        RouteWindow(String route) {
+            this.route = route;
+            if (meterRegistry != null) {
+                Gauge.builder(IN_FLIGHT_METRIC, inFlight, AtomicInteger::get)
+                        .description("Requests currently being proxied")
+                        .tag("route", route)
+                        .register(meterRegistry);
+            }
+        }
+
+        void record(int status, long latencyNanos) {
+            recorder.recordValue(Math.max(0L, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+            requests.increment();
+            if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+            if (meterRegistry != null) {
+                timer(status).record(latencyNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private Timer timer(int status) {
+            int index = statusClassIndex(status);
+            Timer timer = timers[index];
+            if (timer == null) {
+                // Benign race: registration is idempotent and returns the same meter
+                timer = Timer.builder(LATENCY_METRIC)
+                        .description("Time spent in the gateway filter chain, including the downstream call")
+                        .tag("route", route)
+                        .tag("status", STATUS_CLASSES[index])
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+                timers[index] = timer;
+            }
+            return timer;
+        }
+
+        synchronized void rotate() {
+            int next = (currentSlice + 1) % slices;
+            // Reuse the histogram of the slice being overwritten
+            sliceHistograms[next] = recorder.getIntervalHistogram(sliceHistograms[next]);
+            sliceRequests[next] = requests.sumThenReset();
+            sliceClientErrors[next] = clientErrors.sumThenReset();
+            sliceServerErrors[next] = serverErrors.sumThenReset();
+            currentSlice = next;
+            filledSlices = Math.min(slices, filledSlices + 1);
+        }
+
+        synchronized RouteSnapshot snapshot() {
+            Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+            long total = 0;
+            long client = 0;
+            long server = 0;
+            for (int i = 0; i < slices; i++) {
+                if (sliceHistograms[i] != null) {
+                    merged.add(sliceHistograms[i]);
+                }
+                total += sliceRequests[i];
+                client += sliceClientErrors[i];
+                server += sliceServerErrors[i];
+            }
+
+            double seconds = filledSlices == 0 ? 0 : sliceInterval().multipliedBy(filledSlices).toMillis() / 1000.0;
+            return new RouteSnapshot(
+                    route,
+                    inFlight.get(),
+                    total,
+                    seconds > 0 ? round(total / seconds) : 0,
+                    total > 0 ? round((double) client / total) : 0,
+                    total > 0 ? round((double) server / total) : 0,
+                    millis(merged.getValueAtPercentile(50)),
+                    millis(merged.getValueAtPercentile(95)),
+                    millis(merged.getValueAtPercentile(99)),
+                    millis(merged.getMaxValue())
+            );
+        }
+
+        private double millis(long micros) {
+            return round(micros / 1000.0);
+        }
+
+        private double round(double value) {
+            return Math.round(value * 1000) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.apigateway.benchmark;
+
+import com.example.apigateway.util.RouteDecision;
+import com.example.apigateway.util.RouteMatcher;
+import com.example.apigateway.util.RouteRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link RouteMatcher#match(String, String)} as the route table grows.
+ * The reported time should stay flat across {@code routeCount}; run with {@code -prof gc} to
+ * confirm zero allocation per lookup.
+ * <p>
+ * Run with: {@code ./mvnw -Pbenchmark test-compile exec:exec}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteMatcherBenchmark {
+
+    @Param({"20", "200", "2000", "20000"})
+    public int routeCount;
+
+    private RouteMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        List<String> publicRoutes = new ArrayList<>(List.of("/auth/login", "/auth/register", "/actuator/**"));
+        List<String> publicReadRoutes = new ArrayList<>(List.of("/catalog/items/**", "/catalog/categories/**"));
+        for (int i = 0; i < routeCount; i++) {
+            publicRoutes.add("/service-" + (i % 50) + "/resource-" + i + "/**");
+        }
+        matcher = RouteMatcher.compile(new RouteRules(publicRoutes, publicReadRoutes, List.of()));
+    }
+
+    @Benchmark
+    public RouteDecision publicExact() {
+        return matcher.match("POST", "/auth/login");
+    }
+
+    @Benchmark
+    public RouteDecision publicReadSubtree() {
+        return matcher.match("GET", "/catalog/items/3f1c2a9e-1111-4c55-9a2b-7e0c4d6f8a10");
+    }
+
+    @Benchmark
+    public RouteDecision authenticatedMiss() {
+        return matcher.match("GET", "/orders/user/42/history");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RouteMatcherBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.apigateway.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two gateway instances sharing one embedded H2 database stand in for a scaled-out deployment.
+ */
+class DistributedRateLimitTest {
+
+    private static final String POLICY = "catalog-service";
+
+    /** Fixed mid-window instant so no test straddles a window boundary */
+    private final AtomicLong millis = new AtomicLong(Duration.ofDays(20_000).toMillis() + 1_000);
+    private final List<RateLimitConfig> instances = new ArrayList<>();
+    private String jdbcUrl;
+
+    @BeforeEach
+    void setUp() {
+        jdbcUrl = "jdbc:h2:mem:rate-limit-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    }
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(RateLimitConfig::shutdown);
+    }
+
+    private RateLimitConfig gateway(String backend, String policySpec) {
+        RateLimitConfig config = new RateLimitConfig();
+        ReflectionTestUtils.setField(config, "backendType", backend);
+        ReflectionTestUtils.setField(config, "policySpecs", Map.of(POLICY, policySpec));
+        ReflectionTestUtils.setField(config, "jdbcUrl", jdbcUrl);
+        ReflectionTestUtils.setField(config, "jdbcUsername", "sa");
+        ReflectionTestUtils.setField(config, "jdbcCleanupInterval", Duration.ZERO);
+        ReflectionTestUtils.setField(config, "clock", (LongSupplier) millis::get);
+        config.init();
+        instances.add(config);
+        return config;
+    }
+
+    private static boolean consume(RateLimitConfig gateway, String clientKey) {
+        RateLimitPolicy policy = gateway.resolvePolicy(POLICY);
+        return gateway.tryConsume(clientKey, policy).block().consumed();
+    }
+
+    @Test
+    void memoryBackend_eachInstanceEnforcesItsOwnLimit() {
+        RateLimitConfig first = gateway("memory", "100/1h");
+        RateLimitConfig second = gateway("memory", "100/1h");
+
+        int allowed = 0;
+        for (int i = 0; i < 300; i++) {
+            allowed += consume(i % 2 == 0 ? first : second, "user:alice") ? 1 : 0;
+        }
+
+        assertThat(allowed).isEqualTo(200);
+    }
+
+    @Test
+    void jdbcBackend_limitHoldsAcrossInstances() {
+        RateLimitConfig first = gateway("jdbc", "100/1h");
+        RateLimitConfig second = gateway("jdbc", "100/1h");
+
+        int allowed = 0;
+        for (int i = 0; i < 300; i++) {
+            allowed += consume(i % 2 == 0 ? first : second, "user:alice") ? 1 : 0;
+        }
+
+        assertThat(allowed).isEqualTo(100);
+    }
+
+    @Test
+    void jdbcBackend_concurrentTrafficNeverExceedsLimit() throws Exception {
+        RateLimitConfig first = gateway("jdbc", "500/1h");
+        RateLimitConfig second = gateway("jdbc", "500/1h");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> clients = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                RateLimitConfig gateway = t % 2 == 0 ? first : second;
+                clients.add(() -> {
+                    int allowed = 0;
+                    for (int i = 0; i < 200; i++) {
+                        allowed += consume(gateway, "user:alice") ? 1 : 0;
+                    }
+                    return allowed;
+                });
+            }
+            int allowed = 0;
+            for (Future<Integer> result : pool.invokeAll(clients)) {
+                allowed += result.get();
+            }
+
+            // Never above the global limit; at most a few tokens stranded in leases under contention
+            assertThat(allowed).isBetween(480, 500);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void jdbcBackend_leasesTokensInBatches() {
+        RateLimitConfig gateway = gateway("jdbc", "1000/1h");
+        JdbcRateLimitBackend backend = (JdbcRateLimitBackend) gateway.backend();
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(consume(gateway, "user:alice")).isTrue();
+        }
+
+        assertThat(backend.roundTrips()).isLessThan(50);
+    }
+
+    @Test
+    void jdbcBackend_separatesClients() {
+        RateLimitConfig first = gateway("jdbc", "5/1h");
+        RateLimitConfig second = gateway("jdbc", "5/1h");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(consume(first, "user:alice")).isTrue();
+        }
+
+        assertThat(consume(second, "user:alice")).isFalse();
+        assertThat(consume(second, "user:bob")).isTrue();
+    }
+
+    @Test
+    void jdbcBackend_newWindowRestoresBudget() {
+        RateLimitConfig first = gateway("jdbc", "5/1m");
+        RateLimitConfig second = gateway("jdbc", "5/1m");
+        for (int i = 0; i < 5; i++) {
+            consume(i % 2 == 0 ? first : second, "user:alice");
+        }
+        assertThat(consume(first, "user:alice")).isFalse();
+
+        millis.addAndGet(Duration.ofMinutes(1).toMillis());
+
+        assertThat(consume(first, "user:alice")).isTrue();
+        assertThat(consume(second, "user:alice")).isTrue();
+    }
+
+    @Test
+    void jdbcBackend_rejectionReportsRetryUntilWindowEnd() {
+        RateLimitConfig gateway = gateway("jdbc", "1/1m");
+        RateLimitPolicy policy = gateway.resolvePolicy(POLICY);
+        gateway.tryConsume("user:alice", policy).block();
+
+        RateLimitResult rejected = gateway.tryConsume("user:alice", policy).block();
+
+        assertThat(rejected.consumed()).isFalse();
+        assertThat(rejected.remaining()).isZero();
+        assertThat(Duration.ofNanos(rejected.nanosToRetry())).isEqualTo(Duration.ofSeconds(59));
+    }
+
+    @Test
+    void jdbcBackend_databaseUnavailable_fallsBackToLocalLimit() throws Exception {
+        RateLimitConfig gateway = gateway("jdbc", "3/1h");
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + JdbcRateLimitBackend.TABLE);
+        }
+
+        int allowed = 0;
+        for (int i = 0; i < 5; i++) {
+            allowed += consume(gateway, "user:alice") ? 1 : 0;
+        }
+
+        assertThat(allowed).isEqualTo(3);
+    }
+}
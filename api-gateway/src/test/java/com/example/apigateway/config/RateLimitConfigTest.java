@@ -0,0 +1,95 @@
+package com.example.apigateway.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.bucket4j.Bucket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit and soak tests for the bounded rate-limit bucket store.
+ */
+class RateLimitConfigTest {
+
+    private static final long MAX_BUCKETS = 10_000;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private RateLimitConfig rateLimitConfig;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitConfig = new RateLimitConfig();
+        ReflectionTestUtils.setField(rateLimitConfig, "maxBuckets", MAX_BUCKETS);
+        ReflectionTestUtils.setField(rateLimitConfig, "bucketIdleTimeout", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(rateLimitConfig, "ticker", (Ticker) nanos::get);
+        rateLimitConfig.init();
+    }
+
+    @Test
+    void resolveBucket_sameKey_returnsSameBucket() {
+        Bucket first = rateLimitConfig.resolveBucket("10.0.0.1");
+        first.tryConsume(1);
+        assertThat(rateLimitConfig.resolveBucket("10.0.0.1")).isSameAs(first);
+    }
+
+    @Test
+    void resolveBucket_idleBucket_isEvicted() {
+        Bucket first = rateLimitConfig.resolveBucket("10.0.0.1");
+
+        nanos.addAndGet(Duration.ofMinutes(3).toNanos());
+        rateLimitConfig.cleanUp();
+
+        assertThat(rateLimitConfig.bucketCount()).isZero();
+        assertThat(rateLimitConfig.resolveBucket("10.0.0.1")).isNotSameAs(first);
+    }
+
+    @Test
+    void resolveBucket_activeBucket_survivesIdleTimeout() {
+        Bucket first = rateLimitConfig.resolveBucket("10.0.0.1");
+
+        for (int minute = 0; minute < 5; minute++) {
+            nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+            rateLimitConfig.resolveBucket("10.0.0.1").tryConsume(1);
+        }
+
+        assertThat(rateLimitConfig.resolveBucket("10.0.0.1")).isSameAs(first);
+    }
+
+    /**
+     * Simulates a scan from one million distinct client addresses: the store must stay at its
+     * configured bound and the heap must not grow with the number of distinct keys.
+     */
+    @Test
+    void soak_millionDistinctIps_heapStaysFlat() {
+        // Fill past the bound first so the baseline already includes a full store
+        driveDistinctIps(0, 2 * MAX_BUCKETS);
+        rateLimitConfig.cleanUp();
+        long baseline = usedHeapAfterGc();
+
+        driveDistinctIps(2 * MAX_BUCKETS, 1_000_000);
+        rateLimitConfig.cleanUp();
+        long afterSoak = usedHeapAfterGc();
+
+        assertThat(rateLimitConfig.bucketCount()).isLessThanOrEqualTo(MAX_BUCKETS);
+        assertThat(afterSoak - baseline).isLessThan(32L * 1024 * 1024);
+    }
+
+    private void driveDistinctIps(long from, long count) {
+        for (long i = from; i < from + count; i++) {
+            rateLimitConfig.resolveBucket("client-" + i).tryConsume(1);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
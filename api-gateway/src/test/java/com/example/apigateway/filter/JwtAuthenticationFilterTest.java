@@ -1,6 +1,9 @@
 package com.example.apigateway.filter;
 
+import com.example.apigateway.config.RoutePolicyRegistry;
+import com.example.apigateway.util.JwtPrincipal;
 import com.example.apigateway.util.JwtTokenValidator;
+import com.example.apigateway.util.RouteRules;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,10 +25,17 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -44,6 +54,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private JwtTokenValidator jwtTokenValidator;
 
+    @Spy
+    private RoutePolicyRegistry routePolicyRegistry = new RoutePolicyRegistry(applicationRules());
+
     private static final String SECRET = "test-super-secret-jwt-key-minimum-32-characters-needed-for-hmac";
     private SecretKey signingKey;
 
@@ -68,6 +81,17 @@ class JwtAuthenticationFilterTest {
                 .compact();
     }
 
+    /** Route policies exactly as shipped in application.properties */
+    private static RouteRules applicationRules() {
+        Properties properties = new Properties();
+        try (InputStream in = JwtAuthenticationFilterTest.class.getResourceAsStream("/application.properties")) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return RouteRules.from(properties::getProperty);
+    }
+
     private GatewayFilterChain passThroughChain() {
         GatewayFilterChain chain = mock(GatewayFilterChain.class);
         lenient().when(chain.filter(any())).thenReturn(Mono.empty());
@@ -88,7 +112,7 @@ class JwtAuthenticationFilterTest {
 
         StepVerifier.create(result).verifyComplete();
         verify(chain).filter(any());
-        verify(jwtTokenValidator, never()).validateToken(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
     }
 
     @Test
@@ -103,7 +127,7 @@ class JwtAuthenticationFilterTest {
 
         StepVerifier.create(result).verifyComplete();
         verify(chain).filter(any());
-        verify(jwtTokenValidator, never()).validateToken(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
     }
 
     @Test
@@ -118,7 +142,7 @@ class JwtAuthenticationFilterTest {
 
         StepVerifier.create(result).verifyComplete();
         verify(chain).filter(any());
-        verify(jwtTokenValidator, never()).validateToken(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
     }
 
     @Test
@@ -131,7 +155,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.filter(exchange, chain);
 
-        verify(jwtTokenValidator, never()).validateToken(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
     }
 
     @Test
@@ -144,7 +168,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.filter(exchange, chain);
 
-        verify(jwtTokenValidator, never()).validateToken(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
     }
 
     @Test
@@ -157,7 +181,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.filter(exchange, chain);
 
-        verify(jwtTokenValidator, never()).validateToken(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
     }
 
     @Test
@@ -170,7 +194,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.filter(exchange, chain);
 
-        verify(jwtTokenValidator, never()).validateToken(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
     }
 
     @Test
@@ -183,7 +207,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.filter(exchange, chain);
 
-        verify(jwtTokenValidator, never()).validateToken(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
     }
 
     @Test
@@ -196,7 +220,7 @@ class JwtAuthenticationFilterTest {
 
         jwtAuthenticationFilter.filter(exchange, chain);
 
-        verify(jwtTokenValidator, never()).validateToken(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
     }
 
     // ── Protected endpoints with no token ─────────────────────────────────────
@@ -236,7 +260,7 @@ class JwtAuthenticationFilterTest {
 
     @Test
     void protectedEndpoint_invalidToken_returns401() {
-        when(jwtTokenValidator.validateToken("bad.token.here")).thenReturn(false);
+        when(jwtTokenValidator.resolvePrincipal("bad.token.here")).thenReturn(Optional.empty());
 
         MockServerHttpRequest request = MockServerHttpRequest
                 .get("/auth/users/me")
@@ -257,10 +281,8 @@ class JwtAuthenticationFilterTest {
     @Test
     void protectedEndpoint_validToken_injectsHeadersAndCallsChain() {
         String validToken = buildValidToken("user-123", "alice", "CUSTOMER");
-        when(jwtTokenValidator.validateToken(validToken)).thenReturn(true);
-        when(jwtTokenValidator.extractUserId(validToken)).thenReturn("user-123");
-        when(jwtTokenValidator.extractUsername(validToken)).thenReturn("alice");
-        when(jwtTokenValidator.extractRoles(validToken)).thenReturn(java.util.List.of("CUSTOMER"));
+        when(jwtTokenValidator.resolvePrincipal(validToken)).thenReturn(Optional.of(
+                new JwtPrincipal("user-123", "alice", List.of("CUSTOMER"), Instant.now().plusSeconds(900))));
 
         MockServerHttpRequest request = MockServerHttpRequest
                 .get("/auth/users/me")
@@ -288,10 +310,8 @@ class JwtAuthenticationFilterTest {
     @Test
     void protectedEndpoint_adminToken_injectsAdminRole() {
         String adminToken = buildValidToken("admin-1", "admin", "ADMIN");
-        when(jwtTokenValidator.validateToken(adminToken)).thenReturn(true);
-        when(jwtTokenValidator.extractUserId(adminToken)).thenReturn("admin-1");
-        when(jwtTokenValidator.extractUsername(adminToken)).thenReturn("admin");
-        when(jwtTokenValidator.extractRoles(adminToken)).thenReturn(java.util.List.of("ADMIN"));
+        when(jwtTokenValidator.resolvePrincipal(adminToken)).thenReturn(Optional.of(
+                new JwtPrincipal("admin-1", "admin", List.of("ADMIN"), Instant.now().plusSeconds(900))));
 
         MockServerHttpRequest request = MockServerHttpRequest
                 .get("/auth/admin/users")
@@ -308,6 +328,56 @@ class JwtAuthenticationFilterTest {
         assertThat(captor.getValue().getRequest().getHeaders().getFirst("X-User-Roles")).contains("ADMIN");
     }
 
+    // ── Route policies ─────────────────────────────────────────────────────────
+
+    @Test
+    void publicReadPath_getCatalogItems_bypassesFilter() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/catalog/items/abc-123")
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        GatewayFilterChain chain = passThroughChain();
+
+        StepVerifier.create(jwtAuthenticationFilter.filter(exchange, chain)).verifyComplete();
+
+        verify(chain).filter(any());
+        verify(jwtTokenValidator, never()).resolvePrincipal(any());
+    }
+
+    @Test
+    void publicReadPath_postCatalogItems_requiresToken() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/catalog/items")
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        GatewayFilterChain chain = passThroughChain();
+
+        StepVerifier.create(jwtAuthenticationFilter.filter(exchange, chain)).verifyComplete();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verify(chain, never()).filter(any());
+    }
+
+    @Test
+    void roleRequiredPath_userWithoutRole_returns403() {
+        routePolicyRegistry.replace(new RouteRules(List.of(), List.of(), List.of("/auth/admin/**=ADMIN")));
+        String token = buildValidToken("user-123", "alice", "CUSTOMER");
+        when(jwtTokenValidator.resolvePrincipal(token)).thenReturn(Optional.of(
+                new JwtPrincipal("user-123", "alice", List.of("CUSTOMER"), Instant.now().plusSeconds(900))));
+
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/auth/admin/users")
+                .header("Authorization", "Bearer " + token)
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        GatewayFilterChain chain = passThroughChain();
+
+        StepVerifier.create(jwtAuthenticationFilter.filter(exchange, chain)).verifyComplete();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verify(chain, never()).filter(any());
+    }
+
     // ── Filter ordering ────────────────────────────────────────────────────────
 
     @Test
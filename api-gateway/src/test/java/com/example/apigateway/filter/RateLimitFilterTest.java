@@ -0,0 +1,130 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.RateLimitConfig;
+import com.example.apigateway.util.JwtPrincipal;
+import com.example.apigateway.util.JwtTokenValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for per-route, per-user rate limiting in the gateway.
+ */
+class RateLimitFilterTest {
+
+    private RateLimitFilter rateLimitFilter;
+    private JwtTokenValidator jwtTokenValidator;
+    private GatewayFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitConfig rateLimitConfig = new RateLimitConfig();
+        ReflectionTestUtils.setField(rateLimitConfig, "policySpecs", Map.of(
+                "default", "100/1m",
+                "payment-service", "2/1s,5/1m"
+        ));
+        rateLimitConfig.init();
+
+        jwtTokenValidator = mock(JwtTokenValidator.class);
+        when(jwtTokenValidator.resolvePrincipal(any())).thenReturn(Optional.empty());
+
+        rateLimitFilter = new RateLimitFilter();
+        ReflectionTestUtils.setField(rateLimitFilter, "rateLimitConfig", rateLimitConfig);
+        ReflectionTestUtils.setField(rateLimitFilter, "jwtTokenValidator", jwtTokenValidator);
+
+        chain = mock(GatewayFilterChain.class);
+        when(chain.filter(any())).thenReturn(Mono.empty());
+    }
+
+    private MockServerWebExchange exchange(String routeId, String ip, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest
+                .post("/payments/checkout")
+                .remoteAddress(new InetSocketAddress(ip, 40000));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.build());
+        if (routeId != null) {
+            Route route = Route.async()
+                    .id(routeId)
+                    .uri("http://localhost:8084")
+                    .predicate(e -> true)
+                    .build();
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        }
+        return exchange;
+    }
+
+    @Test
+    void allowedRequest_carriesRateLimitHeaders() {
+        MockServerWebExchange exchange = exchange("payment-service", "10.0.0.1", null);
+
+        StepVerifier.create(rateLimitFilter.filter(exchange, chain)).verifyComplete();
+
+        verify(chain).filter(any());
+        assertThat(exchange.getResponse().getHeaders().getFirst("RateLimit-Limit")).isEqualTo("2");
+        assertThat(exchange.getResponse().getHeaders().getFirst("RateLimit-Remaining")).isEqualTo("1");
+        assertThat(exchange.getResponse().getHeaders().getFirst("RateLimit-Reset")).isNotNull();
+    }
+
+    @Test
+    void burstExceeded_returns429WithRetryAfter() {
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(rateLimitFilter.filter(exchange("payment-service", "10.0.0.1", null), chain))
+                    .verifyComplete();
+        }
+
+        MockServerWebExchange limited = exchange("payment-service", "10.0.0.1", null);
+        StepVerifier.create(rateLimitFilter.filter(limited, chain)).verifyComplete();
+
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(limited.getResponse().getHeaders().getFirst("Retry-After")).isEqualTo("1");
+        assertThat(limited.getResponse().getHeaders().getFirst("RateLimit-Remaining")).isEqualTo("0");
+        verify(chain, times(2)).filter(any());
+    }
+
+    @Test
+    void routesWithoutPolicy_useDefaultPolicy() {
+        MockServerWebExchange exchange = exchange("catalog-service", "10.0.0.1", null);
+
+        StepVerifier.create(rateLimitFilter.filter(exchange, chain)).verifyComplete();
+
+        assertThat(exchange.getResponse().getHeaders().getFirst("RateLimit-Limit")).isEqualTo("100");
+    }
+
+    @Test
+    void authenticatedUsersBehindSameIp_haveSeparateBudgets() {
+        when(jwtTokenValidator.resolvePrincipal("alice-token")).thenReturn(Optional.of(
+                new JwtPrincipal("alice", "alice", List.of("CUSTOMER"), Instant.now().plusSeconds(900))));
+        when(jwtTokenValidator.resolvePrincipal("bob-token")).thenReturn(Optional.of(
+                new JwtPrincipal("bob", "bob", List.of("CUSTOMER"), Instant.now().plusSeconds(900))));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(rateLimitFilter.filter(exchange("payment-service", "10.0.0.1", "alice-token"), chain))
+                    .verifyComplete();
+        }
+        MockServerWebExchange bob = exchange("payment-service", "10.0.0.1", "bob-token");
+        StepVerifier.create(rateLimitFilter.filter(bob, chain)).verifyComplete();
+
+        assertThat(bob.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        verify(chain, times(3)).filter(any());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.util.ResponseCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the gateway response cache: hits, conditional requests, coalescing and invalidation.
+ */
+class ResponseCacheFilterTest {
+
+    private static final String BODY = "[{\"itemId\":\"PIZZA-01\"}]";
+
+    private ResponseCache responseCache;
+    private ResponseCacheFilter filter;
+    private AtomicInteger upstreamCalls;
+    private HttpStatus upstreamStatus;
+    private Duration upstreamDelay;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new ResponseCache();
+        ReflectionTestUtils.setField(responseCache, "enabled", true);
+        ReflectionTestUtils.setField(responseCache, "paths", List.of("/catalog/items/**"));
+        responseCache.init();
+
+        filter = new ResponseCacheFilter();
+        ReflectionTestUtils.setField(filter, "responseCache", responseCache);
+
+        upstreamCalls = new AtomicInteger();
+        upstreamStatus = HttpStatus.OK;
+        upstreamDelay = Duration.ZERO;
+    }
+
+    /** Stands in for the proxied service: writes a JSON body to whatever response the chain receives */
+    private final GatewayFilterChain chain = exchange -> Mono.delay(upstreamDelay).then(Mono.defer(() -> {
+        upstreamCalls.incrementAndGet();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(upstreamStatus);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+        response.getHeaders().setContentLength(bytes.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }));
+
+    private MockServerWebExchange get(String path, String ifNoneMatch) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return MockServerWebExchange.from(request.build());
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void secondRequest_isServedFromCache() {
+        MockServerWebExchange first = get("/catalog/items?category=PIZZA", null);
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+
+        MockServerWebExchange second = get("/catalog/items?category=PIZZA", null);
+        StepVerifier.create(filter.filter(second, chain)).verifyComplete();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(first.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(body(second)).isEqualTo(BODY);
+        assertThat(second.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(second.getResponse().getHeaders().getETag())
+                .isEqualTo(first.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void differentQuery_isCachedSeparately() {
+        StepVerifier.create(filter.filter(get("/catalog/items?category=PIZZA", null), chain)).verifyComplete();
+        StepVerifier.create(filter.filter(get("/catalog/items?category=DRINKS", null), chain)).verifyComplete();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void matchingIfNoneMatch_returns304WithoutBody() {
+        MockServerWebExchange first = get("/catalog/items", null);
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+        String etag = first.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange conditional = get("/catalog/items", etag);
+        StepVerifier.create(filter.filter(conditional, chain)).verifyComplete();
+
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(conditional.getResponse().getHeaders().getETag()).isEqualTo(etag);
+        assertThat(body(conditional)).isNullOrEmpty();
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void concurrentMisses_makeOneUpstreamCall() {
+        upstreamDelay = Duration.ofMillis(200);
+        MockServerWebExchange leader = get("/catalog/items", null);
+        MockServerWebExchange follower = get("/catalog/items", null);
+
+        StepVerifier.create(Mono.when(filter.filter(leader, chain), filter.filter(follower, chain)))
+                .verifyComplete();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("COALESCED");
+        assertThat(body(follower)).isEqualTo(BODY);
+    }
+
+    @Test
+    void errorResponses_areNotCached() {
+        upstreamStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        StepVerifier.create(filter.filter(get("/catalog/items", null), chain)).verifyComplete();
+        StepVerifier.create(filter.filter(get("/catalog/items", null), chain)).verifyComplete();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(responseCache.size()).isZero();
+    }
+
+    @Test
+    void uncoveredPaths_andWrites_bypassTheCache() {
+        StepVerifier.create(filter.filter(get("/orders", null), chain)).verifyComplete();
+        StepVerifier.create(filter.filter(get("/orders", null), chain)).verifyComplete();
+        ServerWebExchange post = MockServerWebExchange.from(MockServerHttpRequest.post("/catalog/items").build());
+        StepVerifier.create(filter.filter(post, chain)).verifyComplete();
+
+        assertThat(upstreamCalls).hasValue(3);
+        assertThat(responseCache.size()).isZero();
+    }
+
+    @Test
+    void invalidate_dropsEntriesUnderPrefix() {
+        StepVerifier.create(filter.filter(get("/catalog/items", null), chain)).verifyComplete();
+        assertThat(responseCache.size()).isEqualTo(1);
+
+        assertThat(responseCache.invalidate("/catalog/")).isEqualTo(1);
+
+        StepVerifier.create(filter.filter(get("/catalog/items", null), chain)).verifyComplete();
+        assertThat(upstreamCalls).hasValue(2);
+    }
+}
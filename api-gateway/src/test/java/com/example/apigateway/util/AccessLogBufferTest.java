@@ -0,0 +1,107 @@
+package com.example.apigateway.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the access-log ring buffer.
+ */
+class AccessLogBufferTest {
+
+    @Test
+    void capacity_isRoundedUpToPowerOfTwo() {
+        assertThat(new AccessLogBuffer(1000).capacity()).isEqualTo(1024);
+        assertThat(new AccessLogBuffer(1024).capacity()).isEqualTo(1024);
+        assertThat(new AccessLogBuffer(1).capacity()).isEqualTo(1);
+    }
+
+    @Test
+    void drain_returnsEntriesInOrder() {
+        AccessLogBuffer buffer = new AccessLogBuffer(4);
+        buffer.offer(1L, HttpMethod.GET, "catalog-service", 200, 1_000L, 42L, "user-1");
+        buffer.offer(2L, HttpMethod.POST, "order-service", 201, 2_000L, -1L, null);
+
+        List<String> entries = new ArrayList<>();
+        int drained = buffer.drain((ts, method, route, status, latency, bytes, user) ->
+                entries.add(ts + " " + method + " " + route + " " + status + " " + latency + " " + bytes + " " + user), 10);
+
+        assertThat(drained).isEqualTo(2);
+        assertThat(entries).containsExactly(
+                "1 GET catalog-service 200 1000 42 user-1",
+                "2 POST order-service 201 2000 -1 null");
+        assertThat(buffer.pending()).isZero();
+    }
+
+    @Test
+    void offer_whenFull_dropsAndCounts() {
+        AccessLogBuffer buffer = new AccessLogBuffer(2);
+
+        assertThat(buffer.offer(1L, HttpMethod.GET, "r", 200, 1L, 0L, null)).isTrue();
+        assertThat(buffer.offer(2L, HttpMethod.GET, "r", 200, 1L, 0L, null)).isTrue();
+        assertThat(buffer.offer(3L, HttpMethod.GET, "r", 200, 1L, 0L, null)).isFalse();
+
+        assertThat(buffer.dropped()).isEqualTo(1);
+        assertThat(buffer.drain((ts, m, r, s, l, b, u) -> { }, 10)).isEqualTo(2);
+        assertThat(buffer.offer(4L, HttpMethod.GET, "r", 200, 1L, 0L, null)).isTrue();
+    }
+
+    @Test
+    void drain_respectsMax_andWrapsAround() {
+        AccessLogBuffer buffer = new AccessLogBuffer(4);
+        List<Long> seen = new ArrayList<>();
+
+        for (long i = 0; i < 20; i++) {
+            buffer.offer(i, HttpMethod.GET, "r", 200, 1L, 0L, null);
+            if (i % 3 == 2) {
+                buffer.drain((ts, m, r, s, l, b, u) -> seen.add(ts), 2);
+            }
+        }
+        while (buffer.drain((ts, m, r, s, l, b, u) -> seen.add(ts), 2) > 0) {
+            // drain the rest
+        }
+
+        assertThat(seen).isSorted();
+        assertThat((long) seen.size() + buffer.dropped()).isEqualTo(20);
+    }
+
+    @Test
+    void concurrentWriters_everyEntryDrainedOrDropped() throws Exception {
+        AccessLogBuffer buffer = new AccessLogBuffer(1024);
+        int writers = 4;
+        int perWriter = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch done = new CountDownLatch(writers);
+        for (int w = 0; w < writers; w++) {
+            long base = (long) w * perWriter;
+            pool.execute(() -> {
+                for (long i = 0; i < perWriter; i++) {
+                    buffer.offer(base + i, HttpMethod.GET, "r", 200, 1L, 0L, null);
+                }
+                done.countDown();
+            });
+        }
+
+        Set<Long> seen = new HashSet<>();
+        AccessLogBuffer.EntryHandler collect = (ts, m, r, s, l, b, u) -> assertThat(seen.add(ts)).isTrue();
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            buffer.drain(collect, 256);
+        }
+        while (buffer.drain(collect, 256) > 0) {
+            // drain the rest
+        }
+        pool.shutdown();
+
+        assertThat(seen.size() + buffer.dropped()).isEqualTo((long) writers * perWriter);
+    }
+}
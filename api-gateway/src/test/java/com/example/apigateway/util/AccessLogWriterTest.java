@@ -0,0 +1,66 @@
+package com.example.apigateway.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the asynchronous access-log writer.
+ */
+class AccessLogWriterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AccessLogWriter accessLogWriter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accessLogWriter = new AccessLogWriter();
+        ReflectionTestUtils.setField(accessLogWriter, "meterRegistry", meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogWriter.shutdown();
+    }
+
+    @Test
+    void sampling_keepsServerErrors() {
+        ReflectionTestUtils.setField(accessLogWriter, "enabled", true);
+        ReflectionTestUtils.setField(accessLogWriter, "sampleRate", 0.0);
+        accessLogWriter.init();
+        accessLogWriter.shutdown();
+
+        for (int i = 0; i < 100; i++) {
+            accessLogWriter.record(HttpMethod.GET, "catalog-service", 200, 1_000, 10, null);
+        }
+        accessLogWriter.record(HttpMethod.GET, "catalog-service", 502, 1_000, 10, null);
+
+        assertThat(accessLogWriter.flush()).isEqualTo(1);
+    }
+
+    @Test
+    void appendJson_formatsOneLine() {
+        StringBuilder out = new StringBuilder();
+
+        AccessLogWriter.appendJson(out, 0L, HttpMethod.GET, "catalog-service", 200, 12_345_678L, 512, "u\"1");
+
+        assertThat(out.toString()).isEqualTo(
+                "{\"ts\":\"1970-01-01T00:00:00Z\",\"method\":\"GET\",\"route\":\"catalog-service\",\"status\":200,"
+                        + "\"latencyMs\":12.345,\"bytes\":512,\"userId\":\"u\\\"1\"}");
+    }
+
+    @Test
+    void appendJson_anonymousRequest_writesNullUser() {
+        StringBuilder out = new StringBuilder();
+
+        AccessLogWriter.appendJson(out, 0L, HttpMethod.POST, "auth-service", 401, 7_000L, -1, null);
+
+        assertThat(out.toString()).endsWith("\"latencyMs\":0.007,\"bytes\":-1,\"userId\":null}");
+    }
+}
@@ -12,10 +12,12 @@ import io.jsonwebtoken.security.Keys;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -34,6 +36,7 @@ class JwtTokenValidatorTest {
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(jwtTokenValidator, "jwtSecret", SECRET);
+        jwtTokenValidator.init();
         signingKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
     }
 
@@ -171,4 +174,70 @@ class JwtTokenValidatorTest {
         String token = buildToken("u1", "alice", "CUSTOMER", -1000);
         assertThat(jwtTokenValidator.isTokenExpired(token)).isTrue();
     }
+
+    // ── resolvePrincipal ───────────────────────────────────────────────────────
+
+    @Test
+    void resolvePrincipal_validToken_returnsAllClaims() {
+        String token = buildToken("user-abc-123", "alice", "CUSTOMER", 900_000);
+
+        Optional<JwtPrincipal> principal = jwtTokenValidator.resolvePrincipal(token);
+
+        assertThat(principal).isPresent();
+        assertThat(principal.get().userId()).isEqualTo("user-abc-123");
+        assertThat(principal.get().username()).isEqualTo("alice");
+        assertThat(principal.get().roles()).containsExactly("CUSTOMER");
+        assertThat(principal.get().expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void resolvePrincipal_sameTokenTwice_returnsCachedInstance() {
+        String token = buildToken("u1", "alice", "CUSTOMER", 900_000);
+
+        JwtPrincipal first = jwtTokenValidator.resolvePrincipal(token).orElseThrow();
+        JwtPrincipal second = jwtTokenValidator.resolvePrincipal(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void resolvePrincipal_expiredToken_returnsEmpty() {
+        String token = buildToken("u1", "alice", "CUSTOMER", -1000);
+        assertThat(jwtTokenValidator.resolvePrincipal(token)).isEmpty();
+    }
+
+    @Test
+    void resolvePrincipal_invalidTokenAfterValidOne_isNotServedFromCache() {
+        String token = buildToken("u1", "alice", "CUSTOMER", 900_000);
+        assertThat(jwtTokenValidator.resolvePrincipal(token)).isPresent();
+
+        String[] parts = token.split("\\.");
+        char flipped = parts[2].charAt(0) == 'A' ? 'B' : 'A';
+        String corrupted = parts[0] + "." + parts[1] + "." + flipped + parts[2].substring(1);
+        assertThat(jwtTokenValidator.resolvePrincipal(corrupted)).isEmpty();
+    }
+
+    // ── kid-based key resolution ───────────────────────────────────────────────
+
+    @Test
+    void resolvePrincipal_defaultKid_verifiesWithSharedSecret() {
+        String token = Jwts.builder()
+                .header().keyId(JwtKeyRing.DEFAULT_KID).and()
+                .subject("alice")
+                .expiration(new Date(System.currentTimeMillis() + 900_000))
+                .signWith(signingKey)
+                .compact();
+        assertThat(jwtTokenValidator.resolvePrincipal(token)).isPresent();
+    }
+
+    @Test
+    void resolvePrincipal_unknownKid_returnsEmpty() {
+        String token = Jwts.builder()
+                .header().keyId("retired-key").and()
+                .subject("alice")
+                .expiration(new Date(System.currentTimeMillis() + 900_000))
+                .signWith(signingKey)
+                .compact();
+        assertThat(jwtTokenValidator.resolvePrincipal(token)).isEmpty();
+    }
 }
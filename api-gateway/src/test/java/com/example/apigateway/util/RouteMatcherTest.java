@@ -0,0 +1,78 @@
+package com.example.apigateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the compiled route-policy trie.
+ */
+class RouteMatcherTest {
+
+    private final RouteMatcher matcher = RouteMatcher.compile(new RouteRules(
+            List.of("/", "/auth/login", "/actuator/**", "/swagger-ui.html", "POST /auth/validate"),
+            List.of("/catalog/items/**"),
+            List.of("/catalog/items/admin/**=admin")
+    ));
+
+    @Test
+    void exactRoute_matchesOnlyThatPath() {
+        assertThat(matcher.match("POST", "/auth/login").policy()).isEqualTo(RoutePolicy.PUBLIC);
+        assertThat(matcher.match("POST", "/auth/login/")).isEqualTo(RouteDecision.PUBLIC);
+        assertThat(matcher.match("POST", "/auth/login/extra").policy()).isEqualTo(RoutePolicy.AUTHENTICATED);
+        assertThat(matcher.match("GET", "/auth").policy()).isEqualTo(RoutePolicy.AUTHENTICATED);
+    }
+
+    @Test
+    void rootExactRoute_doesNotOpenWholeTree() {
+        assertThat(matcher.match("GET", "/").policy()).isEqualTo(RoutePolicy.PUBLIC);
+        assertThat(matcher.match("GET", "/orders").policy()).isEqualTo(RoutePolicy.AUTHENTICATED);
+    }
+
+    @Test
+    void subtreeRoute_matchesItselfAndDescendants() {
+        assertThat(matcher.match("GET", "/actuator").policy()).isEqualTo(RoutePolicy.PUBLIC);
+        assertThat(matcher.match("GET", "/actuator/health/liveness").policy()).isEqualTo(RoutePolicy.PUBLIC);
+        assertThat(matcher.match("GET", "/actuatorx").policy()).isEqualTo(RoutePolicy.AUTHENTICATED);
+    }
+
+    @Test
+    void segmentWithDot_matchesWholeSegmentOnly() {
+        assertThat(matcher.match("GET", "/swagger-ui.html").policy()).isEqualTo(RoutePolicy.PUBLIC);
+        assertThat(matcher.match("GET", "/swagger-ui").policy()).isEqualTo(RoutePolicy.AUTHENTICATED);
+    }
+
+    @Test
+    void publicRead_appliesToGetAndHeadOnly() {
+        assertThat(matcher.match("GET", "/catalog/items/42").policy()).isEqualTo(RoutePolicy.PUBLIC_READ);
+        assertThat(matcher.match("HEAD", "/catalog/items").policy()).isEqualTo(RoutePolicy.PUBLIC_READ);
+        assertThat(matcher.match("POST", "/catalog/items").policy()).isEqualTo(RoutePolicy.AUTHENTICATED);
+        assertThat(matcher.match("DELETE", "/catalog/items/42").policy()).isEqualTo(RoutePolicy.AUTHENTICATED);
+    }
+
+    @Test
+    void methodSpecificRoute_appliesToThatMethodOnly() {
+        assertThat(matcher.match("POST", "/auth/validate").policy()).isEqualTo(RoutePolicy.PUBLIC);
+        assertThat(matcher.match("GET", "/auth/validate").policy()).isEqualTo(RoutePolicy.AUTHENTICATED);
+    }
+
+    @Test
+    void mostSpecificRoute_wins() {
+        RouteDecision decision = matcher.match("GET", "/catalog/items/admin/stock");
+        assertThat(decision.policy()).isEqualTo(RoutePolicy.ROLE_REQUIRED);
+        assertThat(decision.requiredRole()).isEqualTo("ADMIN");
+        assertThat(decision.permitsRoles(List.of("ROLE_ADMIN"))).isTrue();
+        assertThat(decision.permitsRoles(List.of("CUSTOMER"))).isFalse();
+    }
+
+    @Test
+    void compile_malformedEntries_areRejected() {
+        assertThatThrownBy(() -> RouteMatcher.compile(new RouteRules(List.of("auth/login"), List.of(), List.of())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RouteMatcher.compile(new RouteRules(List.of(), List.of(), List.of("/admin/**"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.apigateway.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for per-route rolling statistics and latency metrics.
+ */
+class RouteStatsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RouteStats routeStats;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        routeStats = new RouteStats();
+        // Long slices so the background rotation never fires during a test; tests rotate explicitly
+        ReflectionTestUtils.setField(routeStats, "window", Duration.ofHours(3));
+        ReflectionTestUtils.setField(routeStats, "slices", 3);
+        ReflectionTestUtils.setField(routeStats, "meterRegistry", meterRegistry);
+        routeStats.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        routeStats.shutdown();
+    }
+
+    private void complete(String route, int status, long latencyMs) {
+        routeStats.begin(route);
+        routeStats.end(route, status, TimeUnit.MILLISECONDS.toNanos(latencyMs));
+    }
+
+    private RouteStats.RouteSnapshot snapshot(String route) {
+        return routeStats.snapshot().stream()
+                .filter(s -> s.route().equals(route))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void snapshot_reportsPercentilesAndErrorRates() {
+        for (int i = 1; i <= 100; i++) {
+            complete("catalog-service", i <= 90 ? 200 : (i <= 95 ? 404 : 503), i);
+        }
+        routeStats.rotate();
+
+        RouteStats.RouteSnapshot catalog = snapshot("catalog-service");
+        assertThat(catalog.requests()).isEqualTo(100);
+        assertThat(catalog.clientErrorRate()).isEqualTo(0.05);
+        assertThat(catalog.serverErrorRate()).isEqualTo(0.05);
+        assertThat(catalog.p50Ms()).isCloseTo(50.0, within(1.0));
+        assertThat(catalog.p95Ms()).isCloseTo(95.0, within(1.0));
+        assertThat(catalog.p99Ms()).isCloseTo(99.0, within(1.0));
+        assertThat(catalog.maxMs()).isCloseTo(100.0, within(1.0));
+        assertThat(catalog.inFlight()).isZero();
+    }
+
+    @Test
+    void snapshot_excludesSlicesOlderThanWindow() {
+        complete("order-service", 200, 500);
+        routeStats.rotate();
+        assertThat(snapshot("order-service").requests()).isEqualTo(1);
+
+        for (int i = 0; i < 3; i++) {
+            complete("order-service", 200, 5);
+            routeStats.rotate();
+        }
+
+        RouteStats.RouteSnapshot orders = snapshot("order-service");
+        assertThat(orders.requests()).isEqualTo(3);
+        assertThat(orders.maxMs()).isLessThan(10.0);
+    }
+
+    @Test
+    void inFlight_tracksUnfinishedRequests() {
+        routeStats.begin("payment-service");
+        routeStats.begin("payment-service");
+        routeStats.end("payment-service", 200, 1_000_000);
+
+        assertThat(snapshot("payment-service").inFlight()).isEqualTo(1);
+        assertThat(meterRegistry.get(RouteStats.IN_FLIGHT_METRIC).tag("route", "payment-service").gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void end_recordsTimerPerRouteAndStatusClass() {
+        complete("auth-service", 200, 10);
+        complete("auth-service", 201, 20);
+        complete("auth-service", 401, 1);
+        complete(null, 0, 1);
+
+        assertThat(meterRegistry.get(RouteStats.LATENCY_METRIC).tags("route", "auth-service", "status", "2xx").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get(RouteStats.LATENCY_METRIC).tags("route", "auth-service", "status", "4xx").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(RouteStats.LATENCY_METRIC).tags("route", "unknown", "status", "none").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void snapshot_isOrderedByRoute() {
+        complete("payment-service", 200, 1);
+        complete("auth-service", 200, 1);
+
+        List<String> routes = routeStats.snapshot().stream().map(RouteStats.RouteSnapshot::route).toList();
+
+        assertThat(routes).containsExactly("auth-service", "payment-service");
+    }
+}
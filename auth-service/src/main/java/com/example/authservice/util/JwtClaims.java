@@ -0,0 +1,15 @@
+package com.example.authservice.util;
+
+import java.time.Instant;
+
+/**
+ * Typed view of the claims carried by an access token issued by {@link JwtTokenProvider}.
+ *
+ * @param userId    value of the {@code userId} claim
+ * @param email     token subject
+ * @param role      value of the {@code role} claim
+ * @param issuedAt  {@code iat} claim
+ * @param expiresAt {@code exp} claim
+ */
+public record JwtClaims(String userId, String email, String role, Instant issuedAt, Instant expiresAt) {
+}
@@ -0,0 +1,160 @@
+package com.example.authservice.util;
+
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HMAC key ring for JWT signing and verification.
+ * <p>
+ * Holds one active signing key plus any number of verification-only keys, each identified by a
+ * {@code kid}. Keys are read from an optional properties file:
+ * <pre>
+ * active=2026-10
+ * key.2026-10=&lt;secret, at least 32 bytes&gt;
+ * key.2026-07=&lt;previous secret, still accepted for verification&gt;
+ * </pre>
+ * The file is polled for changes, so a new key can be introduced and made active without a
+ * restart. The legacy {@code app.jwt.secret} is always registered under {@link #DEFAULT_KID}
+ * (unless the file overrides it) and verifies tokens that carry no {@code kid} header.
+ */
+public class JwtKeyRing implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    public static final String DEFAULT_KID = "default";
+
+    private static final String ACTIVE_PROPERTY = "active";
+    private static final String KEY_PREFIX = "key.";
+
+    /** Key used to sign new tokens */
+    public record SigningKey(String kid, SecretKey key) {
+    }
+
+    /** Immutable view swapped atomically on reload so readers never lock */
+    private record Snapshot(SigningKey active, Map<String, SecretKey> keys) {
+    }
+
+    private final SecretKey defaultKey;
+    private final Path keyFile;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot;
+    private volatile FileTime keyFileModified;
+    private ScheduledExecutorService watcher;
+
+    /**
+     * @param defaultSecret  legacy shared secret ({@code app.jwt.secret})
+     * @param keyFile        optional key file path; blank disables file-based keys
+     * @param reloadInterval how often the key file is checked for changes
+     */
+    public JwtKeyRing(String defaultSecret, String keyFile, Duration reloadInterval) {
+        this.defaultKey = Keys.hmacShaKeyFor(defaultSecret.getBytes(StandardCharsets.UTF_8));
+        this.keyFile = keyFile == null || keyFile.isBlank() ? null : Path.of(keyFile);
+        this.snapshot = new Snapshot(new SigningKey(DEFAULT_KID, defaultKey), Map.of(DEFAULT_KID, defaultKey));
+
+        if (this.keyFile != null) {
+            reload();
+            watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jwt-key-ring-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = reloadInterval.toMillis();
+            watcher.scheduleWithFixedDelay(this::reloadIfChanged, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Resolve the verification key for a token header
+     * @param kid key id from the JWS header, or null for legacy tokens
+     * @return matching key, or null if the kid is unknown
+     */
+    public SecretKey resolve(String kid) {
+        return snapshot.keys().get(kid == null || kid.isBlank() ? DEFAULT_KID : kid);
+    }
+
+    /**
+     * @return the key (and its kid) that new tokens should be signed with
+     */
+    public SigningKey activeKey() {
+        return snapshot.active();
+    }
+
+    /**
+     * Register a callback invoked after the key set changes (e.g. to drop cached verifications).
+     */
+    public void onReload(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Re-read the key file. A missing or invalid file keeps the current keys.
+     */
+    public synchronized void reload() {
+        try {
+            keyFileModified = Files.getLastModifiedTime(keyFile);
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(keyFile, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+
+            Map<String, SecretKey> keys = new HashMap<>();
+            keys.put(DEFAULT_KID, defaultKey);
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(KEY_PREFIX)) {
+                    String kid = name.substring(KEY_PREFIX.length());
+                    keys.put(kid, Keys.hmacShaKeyFor(properties.getProperty(name).getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+
+            String activeKid = properties.getProperty(ACTIVE_PROPERTY, DEFAULT_KID).trim();
+            SecretKey activeKey = keys.get(activeKid);
+            if (activeKey == null) {
+                logger.error("JWT key file {} names unknown active kid '{}'; keeping current keys", keyFile, activeKid);
+                return;
+            }
+
+            snapshot = new Snapshot(new SigningKey(activeKid, activeKey), Map.copyOf(keys));
+            logger.info("Loaded {} JWT key(s) from {}, active kid '{}'", keys.size(), keyFile, activeKid);
+            reloadListeners.forEach(Runnable::run);
+        } catch (IOException ex) {
+            logger.warn("Unable to read JWT key file {}: {}", keyFile, ex.getMessage());
+        } catch (RuntimeException ex) {
+            logger.error("Invalid JWT key file {}; keeping current keys: {}", keyFile, ex.getMessage());
+        }
+    }
+
+    private void reloadIfChanged() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(keyFile);
+            if (!modified.equals(keyFileModified)) {
+                reload();
+            }
+        } catch (IOException ex) {
+            logger.debug("JWT key file {} not readable: {}", keyFile, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+}
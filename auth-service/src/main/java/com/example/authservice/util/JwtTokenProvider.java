@@ -2,20 +2,26 @@ package com.example.authservice.util;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
@@ -30,6 +36,45 @@ public class JwtTokenProvider {
     @Value("${app.jwt.issuer:food-ordering-system}")
     private String jwtIssuer;
 
+    /** Optional properties file with rotating keys (see {@link JwtKeyRing}) */
+    @Value("${app.jwt.keys.file:}")
+    private String keyFile;
+
+    @Value("${app.jwt.keys.reload-interval-seconds:30}")
+    private long keyReloadIntervalSeconds = 30;
+
+    private JwtKeyRing keyRing;
+
+    private JwtParser jwtParser;
+
+    /**
+     * Load the key ring and build the parser once; the parser resolves the verification key
+     * by the token's {@code kid} header, so rotated keys are picked up without rebuilding it.
+     */
+    @PostConstruct
+    public void init() {
+        keyRing = new JwtKeyRing(jwtSecret, keyFile, Duration.ofSeconds(keyReloadIntervalSeconds));
+        jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        SecretKey key = keyRing.resolve(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown JWT key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (keyRing != null) {
+            keyRing.close();
+        }
+    }
+
     public String generateToken(String userId, String email, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
@@ -39,23 +84,36 @@ public class JwtTokenProvider {
         claims.put("email", email);
         claims.put("role", role);
 
+        JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
+
         return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
                 .claims(claims)
                 .subject(email)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .issuer(jwtIssuer)
-                .signWith(getSigningKey())
+                .signWith(signingKey.key())
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verify a token once and return its claims.
+     * Callers that need more than one claim should use this instead of the individual extractors.
+     *
+     * @param token JWT token string
+     * @return claims if the token is valid, empty otherwise
+     */
+    public Optional<JwtClaims> parse(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = extractAllClaims(token);
+            return Optional.of(new JwtClaims(
+                    claims.get("userId", String.class),
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+            ));
         } catch (MalformedJwtException ex) {
             logger.error("Invalid JWT token: {}", ex.getMessage());
         } catch (ExpiredJwtException ex) {
@@ -67,7 +125,11 @@ public class JwtTokenProvider {
         } catch (Exception ex) {
             logger.error("JWT token validation error: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public boolean validateToken(String token) {
+        return parse(token).isPresent();
     }
 
     public String extractUserId(String token) {
@@ -86,16 +148,7 @@ public class JwtTokenProvider {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     public boolean isTokenExpired(String token) {
@@ -0,0 +1,110 @@
+package com.example.authservice.benchmark;
+
+import com.example.authservice.util.JwtClaims;
+import com.example.authservice.util.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH throughput benchmark for {@link JwtTokenProvider}.
+ * <p>
+ * The {@code legacy*} benchmarks reproduce the previous behaviour (new key and parser per call,
+ * one parse per extracted claim) so a single run reports before/after numbers side by side.
+ * <p>
+ * Run with: {@code ./mvnw -Pbenchmark test-compile exec:exec}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "test-super-secret-jwt-key-minimum-32-characters-needed-for-hmac";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 900000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtIssuer", "food-ordering-system");
+        jwtTokenProvider.init();
+        token = jwtTokenProvider.generateToken("user-1", "alice@example.com", "CUSTOMER");
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtTokenProvider.generateToken("user-1", "alice@example.com", "CUSTOMER");
+    }
+
+    @Benchmark
+    public JwtClaims parse() {
+        return jwtTokenProvider.parse(token).orElseThrow();
+    }
+
+    /** Previous request path: validate, then extract email and role, each with a fresh key and parser */
+    @Benchmark
+    public String legacyValidateAndExtract() {
+        legacyClaims(token);
+        String email = legacyClaims(token).getSubject();
+        String role = legacyClaims(token).get("role", String.class);
+        return email + role;
+    }
+
+    /** Previous signing path: key derived from the secret on every call */
+    @Benchmark
+    public String legacyGenerate() {
+        Date now = new Date();
+        return Jwts.builder()
+                .claim("userId", "user-1")
+                .claim("email", "alice@example.com")
+                .claim("role", "CUSTOMER")
+                .subject("alice@example.com")
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 900000L))
+                .issuer("food-ordering-system")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private Claims legacyClaims(String jwt) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(jwt)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtTokenProviderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
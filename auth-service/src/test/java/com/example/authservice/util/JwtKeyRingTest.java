@@ -0,0 +1,117 @@
+package com.example.authservice.util;
+
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Key rotation tests for {@link JwtKeyRing} as used by {@link JwtTokenProvider}.
+ */
+class JwtKeyRingTest {
+
+    private static final String SECRET = "test-super-secret-jwt-key-minimum-32-characters-needed-for-hmac";
+    private static final String KEY_2026_07 = "rotation-key-2026-07-at-least-32-characters-long!!";
+    private static final String KEY_2026_10 = "rotation-key-2026-10-at-least-32-characters-long!!";
+
+    @TempDir
+    Path tempDir;
+
+    private Path keyFile;
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        keyFile = tempDir.resolve("jwt-keys.properties");
+        writeKeys("active=2026-07\nkey.2026-07=" + KEY_2026_07 + "\n");
+
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 900000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtIssuer", "food-ordering-system");
+        ReflectionTestUtils.setField(jwtTokenProvider, "keyFile", keyFile.toString());
+        jwtTokenProvider.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jwtTokenProvider.shutdown();
+    }
+
+    @Test
+    void generateToken_carriesActiveKid() {
+        String token = jwtTokenProvider.generateToken("user-1", "alice@example.com", "CUSTOMER");
+        assertThat(headerOf(token)).contains("\"kid\":\"2026-07\"");
+    }
+
+    @Test
+    void rotation_newActiveKey_oldTokensStillVerify() throws IOException {
+        String oldToken = jwtTokenProvider.generateToken("user-1", "alice@example.com", "CUSTOMER");
+
+        writeKeys("active=2026-10\nkey.2026-10=" + KEY_2026_10 + "\nkey.2026-07=" + KEY_2026_07 + "\n");
+        keyRing().reload();
+
+        String newToken = jwtTokenProvider.generateToken("user-1", "alice@example.com", "CUSTOMER");
+        assertThat(headerOf(newToken)).contains("\"kid\":\"2026-10\"");
+        assertThat(jwtTokenProvider.validateToken(newToken)).isTrue();
+        assertThat(jwtTokenProvider.validateToken(oldToken)).isTrue();
+    }
+
+    @Test
+    void rotation_retiredKey_rejectsItsTokens() throws IOException {
+        String oldToken = jwtTokenProvider.generateToken("user-1", "alice@example.com", "CUSTOMER");
+
+        writeKeys("active=2026-10\nkey.2026-10=" + KEY_2026_10 + "\n");
+        keyRing().reload();
+
+        assertThat(jwtTokenProvider.validateToken(oldToken)).isFalse();
+    }
+
+    @Test
+    void reload_unknownActiveKid_keepsCurrentKeys() throws IOException {
+        writeKeys("active=missing\nkey.2026-10=" + KEY_2026_10 + "\n");
+        keyRing().reload();
+
+        assertThat(keyRing().activeKey().kid()).isEqualTo("2026-07");
+    }
+
+    @Test
+    void resolve_noKid_usesDefaultSecret() {
+        assertThat(keyRing().resolve(null)).isEqualTo(keyRing().resolve(JwtKeyRing.DEFAULT_KID));
+        assertThat(keyRing().resolve("unknown")).isNull();
+    }
+
+    @Test
+    void resolve_noKid_followsDefaultKeyOverriddenByFile() throws IOException {
+        writeKeys("active=2026-07\nkey.2026-07=" + KEY_2026_07 + "\nkey.default=" + KEY_2026_10 + "\n");
+        keyRing().reload();
+
+        assertThat(keyRing().resolve(JwtKeyRing.DEFAULT_KID))
+                .isEqualTo(Keys.hmacShaKeyFor(KEY_2026_10.getBytes(StandardCharsets.UTF_8)));
+        assertThat(keyRing().resolve(null)).isEqualTo(keyRing().resolve(JwtKeyRing.DEFAULT_KID));
+        assertThat(keyRing().resolve(""))
+                .isNotEqualTo(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private JwtKeyRing keyRing() {
+        return (JwtKeyRing) ReflectionTestUtils.getField(jwtTokenProvider, "keyRing");
+    }
+
+    private void writeKeys(String content) throws IOException {
+        Files.writeString(keyFile, content, StandardCharsets.UTF_8);
+    }
+
+    private static String headerOf(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+    }
+}
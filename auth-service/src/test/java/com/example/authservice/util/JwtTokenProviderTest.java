@@ -22,6 +22,7 @@ class JwtTokenProviderTest {
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 900000L);
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtIssuer", "food-ordering-system");
+        jwtTokenProvider.init();
     }
 
     // ── generateToken ──────────────────────────────────────────────────────────
@@ -137,6 +138,30 @@ class JwtTokenProviderTest {
         assertThat(jwtTokenProvider.isTokenExpired(token)).isTrue();
     }
 
+    // ── parse ──────────────────────────────────────────────────────────────────
+
+    @Test
+    void parse_validToken_returnsTypedClaims() {
+        String token = jwtTokenProvider.generateToken("user-xyz", "charlie@example.com", "ADMIN");
+
+        JwtClaims claims = jwtTokenProvider.parse(token).orElseThrow();
+
+        assertThat(claims.userId()).isEqualTo("user-xyz");
+        assertThat(claims.email()).isEqualTo("charlie@example.com");
+        assertThat(claims.role()).isEqualTo("ADMIN");
+        assertThat(claims.expiresAt()).isAfter(claims.issuedAt());
+    }
+
+    @Test
+    void parse_randomGarbage_returnsEmpty() {
+        assertThat(jwtTokenProvider.parse("not.a.jwt.string")).isEmpty();
+    }
+
+    @Test
+    void parse_null_returnsEmpty() {
+        assertThat(jwtTokenProvider.parse(null)).isEmpty();
+    }
+
     // ── round-trip consistency ─────────────────────────────────────────────────
 
     @Test
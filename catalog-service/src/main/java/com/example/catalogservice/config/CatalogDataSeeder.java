@@ -2,7 +2,9 @@ package com.example.catalogservice.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.example.catalogservice.service.CatalogChangedEvent;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
@@ -15,9 +17,11 @@ public class CatalogDataSeeder implements CommandLineRunner {
     private static final Logger logger = LoggerFactory.getLogger(CatalogDataSeeder.class);
 
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CatalogDataSeeder(JdbcTemplate jdbcTemplate) {
+    public CatalogDataSeeder(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -64,6 +68,8 @@ public class CatalogDataSeeder implements CommandLineRunner {
 
         if (createdCount > 0) {
             logger.info("Seeded {} catalog items for local/demo checkout flows.", createdCount);
+            // Rows were inserted with plain JDBC; let caches reload them
+            eventPublisher.publishEvent(new CatalogChangedEvent(null));
         }
     }
 
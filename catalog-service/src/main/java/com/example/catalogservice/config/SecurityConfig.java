@@ -34,8 +34,12 @@ public class SecurityConfig {
                     .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
                     .requestMatchers("/actuator/**", "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**", "/webjars/**").permitAll()
                     .requestMatchers(org.springframework.http.HttpMethod.GET, "/items/**", "/categories").permitAll()
+                    .requestMatchers(org.springframework.http.HttpMethod.POST, "/items/lookup").permitAll()
                     .requestMatchers(org.springframework.http.HttpMethod.GET, "/dashboard").hasRole("ADMIN")
                     .requestMatchers(org.springframework.http.HttpMethod.POST, "/items/*/decrement-stock").hasAnyRole("ADMIN", "SERVICE_PAYMENT")
+                    .requestMatchers(org.springframework.http.HttpMethod.POST, "/items/stock/batch").hasAnyRole("ADMIN", "SERVICE_PAYMENT")
+                    .requestMatchers(org.springframework.http.HttpMethod.POST, "/items/*/reservations").hasAnyRole("ADMIN", "SERVICE_PAYMENT", "SERVICE_ORDER")
+                    .requestMatchers("/reservations/**").hasAnyRole("ADMIN", "SERVICE_PAYMENT", "SERVICE_ORDER")
                     .requestMatchers(org.springframework.http.HttpMethod.POST, "/items").hasRole("ADMIN")
                     .requestMatchers(org.springframework.http.HttpMethod.PUT, "/items/*").hasRole("ADMIN")
                     .requestMatchers(org.springframework.http.HttpMethod.PATCH, "/items/*/stock").hasRole("ADMIN")
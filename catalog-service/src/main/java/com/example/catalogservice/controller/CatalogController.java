@@ -1,14 +1,24 @@
 package com.example.catalogservice.controller;
 
 import com.example.catalogservice.dto.*;
+import com.example.catalogservice.repository.MenuItemField;
+import com.example.catalogservice.repository.MenuItemView;
 import com.example.catalogservice.service.CatalogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -23,6 +33,9 @@ public class CatalogController {
     @Autowired
     private CatalogService catalogService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // ── item listing ─────────────────────────────────────────────────────────
 
     @GetMapping("/items")
@@ -32,6 +45,37 @@ public class CatalogController {
         return ResponseEntity.ok(catalogService.getAllItems());
     }
 
+    /**
+     * Keyset-paginated listing. Pass the returned nextCursor as cursor for the following page;
+     * the cursor is only valid with the same sort and direction.
+     */
+    @GetMapping("/items/page")
+    @Operation(summary = "Page through catalog items",
+            description = "sort: name | price | category | updatedAt; fields: comma-separated subset of item properties")
+    @ApiResponse(responseCode = "200", description = "Page returned")
+    @ApiResponse(responseCode = "400", description = "Invalid sort, field, limit or cursor")
+    public ResponseEntity<StreamingResponseBody> getItemsPage(
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        ItemPageResponse page = catalogService.getItemsPage(sort, direction, limit, cursor, fields);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writePage(page, out));
+    }
+
+    /**
+     * Resolve many items in one call; ids may be database UUIDs or business itemIds
+     */
+    @PostMapping("/items/lookup")
+    @Operation(summary = "Look up several items by id or itemId")
+    @ApiResponse(responseCode = "200", description = "Found items keyed by requested id, plus the ids that matched nothing")
+    public ResponseEntity<ItemLookupResponse> lookupItems(@RequestBody ItemLookupRequest request) {
+        return ResponseEntity.ok(catalogService.lookupItems(request));
+    }
+
     @GetMapping("/items/{id}")
     @Operation(summary = "Get item by DB id")
     @ApiResponse(responseCode = "200", description = "Item found")
@@ -105,11 +149,79 @@ public class CatalogController {
         return ResponseEntity.ok(catalogService.decrementStock(itemId, quantity));
     }
 
+    /**
+     * Decrement stock for every line of an order in one call and one transaction.
+     * Nothing is applied unless every line succeeds.
+     */
+    @PostMapping("/items/stock/batch")
+    @Operation(summary = "Decrement stock for several items at once, all or nothing (internal)")
+    @ApiResponse(responseCode = "200", description = "All lines applied")
+    @ApiResponse(responseCode = "409", description = "Nothing applied (see per-line results), or the same Idempotency-Key is being applied by another request")
+    public ResponseEntity<StockBatchResponse> decrementStockBatch(
+            @RequestBody StockBatchRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        StockBatchResponse response = catalogService.decrementStockBatch(request, idempotencyKey);
+        return ResponseEntity.status(response.isApplied() ? HttpStatus.OK : HttpStatus.CONFLICT).body(response);
+    }
+
     // ── dashboard ────────────────────────────────────────────────────────────
 
     @GetMapping("/dashboard")
-    @Operation(summary = "Get catalog dashboard stats (admin)")
-    public ResponseEntity<DashboardResponse> getDashboard() {
-        return ResponseEntity.ok(catalogService.getDashboardStats());
+    @Operation(summary = "Get catalog dashboard stats (admin)",
+            description = "Served from the in-memory aggregate; fresh=true recomputes it from the database")
+    public ResponseEntity<DashboardResponse> getDashboard(@RequestParam(defaultValue = "false") boolean fresh) {
+        return ResponseEntity.ok(catalogService.getDashboardStats(fresh));
+    }
+
+    // ── streaming serialization ──────────────────────────────────────────────
+
+    /**
+     * Writes the page item by item so large pages are never materialized as one string;
+     * only the requested fields of each item are written
+     */
+    private void writePage(ItemPageResponse page, OutputStream target) throws IOException {
+        OutputStream out = new BufferedOutputStream(target, 8192);
+        out.write("{\"items\":[".getBytes(StandardCharsets.UTF_8));
+        boolean firstItem = true;
+        for (MenuItemView item : page.getItems()) {
+            if (!firstItem) {
+                out.write(',');
+            }
+            firstItem = false;
+            out.write('{');
+            boolean firstField = true;
+            for (MenuItemField field : page.getFields()) {
+                if (!firstField) {
+                    out.write(',');
+                }
+                firstField = false;
+                writeName(out, field.attribute());
+                out.write(objectMapper.writeValueAsBytes(field.valueOf(item)));
+            }
+            out.write('}');
+        }
+        out.write(']');
+        out.write(',');
+        writeName(out, "nextCursor");
+        out.write(objectMapper.writeValueAsBytes(page.getNextCursor()));
+        out.write(',');
+        writeName(out, "sort");
+        out.write(objectMapper.writeValueAsBytes(page.getSort()));
+        out.write(',');
+        writeName(out, "direction");
+        out.write(objectMapper.writeValueAsBytes(page.getDirection()));
+        out.write(',');
+        writeName(out, "limit");
+        out.write(Integer.toString(page.getLimit()).getBytes(StandardCharsets.UTF_8));
+        out.write('}');
+        out.flush();
+    }
+
+    private static void writeName(OutputStream out, String name) throws IOException {
+        // Property names are fixed identifiers and never need escaping
+        out.write('"');
+        out.write(name.getBytes(StandardCharsets.UTF_8));
+        out.write('"');
+        out.write(':');
     }
 }
@@ -0,0 +1,54 @@
+package com.example.catalogservice.controller;
+
+import com.example.catalogservice.dto.ReservationRequest;
+import com.example.catalogservice.dto.ReservationResponse;
+import com.example.catalogservice.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Stock reservations: hold stock for an order, then commit it on payment or release it.
+ * Paths are relative to the /catalog context path.
+ */
+@RestController
+@Tag(name = "Stock reservations", description = "Hold stock for pending orders (internal)")
+public class StockReservationController {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @PostMapping("/items/{itemId}/reservations")
+    @Operation(summary = "Reserve stock for an item")
+    @ApiResponse(responseCode = "201", description = "Stock reserved")
+    @ApiResponse(responseCode = "409", description = "Insufficient stock")
+    public ResponseEntity<ReservationResponse> reserve(
+            @PathVariable String itemId,
+            @RequestBody ReservationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationService.reserve(itemId, request));
+    }
+
+    @GetMapping("/reservations/{id}")
+    @Operation(summary = "Get a reservation")
+    public ResponseEntity<ReservationResponse> getReservation(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.getReservation(id));
+    }
+
+    @PostMapping("/reservations/{id}/commit")
+    @Operation(summary = "Make a reservation final (order paid)")
+    @ApiResponse(responseCode = "409", description = "Reservation released or expired")
+    public ResponseEntity<ReservationResponse> commit(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.commit(id));
+    }
+
+    @PostMapping("/reservations/{id}/release")
+    @Operation(summary = "Cancel a reservation and return its stock")
+    @ApiResponse(responseCode = "409", description = "Reservation already committed")
+    public ResponseEntity<ReservationResponse> release(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.release(id));
+    }
+}
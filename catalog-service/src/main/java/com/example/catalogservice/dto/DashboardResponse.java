@@ -23,5 +23,8 @@ public class DashboardResponse {
         private String category;
         private long count;
         private long totalStock;
+        private long availableCount;
+        private long outOfStockCount;
+        private long lowStockCount;
     }
 }
@@ -0,0 +1,12 @@
+package com.example.catalogservice.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemLookupRequest {
+    private List<String> ids;   // database ids (UUID) and/or business itemIds, mixed
+}
@@ -0,0 +1,14 @@
+package com.example.catalogservice.dto;
+
+import lombok.*;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemLookupResponse {
+    private Map<String, MenuItemResponse> items;   // keyed by the id as sent in the request
+    private List<String> missing;                  // requested ids that matched no item
+}
@@ -0,0 +1,25 @@
+package com.example.catalogservice.dto;
+
+import com.example.catalogservice.repository.MenuItemField;
+import com.example.catalogservice.repository.MenuItemView;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated item listing.
+ * Only {@code fields} are populated on each item and written to the response.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPageResponse {
+    private List<MenuItemView> items;
+    private List<MenuItemField> fields;
+    private String sort;
+    private String direction;
+    private int limit;
+    /** Pass back as {@code cursor} to fetch the next page; null on the last page */
+    private String nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.example.catalogservice.dto;
 
+import com.example.catalogservice.entity.MenuItem;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -20,4 +21,20 @@ public class MenuItemResponse {
     private String imageUrl;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    public static MenuItemResponse from(MenuItem item) {
+        return MenuItemResponse.builder()
+                .id(item.getId())
+                .itemId(item.getItemId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .price(item.getPrice())
+                .category(item.getCategory())
+                .stockCount(item.getStockCount())
+                .available(item.getAvailable())
+                .imageUrl(item.getImageUrl())
+                .createdAt(item.getCreatedAt())
+                .updatedAt(item.getUpdatedAt())
+                .build();
+    }
 }
@@ -0,0 +1,13 @@
+package com.example.catalogservice.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+    private Integer quantity;
+    private Long ttlSeconds;     // optional; defaults to app.catalog.reservations.default-ttl
+    private String reference;    // optional; e.g. the order id
+}
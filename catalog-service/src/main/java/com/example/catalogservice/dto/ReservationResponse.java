@@ -0,0 +1,33 @@
+package com.example.catalogservice.dto;
+
+import com.example.catalogservice.entity.ReservationStatus;
+import com.example.catalogservice.entity.StockReservation;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+    private String id;
+    private String itemId;
+    private Integer quantity;
+    private ReservationStatus status;
+    private String reference;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+    private Integer remainingStock;   // item stock after the operation, when it changed stock
+
+    public static ReservationResponse from(StockReservation reservation) {
+        return ReservationResponse.builder()
+                .id(reservation.getId())
+                .itemId(reservation.getItemId())
+                .quantity(reservation.getQuantity())
+                .status(reservation.getStatus())
+                .reference(reservation.getReference())
+                .expiresAt(reservation.getExpiresAt())
+                .createdAt(reservation.getCreatedAt())
+                .build();
+    }
+}
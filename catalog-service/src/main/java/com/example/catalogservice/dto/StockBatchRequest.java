@@ -0,0 +1,21 @@
+package com.example.catalogservice.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchRequest {
+    private List<Line> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private String itemId;     // business itemId (e.g. "ITEM-1234")
+        private Integer quantity;
+    }
+}
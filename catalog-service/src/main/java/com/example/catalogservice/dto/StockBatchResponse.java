@@ -0,0 +1,39 @@
+package com.example.catalogservice.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Outcome of a batch stock decrement. Either every line was applied (applied = true)
+ * or none was; each line says why.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchResponse {
+    private boolean applied;
+    /** True if this Idempotency-Key was already applied; nothing was decremented again */
+    private boolean replayed;
+    private List<LineResult> results;
+
+    public enum LineStatus {
+        /** Stock taken */
+        DECREMENTED,
+        /** Would have succeeded, but another line failed so nothing was applied */
+        ROLLED_BACK,
+        INSUFFICIENT_STOCK,
+        NOT_FOUND
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineResult {
+        private String itemId;
+        private int quantity;             // total requested for the item (duplicate lines are merged)
+        private LineStatus status;
+        private Integer remainingStock;   // stock after this batch; current stock if not applied
+    }
+}
@@ -6,7 +6,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+        // Keyset pagination: sort key plus id tie-breaker
+        @Index(name = "idx_items_name_id", columnList = "name, id"),
+        @Index(name = "idx_items_price_id", columnList = "price, id"),
+        @Index(name = "idx_items_category_id", columnList = "category, id"),
+        @Index(name = "idx_items_updated_at_id", columnList = "updatedAt, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
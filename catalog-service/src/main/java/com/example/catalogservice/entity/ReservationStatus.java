@@ -0,0 +1,12 @@
+package com.example.catalogservice.entity;
+
+public enum ReservationStatus {
+    /** Stock is held for the reservation */
+    RESERVED,
+    /** The sale went through; the held stock is gone for good */
+    COMMITTED,
+    /** Cancelled by the caller; stock was returned */
+    RELEASED,
+    /** Not committed before its TTL ran out; stock was returned */
+    EXPIRED
+}
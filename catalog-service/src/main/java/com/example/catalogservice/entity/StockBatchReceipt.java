@@ -0,0 +1,58 @@
+package com.example.catalogservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of an applied batch stock decrement, keyed by the caller's Idempotency-Key.
+ * Written in the same transaction as the decrement, so a retried batch is applied at most once.
+ */
+@Entity
+@Table(name = "stock_batch_receipts", indexes = {
+        @Index(name = "idx_stock_batch_receipts_created", columnList = "createdAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchReceipt implements Persistable<String> {
+    @Id
+    @Column(length = 200)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private Integer lineCount;
+
+    private LocalDateTime createdAt;
+
+    /** The key is assigned by the caller, so save() must insert rather than merge over a committed receipt */
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newReceipt = true;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newReceipt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markStored() {
+        newReceipt = false;
+    }
+}
@@ -42,6 +42,38 @@ public class GlobalExceptionHandler {
                 .body(body(HttpStatus.CONFLICT, "Conflict", ex.getMessage()));
     }
 
+    /** 409 — not enough stock to decrement or reserve */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientStock(InsufficientStockException ex) {
+        logger.warn("Insufficient stock: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(body(HttpStatus.CONFLICT, "Conflict", ex.getMessage()));
+    }
+
+    /** 409 — the same Idempotency-Key is being processed by another request */
+    @ExceptionHandler(DuplicateRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleDuplicateRequest(DuplicateRequestException ex) {
+        logger.warn("Duplicate request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(body(HttpStatus.CONFLICT, "Conflict", ex.getMessage()));
+    }
+
+    /** 404 — reservation not found */
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleReservationNotFound(ReservationNotFoundException ex) {
+        logger.warn("Reservation not found: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(body(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage()));
+    }
+
+    /** 409 — reservation already committed, released or expired */
+    @ExceptionHandler(ReservationStateException.class)
+    public ResponseEntity<Map<String, Object>> handleReservationState(ReservationStateException ex) {
+        logger.warn("Reservation conflict: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(body(HttpStatus.CONFLICT, "Conflict", ex.getMessage()));
+    }
+
     /** 400 — validation errors */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
@@ -0,0 +1,10 @@
+package com.example.catalogservice.exception;
+
+/**
+ * The reservation can no longer be committed or released (already committed, released or expired)
+ */
+public class ReservationStateException extends RuntimeException {
+    public ReservationStateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.catalogservice.repository;
+
+/**
+ * Per-category row of {@link MenuItemRepository#aggregateByCategory()}
+ */
+public interface CategoryAggregateView {
+    String getCategory();
+    Long getItemCount();
+    Long getTotalStock();
+    Long getAvailableCount();
+    Long getOutOfStockCount();
+    Long getLowStockCount();
+}
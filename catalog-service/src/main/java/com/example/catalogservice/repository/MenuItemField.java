@@ -0,0 +1,75 @@
+package com.example.catalogservice.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.function.Function;
+
+/**
+ * Columns that can be selected ({@code fields=}) and, where marked sortable, used as a keyset sort key
+ */
+public enum MenuItemField {
+    ID("id", String.class, false, MenuItemView::getId),
+    ITEM_ID("itemId", String.class, false, MenuItemView::getItemId),
+    NAME("name", String.class, true, MenuItemView::getName),
+    DESCRIPTION("description", String.class, false, MenuItemView::getDescription),
+    PRICE("price", BigDecimal.class, true, MenuItemView::getPrice),
+    CATEGORY("category", String.class, true, MenuItemView::getCategory),
+    STOCK_COUNT("stockCount", Integer.class, false, MenuItemView::getStockCount),
+    AVAILABLE("available", Boolean.class, false, MenuItemView::getAvailable),
+    IMAGE_URL("imageUrl", String.class, false, MenuItemView::getImageUrl),
+    CREATED_AT("createdAt", LocalDateTime.class, false, MenuItemView::getCreatedAt),
+    UPDATED_AT("updatedAt", LocalDateTime.class, true, MenuItemView::getUpdatedAt);
+
+    private final String attribute;
+    private final Class<?> type;
+    private final boolean sortable;
+    private final Function<MenuItemView, Object> accessor;
+
+    MenuItemField(String attribute, Class<?> type, boolean sortable, Function<MenuItemView, Object> accessor) {
+        this.attribute = attribute;
+        this.type = type;
+        this.sortable = sortable;
+        this.accessor = accessor;
+    }
+
+    /** Entity attribute and JSON property name */
+    public String attribute() {
+        return attribute;
+    }
+
+    public boolean sortable() {
+        return sortable;
+    }
+
+    public Object valueOf(MenuItemView view) {
+        return accessor.apply(view);
+    }
+
+    /**
+     * Parse a value previously rendered with {@link Object#toString()} (used by cursors)
+     */
+    public Object parse(String value) {
+        try {
+            if (type == BigDecimal.class) return new BigDecimal(value);
+            if (type == LocalDateTime.class) return LocalDateTime.parse(value);
+            if (type == Integer.class) return Integer.valueOf(value);
+            if (type == Boolean.class) return Boolean.valueOf(value);
+            return value;
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid value for " + attribute + ": " + value);
+        }
+    }
+
+    /**
+     * @param attribute JSON property name, e.g. {@code stockCount}
+     */
+    public static MenuItemField fromAttribute(String attribute) {
+        for (MenuItemField field : values()) {
+            if (field.attribute.equals(attribute)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + attribute);
+    }
+}
@@ -1,19 +1,72 @@
 package com.example.catalogservice.repository;
 
+import com.example.catalogservice.dto.MenuItemResponse;
 import com.example.catalogservice.entity.MenuItem;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface MenuItemRepository extends JpaRepository<MenuItem, String> {
+public interface MenuItemRepository extends JpaRepository<MenuItem, String>, MenuItemRepositoryCustom {
     List<MenuItem> findByCategory(String category);
     List<MenuItem> findByAvailable(Boolean available);
     Optional<MenuItem> findByItemId(String itemId);
     boolean existsByItemId(String itemId);
 
+    /**
+     * Items as response DTOs. Constructor expressions are not managed entities, so these always
+     * return database state even when the current persistence context holds an older copy.
+     */
+    @Query("SELECT new com.example.catalogservice.dto.MenuItemResponse(m.id, m.itemId, m.name, m.description, " +
+            "m.price, m.category, m.stockCount, m.available, m.imageUrl, m.createdAt, m.updatedAt) FROM MenuItem m")
+    List<MenuItemResponse> findAllResponses();
+
+    @Query("SELECT new com.example.catalogservice.dto.MenuItemResponse(m.id, m.itemId, m.name, m.description, " +
+            "m.price, m.category, m.stockCount, m.available, m.imageUrl, m.createdAt, m.updatedAt) " +
+            "FROM MenuItem m WHERE m.id = :id")
+    Optional<MenuItemResponse> findResponseById(@Param("id") String id);
+
+    /** Items whose database id or business itemId is one of {@code keys} */
+    @Query("SELECT new com.example.catalogservice.dto.MenuItemResponse(m.id, m.itemId, m.name, m.description, " +
+            "m.price, m.category, m.stockCount, m.available, m.imageUrl, m.createdAt, m.updatedAt) " +
+            "FROM MenuItem m WHERE m.id IN :keys OR m.itemId IN :keys")
+    List<MenuItemResponse> findResponsesByIdOrItemId(@Param("keys") Collection<String> keys);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MenuItem m WHERE m.id = :id")
+    Optional<MenuItem> findByIdForUpdate(@Param("id") String id);
+
+    /**
+     * Take stock in a single conditional statement; the row lock taken by the UPDATE serializes
+     * concurrent decrements in the database, so no update is lost and stock never goes negative.
+     * @return 1 if decremented, 0 if the item does not exist or has fewer than {@code quantity} units
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MenuItem m SET m.stockCount = m.stockCount - :quantity, " +
+            "m.available = CASE WHEN m.stockCount - :quantity > 0 THEN true ELSE false END, " +
+            "m.updatedAt = :now " +
+            "WHERE m.itemId = :itemId AND m.stockCount >= :quantity")
+    int decrementStockIfAvailable(@Param("itemId") String itemId, @Param("quantity") int quantity,
+                                  @Param("now") LocalDateTime now);
+
+    /**
+     * Give stock back (released or expired reservations)
+     * @return 1 if the item exists
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MenuItem m SET m.stockCount = m.stockCount + :quantity, m.available = true, m.updatedAt = :now " +
+            "WHERE m.itemId = :itemId")
+    int incrementStock(@Param("itemId") String itemId, @Param("quantity") int quantity,
+                       @Param("now") LocalDateTime now);
+
     @Query("SELECT DISTINCT m.category FROM MenuItem m")
     List<String> findDistinctCategories();
 
@@ -25,4 +78,14 @@ public interface MenuItemRepository extends JpaRepository<MenuItem, String> {
 
     @Query("SELECT COUNT(m) FROM MenuItem m WHERE m.stockCount > 0 AND m.stockCount <= 5")
     long countLowStock();
+
+    /** Every dashboard counter, per category, in one pass over the table */
+    @Query("SELECT m.category AS category, " +
+            "COUNT(m) AS itemCount, " +
+            "COALESCE(SUM(m.stockCount), 0) AS totalStock, " +
+            "SUM(CASE WHEN m.available = true THEN 1 ELSE 0 END) AS availableCount, " +
+            "SUM(CASE WHEN m.stockCount = 0 THEN 1 ELSE 0 END) AS outOfStockCount, " +
+            "SUM(CASE WHEN m.stockCount > 0 AND m.stockCount <= 5 THEN 1 ELSE 0 END) AS lowStockCount " +
+            "FROM MenuItem m GROUP BY m.category ORDER BY m.category")
+    List<CategoryAggregateView> aggregateByCategory();
 }
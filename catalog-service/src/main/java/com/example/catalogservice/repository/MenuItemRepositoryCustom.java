@@ -0,0 +1,20 @@
+package com.example.catalogservice.repository;
+
+import java.util.List;
+import java.util.Set;
+
+public interface MenuItemRepositoryCustom {
+
+    /**
+     * One page of a keyset-paginated listing, ordered by the sort field then id
+     *
+     * @param fields     columns to select; id and the sort field are always selected
+     * @param sort       sortable field
+     * @param descending sort direction
+     * @param afterValue sort value of the last row of the previous page, or null for the first page
+     * @param afterId    id of the last row of the previous page, or null for the first page
+     * @param limit      maximum number of rows
+     */
+    List<MenuItemView> findPage(Set<MenuItemField> fields, MenuItemField sort, boolean descending,
+                                Object afterValue, String afterId, int limit);
+}
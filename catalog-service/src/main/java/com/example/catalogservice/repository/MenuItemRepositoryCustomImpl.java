@@ -0,0 +1,74 @@
+package com.example.catalogservice.repository;
+
+import com.example.catalogservice.entity.MenuItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyset pagination with column projection: selects only the requested columns as a tuple
+ * and exposes each row as a {@link MenuItemView}
+ */
+class MenuItemRepositoryCustomImpl implements MenuItemRepositoryCustom {
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<MenuItemView> findPage(Set<MenuItemField> fields, MenuItemField sort, boolean descending,
+                                       Object afterValue, String afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<MenuItem> root = query.from(MenuItem.class);
+
+        EnumSet<MenuItemField> selected = EnumSet.of(MenuItemField.ID, sort);
+        selected.addAll(fields);
+        List<Selection<?>> selections = selected.stream()
+                .<Selection<?>>map(field -> root.get(field.attribute()).alias(field.attribute()))
+                .toList();
+        query.multiselect(selections);
+
+        Path<Comparable> key = root.get(sort.attribute());
+        Path<String> id = root.get(MenuItemField.ID.attribute());
+        if (afterId != null) {
+            Comparable value = (Comparable) afterValue;
+            query.where(descending
+                    ? cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), cb.lessThan(id, afterId)))
+                    : cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), cb.greaterThan(id, afterId))));
+        }
+        query.orderBy(descending
+                ? List.of(cb.desc(key), cb.desc(id))
+                : List.of(cb.asc(key), cb.asc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(this::toView)
+                .toList();
+    }
+
+    private MenuItemView toView(Tuple row) {
+        Map<String, Object> values = new HashMap<>();
+        for (TupleElement<?> element : row.getElements()) {
+            values.put(element.getAlias(), row.get(element));
+        }
+        return projectionFactory.createProjection(MenuItemView.class, values);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.catalogservice.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of {@link com.example.catalogservice.entity.MenuItem} used by paginated listings.
+ * Only the columns requested through {@link MenuItemField} are selected; the others return null.
+ */
+public interface MenuItemView {
+    String getId();
+    String getItemId();
+    String getName();
+    String getDescription();
+    BigDecimal getPrice();
+    String getCategory();
+    Integer getStockCount();
+    Boolean getAvailable();
+    String getImageUrl();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
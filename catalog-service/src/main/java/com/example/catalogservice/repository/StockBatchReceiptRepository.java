@@ -0,0 +1,23 @@
+package com.example.catalogservice.repository;
+
+import com.example.catalogservice.entity.StockBatchReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StockBatchReceiptRepository extends JpaRepository<StockBatchReceipt, String> {
+
+    /**
+     * @return number of receipts removed
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockBatchReceipt r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,42 @@
+package com.example.catalogservice.repository;
+
+import com.example.catalogservice.entity.ReservationStatus;
+import com.example.catalogservice.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    /**
+     * Move a reservation from RESERVED to RELEASED or EXPIRED. The status check makes each transition
+     * happen at most once, so stock is never returned twice even if release and expiry race.
+     * @return 1 if the transition happened, 0 if the reservation was no longer RESERVED
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :to, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status = com.example.catalogservice.entity.ReservationStatus.RESERVED")
+    int transition(@Param("id") String id, @Param("to") ReservationStatus to, @Param("now") LocalDateTime now);
+
+    /**
+     * @return 1 if committed, 0 if the reservation was no longer RESERVED or has expired
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = com.example.catalogservice.entity.ReservationStatus.COMMITTED, " +
+            "r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status = com.example.catalogservice.entity.ReservationStatus.RESERVED " +
+            "AND r.expiresAt > :now")
+    int commit(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.id FROM StockReservation r " +
+            "WHERE r.status = com.example.catalogservice.entity.ReservationStatus.RESERVED AND r.expiresAt <= :now " +
+            "ORDER BY r.expiresAt")
+    List<String> findExpiredIds(@Param("now") LocalDateTime now, Pageable page);
+}
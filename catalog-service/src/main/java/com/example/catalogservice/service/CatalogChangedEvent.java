@@ -0,0 +1,12 @@
+package com.example.catalogservice.service;
+
+/**
+ * Published inside the transaction of every catalog write.
+ * Listeners that must only see committed data use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}.
+ *
+ * @param id database id of the item that was created, changed or deleted;
+ *           null when many items changed at once (e.g. seeding)
+ */
+public record CatalogChangedEvent(String id) {
+}
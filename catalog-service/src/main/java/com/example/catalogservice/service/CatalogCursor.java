@@ -0,0 +1,39 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.repository.MenuItemField;
+import com.example.catalogservice.repository.MenuItemView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key and id of the last item on a page.
+ * The sort field and direction are part of the token so it cannot be replayed against another ordering.
+ */
+record CatalogCursor(MenuItemField sort, boolean descending, String id, Object value) {
+
+    static CatalogCursor after(MenuItemField sort, boolean descending, MenuItemView last) {
+        return new CatalogCursor(sort, descending, last.getId(), sort.valueOf(last));
+    }
+
+    String encode() {
+        String raw = sort.attribute() + ':' + (descending ? "desc" : "asc") + ':' + id + ':' + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CatalogCursor decode(String token, MenuItemField sort, boolean descending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 4);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[0].equals(sort.attribute()) || !parts[1].equals(descending ? "desc" : "asc")) {
+            throw new IllegalArgumentException("Cursor does not match sort " + sort.attribute() + " " + (descending ? "desc" : "asc"));
+        }
+        return new CatalogCursor(sort, descending, parts[2], sort.parse(parts[3]));
+    }
+}
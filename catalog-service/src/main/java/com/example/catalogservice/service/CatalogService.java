@@ -8,11 +8,16 @@ public interface CatalogService {
     MenuItemResponse getItemById(String id);
     MenuItemResponse getItemByItemId(String itemId);
     List<MenuItemResponse> getItemsByCategory(String category);
+    ItemLookupResponse lookupItems(ItemLookupRequest request);
+    ItemPageResponse getItemsPage(String sort, String direction, int limit, String cursor, String fields);
     MenuItemResponse createItem(MenuItemRequest request);
     MenuItemResponse updateItem(String id, MenuItemRequest request);
     void deleteItem(String id);
     MenuItemResponse updateStock(String id, StockUpdateRequest request);
     MenuItemResponse decrementStock(String itemId, int quantity);
+    MenuItemResponse restoreStock(String itemId, int quantity);
+    StockBatchResponse decrementStockBatch(StockBatchRequest request);
+    StockBatchResponse decrementStockBatch(StockBatchRequest request, String idempotencyKey);
     List<String> getCategories();
-    DashboardResponse getDashboardStats();
+    DashboardResponse getDashboardStats(boolean fresh);
 }
@@ -2,41 +2,56 @@ package com.example.catalogservice.service;
 
 import com.example.catalogservice.dto.*;
 import com.example.catalogservice.entity.MenuItem;
+import com.example.catalogservice.entity.StockBatchReceipt;
 import com.example.catalogservice.exception.DuplicateItemException;
+import com.example.catalogservice.exception.DuplicateRequestException;
+import com.example.catalogservice.exception.InsufficientStockException;
 import com.example.catalogservice.exception.ItemNotFoundException;
+import com.example.catalogservice.repository.CategoryAggregateView;
+import com.example.catalogservice.repository.MenuItemField;
 import com.example.catalogservice.repository.MenuItemRepository;
+import com.example.catalogservice.repository.MenuItemView;
+import com.example.catalogservice.repository.StockBatchReceiptRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class CatalogServiceImpl implements CatalogService {
     private static final Logger logger = LoggerFactory.getLogger(CatalogServiceImpl.class);
 
+    static final int MAX_PAGE_SIZE = 200;
+
+    static final int MAX_BATCH_LINES = 100;
+
+    static final int MAX_LOOKUP_IDS = 200;
+
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 200;
+
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private StockBatchReceiptRepository receiptRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CatalogSnapshotCache catalogCache;
+
     // ── helpers ──────────────────────────────────────────────────────────────
 
     private MenuItemResponse toResponse(MenuItem item) {
-        return MenuItemResponse.builder()
-                .id(item.getId())
-                .itemId(item.getItemId())
-                .name(item.getName())
-                .description(item.getDescription())
-                .price(item.getPrice())
-                .category(item.getCategory())
-                .stockCount(item.getStockCount())
-                .available(item.getAvailable())
-                .imageUrl(item.getImageUrl())
-                .createdAt(item.getCreatedAt())
-                .updatedAt(item.getUpdatedAt())
-                .build();
+        return MenuItemResponse.from(item);
     }
 
     private String generateItemId() {
@@ -49,36 +64,106 @@ public class CatalogServiceImpl implements CatalogService {
         return id;
     }
 
-    // ── read operations ───────────────────────────────────────────────────────
+    // ── read operations (served from the in-memory snapshot) ─────────────────
 
     @Override
     public List<MenuItemResponse> getAllItems() {
         logger.info("Fetching all catalog items");
-        return menuItemRepository.findAll().stream().map(this::toResponse).collect(Collectors.toList());
+        return catalogCache.snapshot().items();
     }
 
     @Override
     public MenuItemResponse getItemById(String id) {
         logger.info("Fetching item by DB id: {}", id);
-        MenuItem item = menuItemRepository.findById(id)
+        return catalogCache.findById(id)
                 .orElseThrow(() -> new ItemNotFoundException("Item not found with id: " + id));
-        return toResponse(item);
     }
 
     @Override
     public MenuItemResponse getItemByItemId(String itemId) {
         logger.info("Fetching item by itemId: {}", itemId);
-        MenuItem item = menuItemRepository.findByItemId(itemId)
+        return catalogCache.findByItemId(itemId)
                 .orElseThrow(() -> new ItemNotFoundException("Item not found with itemId: " + itemId));
-        return toResponse(item);
     }
 
     @Override
     public List<MenuItemResponse> getItemsByCategory(String category) {
         logger.info("Fetching items for category: {}", category);
-        return menuItemRepository.findByCategory(category).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogCache.findByCategory(category);
+    }
+
+    @Override
+    public ItemLookupResponse lookupItems(ItemLookupRequest request) {
+        if (request == null || request.getIds() == null || request.getIds().isEmpty()) {
+            throw new IllegalArgumentException("ids must not be empty");
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (String id : request.getIds()) {
+            if (id != null && !id.isBlank()) {
+                keys.add(id.trim());
+            }
+        }
+        if (keys.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_LOOKUP_IDS + " ids per lookup");
+        }
+
+        Map<String, MenuItemResponse> items = catalogCache.lookup(keys);
+        List<String> missing = keys.stream().filter(key -> !items.containsKey(key)).toList();
+        logger.info("Looked up {} items ({} missing)", keys.size(), missing.size());
+        return ItemLookupResponse.builder()
+                .items(items)
+                .missing(missing)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemPageResponse getItemsPage(String sort, String direction, int limit, String cursor, String fields) {
+        MenuItemField sortField = MenuItemField.fromAttribute(sort);
+        if (!sortField.sortable()) {
+            throw new IllegalArgumentException("Cannot sort by " + sort);
+        }
+        boolean descending;
+        if ("asc".equalsIgnoreCase(direction)) {
+            descending = false;
+        } else if ("desc".equalsIgnoreCase(direction)) {
+            descending = true;
+        } else {
+            throw new IllegalArgumentException("direction must be asc or desc");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        EnumSet<MenuItemField> selected = EnumSet.noneOf(MenuItemField.class);
+        if (fields == null || fields.isBlank()) {
+            selected.addAll(EnumSet.allOf(MenuItemField.class));
+        } else {
+            for (String field : fields.split(",")) {
+                if (!field.isBlank()) {
+                    selected.add(MenuItemField.fromAttribute(field.trim()));
+                }
+            }
+        }
+
+        CatalogCursor after = cursor != null && !cursor.isBlank()
+                ? CatalogCursor.decode(cursor, sortField, descending)
+                : null;
+
+        // Fetch one extra row to learn whether another page follows
+        List<MenuItemView> rows = menuItemRepository.findPage(selected, sortField, descending,
+                after != null ? after.value() : null, after != null ? after.id() : null, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<MenuItemView> items = hasMore ? rows.subList(0, limit) : rows;
+
+        return ItemPageResponse.builder()
+                .items(items)
+                .fields(List.copyOf(selected))
+                .sort(sortField.attribute())
+                .direction(descending ? "desc" : "asc")
+                .limit(limit)
+                .nextCursor(hasMore ? CatalogCursor.after(sortField, descending, items.get(limit - 1)).encode() : null)
+                .build();
     }
 
     // ── write operations ──────────────────────────────────────────────────────
@@ -106,6 +191,7 @@ public class CatalogServiceImpl implements CatalogService {
                 .build();
 
         MenuItem saved = menuItemRepository.save(item);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getId()));
         logger.info("Created item: {} ({})", saved.getName(), saved.getItemId());
         return toResponse(saved);
     }
@@ -126,7 +212,9 @@ public class CatalogServiceImpl implements CatalogService {
             item.setAvailable(request.getStockCount() > 0);
         }
 
-        return toResponse(menuItemRepository.save(item));
+        MenuItem saved = menuItemRepository.save(item);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getId()));
+        return toResponse(saved);
     }
 
     @Override
@@ -136,6 +224,7 @@ public class CatalogServiceImpl implements CatalogService {
             throw new ItemNotFoundException("Item not found with id: " + id);
         }
         menuItemRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(id));
         logger.info("Deleted item: {}", id);
     }
 
@@ -144,7 +233,8 @@ public class CatalogServiceImpl implements CatalogService {
     @Override
     @Transactional
     public MenuItemResponse updateStock(String id, StockUpdateRequest request) {
-        MenuItem item = menuItemRepository.findById(id)
+        // Row lock so a delta cannot overwrite a concurrent checkout decrement
+        MenuItem item = menuItemRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ItemNotFoundException("Item not found with id: " + id));
 
         if (request.getStockCount() != null) {
@@ -154,59 +244,212 @@ public class CatalogServiceImpl implements CatalogService {
             item.setStockCount(Math.max(0, newStock));
         }
         item.setAvailable(item.getStockCount() > 0);
-        return toResponse(menuItemRepository.save(item));
+        MenuItem saved = menuItemRepository.save(item);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getId()));
+        return toResponse(saved);
     }
 
     @Override
     @Transactional
     public MenuItemResponse decrementStock(String itemId, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("quantity must be at least 1");
+        }
+        if (menuItemRepository.decrementStockIfAvailable(itemId, quantity, LocalDateTime.now()) == 0) {
+            if (!menuItemRepository.existsByItemId(itemId)) {
+                throw new ItemNotFoundException("Item not found with itemId: " + itemId);
+            }
+            throw new InsufficientStockException("Insufficient stock for item " + itemId + " (requested " + quantity + ")");
+        }
+
+        // Still holding the row lock from the UPDATE, so this reads exactly our result
         MenuItem item = menuItemRepository.findByItemId(itemId)
                 .orElseThrow(() -> new ItemNotFoundException("Item not found with itemId: " + itemId));
+        eventPublisher.publishEvent(new CatalogChangedEvent(item.getId()));
+        logger.info("Decremented stock for {} by {} → new stock: {}", itemId, quantity, item.getStockCount());
+        return toResponse(item);
+    }
+
+    /**
+     * Decrement several items in one transaction, all or nothing. Rows are locked in itemId order
+     * so two overlapping batches always lock in the same order and cannot deadlock. Every line is
+     * evaluated even after a failure so the caller learns about all problems at once.
+     */
+    @Override
+    @Transactional
+    public StockBatchResponse decrementStockBatch(StockBatchRequest request) {
+        return decrementStockBatch(request, null);
+    }
+
+    /**
+     * As {@link #decrementStockBatch(StockBatchRequest)}; with an idempotency key the batch is applied
+     * at most once. The receipt is inserted before any stock is touched, so a concurrent request with
+     * the same key waits on its primary key and then fails instead of decrementing twice.
+     */
+    @Override
+    @Transactional
+    public StockBatchResponse decrementStockBatch(StockBatchRequest request, String idempotencyKey) {
+        if (request == null || request.getLines() == null || request.getLines().isEmpty()) {
+            throw new IllegalArgumentException("lines must not be empty");
+        }
+        if (request.getLines().size() > MAX_BATCH_LINES) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_LINES + " lines per batch");
+        }
 
-        int newStock = item.getStockCount() - quantity;
-        if (newStock < 0) {
-            logger.warn("Stock would go negative for item {}; clamping to 0", itemId);
-            newStock = 0;
+        // Merge duplicate items; results keep the order in which items first appear
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (StockBatchRequest.Line line : request.getLines()) {
+            if (line == null || line.getItemId() == null || line.getItemId().isBlank()) {
+                throw new IllegalArgumentException("itemId is required on every line");
+            }
+            if (line.getQuantity() == null || line.getQuantity() < 1) {
+                throw new IllegalArgumentException("quantity must be at least 1 for " + line.getItemId());
+            }
+            quantities.merge(line.getItemId(), line.getQuantity(), Integer::sum);
         }
-        item.setStockCount(newStock);
-        item.setAvailable(newStock > 0);
-        MenuItem saved = menuItemRepository.save(item);
-        logger.info("Decremented stock for {} by {} → new stock: {}", itemId, quantity, newStock);
-        return toResponse(saved);
+
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
+            if (receiptRepository.existsById(idempotencyKey)) {
+                logger.info("Batch stock decrement {} already applied; replaying", idempotencyKey);
+                return replayedBatch(quantities);
+            }
+            try {
+                receiptRepository.saveAndFlush(StockBatchReceipt.builder()
+                        .idempotencyKey(idempotencyKey)
+                        .lineCount(quantities.size())
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                throw new DuplicateRequestException("Batch " + idempotencyKey + " is already being applied");
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, StockBatchResponse.LineResult> results = new HashMap<>();
+        Map<String, String> changedIds = new HashMap<>();
+        boolean failed = false;
+        for (Map.Entry<String, Integer> line : new TreeMap<>(quantities).entrySet()) {
+            String itemId = line.getKey();
+            int quantity = line.getValue();
+            StockBatchResponse.LineStatus status;
+            if (menuItemRepository.decrementStockIfAvailable(itemId, quantity, now) == 1) {
+                status = StockBatchResponse.LineStatus.DECREMENTED;
+            } else {
+                failed = true;
+                status = menuItemRepository.existsByItemId(itemId)
+                        ? StockBatchResponse.LineStatus.INSUFFICIENT_STOCK
+                        : StockBatchResponse.LineStatus.NOT_FOUND;
+            }
+            MenuItem item = menuItemRepository.findByItemId(itemId).orElse(null);
+            if (item != null && status == StockBatchResponse.LineStatus.DECREMENTED) {
+                changedIds.put(itemId, item.getId());
+            }
+            results.put(itemId, StockBatchResponse.LineResult.builder()
+                    .itemId(itemId)
+                    .quantity(quantity)
+                    .status(status)
+                    .remainingStock(item != null ? item.getStockCount() : null)
+                    .build());
+        }
+
+        if (failed) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            for (StockBatchResponse.LineResult result : results.values()) {
+                if (result.getStatus() == StockBatchResponse.LineStatus.DECREMENTED) {
+                    result.setStatus(StockBatchResponse.LineStatus.ROLLED_BACK);
+                    result.setRemainingStock(result.getRemainingStock() + result.getQuantity());
+                }
+            }
+            logger.warn("Batch stock decrement rejected: {}", results.values());
+        } else {
+            changedIds.values().forEach(id -> eventPublisher.publishEvent(new CatalogChangedEvent(id)));
+            logger.info("Batch decremented stock for {} items", results.size());
+        }
+
+        return StockBatchResponse.builder()
+                .applied(!failed)
+                .results(quantities.keySet().stream().map(results::get).toList())
+                .build();
+    }
+
+    /** Result for a batch whose key was applied earlier; reports current stock */
+    private StockBatchResponse replayedBatch(Map<String, Integer> quantities) {
+        List<StockBatchResponse.LineResult> results = new ArrayList<>(quantities.size());
+        quantities.forEach((itemId, quantity) -> results.add(StockBatchResponse.LineResult.builder()
+                .itemId(itemId)
+                .quantity(quantity)
+                .status(StockBatchResponse.LineStatus.DECREMENTED)
+                .remainingStock(menuItemRepository.findByItemId(itemId).map(MenuItem::getStockCount).orElse(null))
+                .build()));
+        return StockBatchResponse.builder()
+                .applied(true)
+                .replayed(true)
+                .results(results)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public MenuItemResponse restoreStock(String itemId, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("quantity must be at least 1");
+        }
+        if (menuItemRepository.incrementStock(itemId, quantity, LocalDateTime.now()) == 0) {
+            throw new ItemNotFoundException("Item not found with itemId: " + itemId);
+        }
+        MenuItem item = menuItemRepository.findByItemId(itemId)
+                .orElseThrow(() -> new ItemNotFoundException("Item not found with itemId: " + itemId));
+        eventPublisher.publishEvent(new CatalogChangedEvent(item.getId()));
+        logger.info("Restored {} units of {} → new stock: {}", quantity, itemId, item.getStockCount());
+        return toResponse(item);
     }
 
     // ── category / dashboard ──────────────────────────────────────────────────
 
     @Override
     public List<String> getCategories() {
-        return menuItemRepository.findDistinctCategories();
+        return catalogCache.snapshot().categories();
     }
 
+    /**
+     * @param fresh compute from the database with one grouped query instead of the
+     *              in-memory aggregate (e.g. to rule out a stale replica)
+     */
     @Override
-    public DashboardResponse getDashboardStats() {
-        long total      = menuItemRepository.count();
-        long available  = menuItemRepository.countAvailable();
-        long outOfStock = menuItemRepository.countOutOfStock();
-        long lowStock   = menuItemRepository.countLowStock();
-
-        List<String> categories = menuItemRepository.findDistinctCategories();
+    public DashboardResponse getDashboardStats(boolean fresh) {
+        Map<String, CategoryTotals> totals;
+        if (fresh) {
+            totals = new LinkedHashMap<>();
+            for (CategoryAggregateView row : menuItemRepository.aggregateByCategory()) {
+                totals.put(row.getCategory(), CategoryTotals.of(row));
+            }
+        } else {
+            totals = catalogCache.snapshot().categoryTotals();
+        }
 
-        List<DashboardResponse.CategoryStat> catStats = categories.stream().map(cat -> {
-            List<MenuItem> items = menuItemRepository.findByCategory(cat);
-            long totalStock = items.stream().mapToLong(MenuItem::getStockCount).sum();
-            return DashboardResponse.CategoryStat.builder()
-                    .category(cat)
-                    .count(items.size())
-                    .totalStock(totalStock)
-                    .build();
-        }).collect(Collectors.toList());
+        CategoryTotals overall = CategoryTotals.EMPTY;
+        List<DashboardResponse.CategoryStat> catStats = new ArrayList<>(totals.size());
+        for (Map.Entry<String, CategoryTotals> entry : totals.entrySet()) {
+            CategoryTotals category = entry.getValue();
+            overall = overall.plus(category);
+            catStats.add(DashboardResponse.CategoryStat.builder()
+                    .category(entry.getKey())
+                    .count(category.itemCount())
+                    .totalStock(category.totalStock())
+                    .availableCount(category.availableCount())
+                    .outOfStockCount(category.outOfStockCount())
+                    .lowStockCount(category.lowStockCount())
+                    .build());
+        }
 
         return DashboardResponse.builder()
-                .totalItems(total)
-                .availableItems(available)
-                .outOfStockItems(outOfStock)
-                .lowStockItems(lowStock)
-                .categories(categories)
+                .totalItems(overall.itemCount())
+                .availableItems(overall.availableCount())
+                .outOfStockItems(overall.outOfStockCount())
+                .lowStockItems(overall.lowStockCount())
+                .categories(new ArrayList<>(totals.keySet()))
                 .categoryStats(catStats)
                 .build();
     }
@@ -0,0 +1,61 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.dto.MenuItemResponse;
+import com.example.catalogservice.repository.CategoryAggregateView;
+
+/**
+ * Dashboard counters for one category. Immutable so snapshots can share instances;
+ * {@link #plus}/{@link #minus} let a single item change be applied without rescanning the category.
+ */
+public record CategoryTotals(long itemCount, long totalStock, long availableCount,
+                             long outOfStockCount, long lowStockCount) {
+
+    /** Items with at most this many units (but more than zero) count as low stock */
+    public static final int LOW_STOCK_THRESHOLD = 5;
+
+    public static final CategoryTotals EMPTY = new CategoryTotals(0, 0, 0, 0, 0);
+
+    /**
+     * Contribution of a single item
+     */
+    public static CategoryTotals of(MenuItemResponse item) {
+        int stock = item.getStockCount() != null ? item.getStockCount() : 0;
+        return new CategoryTotals(
+                1,
+                stock,
+                Boolean.TRUE.equals(item.getAvailable()) ? 1 : 0,
+                stock == 0 ? 1 : 0,
+                stock > 0 && stock <= LOW_STOCK_THRESHOLD ? 1 : 0);
+    }
+
+    public static CategoryTotals of(CategoryAggregateView row) {
+        return new CategoryTotals(
+                valueOf(row.getItemCount()),
+                valueOf(row.getTotalStock()),
+                valueOf(row.getAvailableCount()),
+                valueOf(row.getOutOfStockCount()),
+                valueOf(row.getLowStockCount()));
+    }
+
+    public CategoryTotals plus(CategoryTotals other) {
+        return new CategoryTotals(
+                itemCount + other.itemCount,
+                totalStock + other.totalStock,
+                availableCount + other.availableCount,
+                outOfStockCount + other.outOfStockCount,
+                lowStockCount + other.lowStockCount);
+    }
+
+    public CategoryTotals minus(CategoryTotals other) {
+        return new CategoryTotals(
+                itemCount - other.itemCount,
+                totalStock - other.totalStock,
+                availableCount - other.availableCount,
+                outOfStockCount - other.outOfStockCount,
+                lowStockCount - other.lowStockCount);
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.catalogservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tells the API gateway to drop its cached catalog responses after a catalog change commits.
+ * <p>
+ * Changes are debounced so a burst of writes (e.g. stock decrements during checkout) results in
+ * one call per gateway. Failures are only logged; the gateway cache TTL bounds staleness.
+ */
+@Component
+public class GatewayCacheInvalidator {
+    private static final Logger logger = LoggerFactory.getLogger(GatewayCacheInvalidator.class);
+
+    static final String TOKEN_HEADER = "X-Cache-Invalidation-Token";
+    static final String INVALIDATE_PATH = "/gateway/cache/invalidate?prefix=/catalog/";
+
+    /** Base URLs of every gateway replica, e.g. http://api-gateway:8080; empty disables invalidation */
+    @Value("${app.gateway-cache.invalidation-urls:}")
+    private List<String> invalidationUrls = List.of();
+
+    @Value("${app.gateway-cache.invalidation-token:}")
+    private String invalidationToken = "";
+
+    /** Changes within this interval are sent as one invalidation */
+    @Value("${app.gateway-cache.debounce:PT0.2S}")
+    private Duration debounce = Duration.ofMillis(200);
+
+    @Value("${app.gateway-cache.timeout:PT2S}")
+    private Duration timeout = Duration.ofSeconds(2);
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    private RestClient restClient;
+
+    private ScheduledExecutorService scheduler;
+
+    private List<String> targets = List.of();
+
+    @PostConstruct
+    public void init() {
+        targets = invalidationUrls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        if (targets.isEmpty()) {
+            return;
+        }
+        if (invalidationToken == null || invalidationToken.isBlank()) {
+            logger.warn("Gateway cache invalidation URLs configured without a token; invalidation disabled");
+            targets = List.of();
+            return;
+        }
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        restClient = RestClient.builder().requestFactory(requestFactory).build();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-cache-invalidator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Gateway cache invalidation enabled for {}", targets);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        if (pending.compareAndSet(false, true)) {
+            scheduler.schedule(this::send, debounce.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void send() {
+        // Clear first so changes committed while we are sending schedule another round
+        pending.set(false);
+        for (String target : targets) {
+            try {
+                restClient.post()
+                        .uri(target + INVALIDATE_PATH)
+                        .header(TOKEN_HEADER, invalidationToken)
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (Exception ex) {
+                logger.warn("Failed to invalidate gateway cache at {}: {}", target, ex.getMessage());
+            }
+        }
+    }
+}
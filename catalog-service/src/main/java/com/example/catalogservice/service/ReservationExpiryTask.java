@@ -0,0 +1,115 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.repository.StockBatchReceiptRepository;
+import com.example.catalogservice.repository.StockReservationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Returns the stock of reservations whose TTL ran out without a commit, and drops batch
+ * stock receipts once callers can no longer retry them
+ */
+@Component
+public class ReservationExpiryTask {
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryTask.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    @Value("${app.catalog.reservations.sweep-interval:PT30S}")
+    private Duration sweepInterval = Duration.ofSeconds(30);
+
+    /** How long an Idempotency-Key on a batch stock decrement is remembered */
+    @Value("${app.catalog.stock-batch.receipt-retention:P7D}")
+    private Duration receiptRetention = Duration.ofDays(7);
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private StockBatchReceiptRepository receiptRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void init() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Expire every overdue reservation. A reservation that fails to expire is logged and left for
+     * the next sweep; it does not stop the ones behind it.
+     * @return number of reservations expired
+     */
+    public int sweep() {
+        int expired = 0;
+        List<String> ids;
+        do {
+            ids = reservationRepository.findExpiredIds(LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+            int progressed = 0;
+            for (String id : ids) {
+                try {
+                    // One transaction per reservation; a concurrent commit or release simply wins
+                    if (reservationService.expire(id)) {
+                        expired++;
+                    }
+                    progressed++;
+                } catch (RuntimeException ex) {
+                    logger.warn("Could not expire reservation {}: {}", id, ex.getMessage());
+                }
+            }
+            // A full page of failures would come back unchanged; leave it to the next sweep
+            if (progressed == 0) {
+                break;
+            }
+        } while (ids.size() == BATCH_SIZE);
+        return expired;
+    }
+
+    private void sweepQuietly() {
+        try {
+            int expired = sweep();
+            if (expired > 0) {
+                logger.info("Expired {} stock reservations", expired);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Reservation expiry sweep failed: {}", ex.getMessage());
+        }
+        try {
+            int purged = receiptRepository.deleteCreatedBefore(LocalDateTime.now().minus(receiptRetention));
+            if (purged > 0) {
+                logger.info("Purged {} batch stock receipts", purged);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Batch stock receipt purge failed: {}", ex.getMessage());
+        }
+    }
+}
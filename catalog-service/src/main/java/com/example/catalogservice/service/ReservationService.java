@@ -0,0 +1,13 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.dto.ReservationRequest;
+import com.example.catalogservice.dto.ReservationResponse;
+
+public interface ReservationService {
+    ReservationResponse reserve(String itemId, ReservationRequest request);
+    ReservationResponse getReservation(String id);
+    ReservationResponse commit(String id);
+    ReservationResponse release(String id);
+    /** @return true if the reservation expired now and its stock was returned */
+    boolean expire(String id);
+}
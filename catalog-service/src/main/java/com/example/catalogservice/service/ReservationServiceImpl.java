@@ -0,0 +1,152 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.dto.MenuItemResponse;
+import com.example.catalogservice.dto.ReservationRequest;
+import com.example.catalogservice.dto.ReservationResponse;
+import com.example.catalogservice.entity.ReservationStatus;
+import com.example.catalogservice.entity.StockReservation;
+import com.example.catalogservice.exception.ReservationNotFoundException;
+import com.example.catalogservice.exception.ReservationStateException;
+import com.example.catalogservice.repository.MenuItemRepository;
+import com.example.catalogservice.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Reservations hold stock for an order until it is paid for.
+ * <p>
+ * reserve takes the units from the item with the same conditional decrement as checkout, so
+ * reserved stock can never be sold twice. commit makes the sale final; release and expiry give
+ * the units back. Every transition is a conditional update on the reservation status, so each
+ * reservation returns its stock at most once. A reservation whose item has since been deleted
+ * still releases and expires; there is simply no stock left to return.
+ */
+@Service
+public class ReservationServiceImpl implements ReservationService {
+    private static final Logger logger = LoggerFactory.getLogger(ReservationServiceImpl.class);
+
+    @Value("${app.catalog.reservations.default-ttl:PT15M}")
+    private Duration defaultTtl = Duration.ofMinutes(15);
+
+    @Value("${app.catalog.reservations.max-ttl:PT2H}")
+    private Duration maxTtl = Duration.ofHours(2);
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Override
+    @Transactional
+    public ReservationResponse reserve(String itemId, ReservationRequest request) {
+        int quantity = request.getQuantity() != null ? request.getQuantity() : 1;
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : defaultTtl;
+        if (ttl.isZero() || ttl.isNegative() || ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("ttlSeconds must be between 1 and " + maxTtl.toSeconds());
+        }
+
+        // Throws (and rolls back) if there is not enough stock
+        MenuItemResponse item = catalogService.decrementStock(itemId, quantity);
+
+        StockReservation saved = reservationRepository.save(StockReservation.builder()
+                .itemId(itemId)
+                .quantity(quantity)
+                .status(ReservationStatus.RESERVED)
+                .reference(request.getReference())
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build());
+        logger.info("Reserved {} x {} as {} until {}", quantity, itemId, saved.getId(), saved.getExpiresAt());
+
+        ReservationResponse response = ReservationResponse.from(saved);
+        response.setRemainingStock(item.getStockCount());
+        return response;
+    }
+
+    @Override
+    public ReservationResponse getReservation(String id) {
+        return ReservationResponse.from(find(id));
+    }
+
+    @Override
+    @Transactional
+    public ReservationResponse commit(String id) {
+        if (reservationRepository.commit(id, LocalDateTime.now()) == 0) {
+            StockReservation reservation = find(id);
+            if (reservation.getStatus() == ReservationStatus.COMMITTED) {
+                // Retried commit: already done
+                return ReservationResponse.from(reservation);
+            }
+            throw new ReservationStateException("Reservation " + id + " cannot be committed: "
+                    + (reservation.getStatus() == ReservationStatus.RESERVED ? "expired" : reservation.getStatus()));
+        }
+        logger.info("Committed reservation {}", id);
+        return ReservationResponse.from(find(id));
+    }
+
+    @Override
+    @Transactional
+    public ReservationResponse release(String id) {
+        StockReservation reservation = find(id);
+        if (reservationRepository.transition(id, ReservationStatus.RELEASED, LocalDateTime.now()) == 0) {
+            StockReservation current = find(id);
+            if (current.getStatus() == ReservationStatus.RELEASED || current.getStatus() == ReservationStatus.EXPIRED) {
+                // Stock has already been returned
+                return ReservationResponse.from(current);
+            }
+            throw new ReservationStateException("Reservation " + id + " cannot be released: " + current.getStatus());
+        }
+        MenuItemResponse item = returnStock(reservation);
+        logger.info("Released reservation {} ({} x {})", id, reservation.getQuantity(), reservation.getItemId());
+
+        ReservationResponse response = ReservationResponse.from(find(id));
+        response.setRemainingStock(item != null ? item.getStockCount() : null);
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public boolean expire(String id) {
+        StockReservation reservation = reservationRepository.findById(id).orElse(null);
+        if (reservation == null || reservation.getExpiresAt().isAfter(LocalDateTime.now())) {
+            return false;
+        }
+        if (reservationRepository.transition(id, ReservationStatus.EXPIRED, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        if (returnStock(reservation) != null) {
+            logger.info("Reservation {} expired; returned {} x {}", id, reservation.getQuantity(), reservation.getItemId());
+        }
+        return true;
+    }
+
+    /**
+     * Give the reserved units back to the item
+     * @return the item after the restore, or null if the item no longer exists
+     */
+    private MenuItemResponse returnStock(StockReservation reservation) {
+        // Checked up front: an ItemNotFoundException from restoreStock would mark this transaction
+        // rollback-only and undo the status transition along with it
+        if (!menuItemRepository.existsByItemId(reservation.getItemId())) {
+            logger.warn("Item {} of reservation {} no longer exists; {} units not returned",
+                    reservation.getItemId(), reservation.getId(), reservation.getQuantity());
+            return null;
+        }
+        return catalogService.restoreStock(reservation.getItemId(), reservation.getQuantity());
+    }
+
+    private StockReservation find(String id) {
+        return reservationRepository.findById(id)
+                .orElseThrow(() -> new ReservationNotFoundException("Reservation not found: " + id));
+    }
+}
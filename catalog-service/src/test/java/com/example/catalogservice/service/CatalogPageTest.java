@@ -0,0 +1,195 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.controller.CatalogController;
+import com.example.catalogservice.dto.ItemPageResponse;
+import com.example.catalogservice.dto.MenuItemRequest;
+import com.example.catalogservice.entity.MenuItem;
+import com.example.catalogservice.repository.MenuItemField;
+import com.example.catalogservice.repository.MenuItemRepository;
+import com.example.catalogservice.repository.MenuItemView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pagination of {@code GET /items/page}: cursors, orderings and field projection,
+ * against an in-memory H2 database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog-page;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.catalog.reservations.sweep-interval=PT1H"
+})
+class CatalogPageTest {
+
+    private static final String[] CATEGORIES = {"Bowls", "Drinks", "Salads"};
+
+    /** Expected ordering per sort field; ties are broken by id like the keyset query */
+    private static final Map<String, Function<MenuItem, Comparable>> SORT_KEYS = Map.of(
+            "name", MenuItem::getName,
+            "price", MenuItem::getPrice,
+            "category", MenuItem::getCategory,
+            "updatedAt", MenuItem::getUpdatedAt);
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private CatalogController catalogController;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        if (menuItemRepository.existsByItemId("PAGE-000")) {
+            return;
+        }
+        // Repeated names, prices and categories so every sort has ties for the id to break
+        for (int i = 0; i < 23; i++) {
+            catalogService.createItem(MenuItemRequest.builder()
+                    .itemId(String.format("PAGE-%03d", i))
+                    .name("Dish " + (char) ('A' + i % 7))
+                    .description("Description " + i)
+                    .price(BigDecimal.valueOf(500 + (i % 5) * 125, 2))
+                    .category(CATEGORIES[i % CATEGORIES.length])
+                    .stockCount(i)
+                    .build());
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<String> expectedIds(String sort, boolean descending) {
+        Function<MenuItem, Comparable> key = SORT_KEYS.get(sort);
+        Comparator<MenuItem> order = Comparator.comparing(item -> key.apply(item));
+        order = order.thenComparing(MenuItem::getId);
+        if (descending) {
+            order = order.reversed();
+        }
+        return menuItemRepository.findAll().stream().sorted(order).map(MenuItem::getId).toList();
+    }
+
+    /** Follows nextCursor until the last page and returns every id in page order */
+    private List<String> pageThrough(String sort, String direction, int limit) {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ItemPageResponse page = catalogService.getItemsPage(sort, direction, limit, cursor, "name");
+            assertThat(page.getItems().size()).isLessThanOrEqualTo(limit);
+            page.getItems().forEach(item -> ids.add(item.getId()));
+            cursor = page.getNextCursor();
+            assertThat(++pages).isLessThan(100);
+        } while (cursor != null);
+        return ids;
+    }
+
+    @Test
+    void cursorRoundTrip_everySortFieldAndDirection() {
+        for (String sort : SORT_KEYS.keySet()) {
+            for (String direction : new String[]{"asc", "desc"}) {
+                assertThat(pageThrough(sort, direction, 4))
+                        .as("%s %s", sort, direction)
+                        .containsExactlyElementsOf(expectedIds(sort, "desc".equals(direction)));
+            }
+        }
+    }
+
+    @Test
+    void lastPage_hasNoCursor() {
+        int total = (int) menuItemRepository.count();
+
+        ItemPageResponse all = catalogService.getItemsPage("name", "asc", total, null, null);
+        assertThat(all.getItems()).hasSize(total);
+        assertThat(all.getNextCursor()).isNull();
+
+        ItemPageResponse first = catalogService.getItemsPage("name", "asc", total - 1, null, null);
+        assertThat(first.getNextCursor()).isNotNull();
+        ItemPageResponse rest = catalogService.getItemsPage("name", "asc", total - 1, first.getNextCursor(), null);
+        assertThat(rest.getItems()).hasSize(1);
+        assertThat(rest.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorReplayedAgainstAnotherOrdering_isRejected() {
+        String cursor = catalogService.getItemsPage("price", "asc", 3, null, null).getNextCursor();
+
+        assertThatThrownBy(() -> catalogService.getItemsPage("name", "asc", 3, cursor, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogService.getItemsPage("price", "desc", 3, cursor, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogService.getItemsPage("price", "asc", 3, "not a cursor", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catalogService.getItemsPage("price", "asc", 3, cursor, null).getItems()).hasSize(3);
+    }
+
+    @Test
+    void invalidSortFieldOrLimit_isRejected() {
+        assertThatThrownBy(() -> catalogService.getItemsPage("stockCount", "asc", 10, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogService.getItemsPage("name", "up", 10, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogService.getItemsPage("name", "asc", 0, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogService.getItemsPage("name", "asc", 10, null, "name,secret"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fields_selectOnlyRequestedColumns() {
+        ItemPageResponse page = catalogService.getItemsPage("category", "asc", 5, null, "name, price");
+
+        assertThat(page.getFields()).containsExactly(MenuItemField.NAME, MenuItemField.PRICE);
+        for (MenuItemView item : page.getItems()) {
+            assertThat(item.getName()).isNotNull();
+            assertThat(item.getPrice()).isNotNull();
+            // id and the sort key are always selected to build the cursor
+            assertThat(item.getId()).isNotNull();
+            assertThat(item.getCategory()).isNotNull();
+            assertThat(item.getDescription()).isNull();
+            assertThat(item.getStockCount()).isNull();
+            assertThat(item.getUpdatedAt()).isNull();
+        }
+    }
+
+    @Test
+    void response_writesOnlyRequestedFields() throws Exception {
+        StreamingResponseBody body = catalogController.getItemsPage("price", "desc", 2, null, "itemId,price").getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+
+        assertThat(json.get("items")).hasSize(2);
+        for (JsonNode item : json.get("items")) {
+            List<String> names = new ArrayList<>();
+            item.propertyNames().forEach(names::add);
+            assertThat(names).containsExactly("itemId", "price");
+        }
+        assertThat(json.get("sort").asString()).isEqualTo("price");
+        assertThat(json.get("direction").asString()).isEqualTo("desc");
+        assertThat(json.get("limit").asInt()).isEqualTo(2);
+        assertThat(json.get("nextCursor").asString()).isNotBlank();
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.dto.MenuItemRequest;
+import com.example.catalogservice.dto.MenuItemResponse;
+import com.example.catalogservice.dto.StockUpdateRequest;
+import com.example.catalogservice.entity.MenuItem;
+import com.example.catalogservice.repository.MenuItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Incremental maintenance of the in-memory catalog snapshot: changes applied after commit,
+ * database fall-through for unseen ids and full reloads, against an in-memory H2 database.
+ * The periodic reload is disabled for the shared cache so versions only move when a test moves them.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog-snapshot;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.catalog.reservations.sweep-interval=PT1H",
+        "app.catalog.cache.refresh-interval=PT0S"
+})
+class CatalogSnapshotCacheTest {
+
+    @Autowired
+    private CatalogSnapshotCache cache;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MenuItemResponse create(String itemId, String category, int stock) {
+        return catalogService.createItem(MenuItemRequest.builder()
+                .itemId(itemId)
+                .name("Dish " + itemId)
+                .price(new BigDecimal("9.50"))
+                .category(category)
+                .stockCount(stock)
+                .build());
+    }
+
+    private static List<String> itemIds(List<MenuItemResponse> items) {
+        return items.stream().map(MenuItemResponse::getItemId).toList();
+    }
+
+    @Test
+    void createdItem_isInTheSnapshotAfterCommit() {
+        long version = cache.snapshot().version();
+
+        MenuItemResponse created = create("SNAP-CREATE", "Snap Create", 4);
+
+        CatalogSnapshotCache.Snapshot snapshot = cache.snapshot();
+        assertThat(snapshot.version()).isEqualTo(version + 1);
+        assertThat(itemIds(snapshot.items())).contains("SNAP-CREATE");
+        assertThat(snapshot.categories()).contains("Snap Create");
+        assertThat(itemIds(cache.findByCategory("Snap Create"))).containsExactly("SNAP-CREATE");
+        assertThat(cache.findById(created.getId())).get().extracting(MenuItemResponse::getItemId).isEqualTo("SNAP-CREATE");
+        assertThat(snapshot.categoryTotals().get("Snap Create"))
+                .isEqualTo(new CategoryTotals(1, 4, 1, 0, 1));
+    }
+
+    @Test
+    void rolledBackChange_neverReachesTheSnapshot() {
+        long version = cache.snapshot().version();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            create("SNAP-ROLLBACK", "Snap Rollback", 3);
+            status.setRollbackOnly();
+        });
+
+        assertThat(cache.snapshot().version()).isEqualTo(version);
+        assertThat(itemIds(cache.snapshot().items())).doesNotContain("SNAP-ROLLBACK");
+        assertThat(cache.findByItemId("SNAP-ROLLBACK")).isEmpty();
+    }
+
+    @Test
+    void updatedItem_replacesTheCachedCopyInPlace() {
+        create("SNAP-UPDATE-1", "Snap Update", 2);
+        MenuItemResponse second = create("SNAP-UPDATE-2", "Snap Update", 2);
+        create("SNAP-UPDATE-3", "Snap Update", 2);
+
+        catalogService.updateItem(second.getId(), MenuItemRequest.builder()
+                .name("Renamed")
+                .price(new BigDecimal("12.00"))
+                .build());
+        catalogService.updateStock(second.getId(), StockUpdateRequest.builder().stockCount(0).build());
+
+        MenuItemResponse cached = cache.findByItemId("SNAP-UPDATE-2").orElseThrow();
+        assertThat(cached.getName()).isEqualTo("Renamed");
+        assertThat(cached.getPrice()).isEqualByComparingTo("12.00");
+        assertThat(cached.getStockCount()).isZero();
+        assertThat(cached.getAvailable()).isFalse();
+        assertThat(cache.findById(second.getId())).containsSame(cached);
+        // Position within the category is kept
+        assertThat(itemIds(cache.findByCategory("Snap Update")))
+                .containsExactly("SNAP-UPDATE-1", "SNAP-UPDATE-2", "SNAP-UPDATE-3");
+        assertThat(cache.snapshot().categoryTotals().get("Snap Update"))
+                .isEqualTo(new CategoryTotals(3, 4, 2, 1, 2));
+    }
+
+    @Test
+    void categoryChange_movesTheItemBetweenCategories() {
+        MenuItemResponse moved = create("SNAP-MOVE", "Snap From", 7);
+        create("SNAP-STAY", "Snap To", 1);
+
+        catalogService.updateItem(moved.getId(), MenuItemRequest.builder().category("Snap To").build());
+
+        assertThat(cache.snapshot().categories()).doesNotContain("Snap From").contains("Snap To");
+        assertThat(cache.findByCategory("Snap From")).isEmpty();
+        assertThat(itemIds(cache.findByCategory("Snap To"))).containsExactly("SNAP-STAY", "SNAP-MOVE");
+        assertThat(cache.snapshot().categoryTotals()).doesNotContainKey("Snap From");
+        assertThat(cache.snapshot().categoryTotals().get("Snap To"))
+                .isEqualTo(new CategoryTotals(2, 8, 2, 0, 1));
+    }
+
+    @Test
+    void deletedItem_isRemovedFromEveryIndex() {
+        MenuItemResponse deleted = create("SNAP-DELETE", "Snap Delete", 5);
+        long version = cache.snapshot().version();
+
+        catalogService.deleteItem(deleted.getId());
+
+        CatalogSnapshotCache.Snapshot snapshot = cache.snapshot();
+        assertThat(snapshot.version()).isEqualTo(version + 1);
+        assertThat(itemIds(snapshot.items())).doesNotContain("SNAP-DELETE");
+        assertThat(snapshot.categories()).doesNotContain("Snap Delete");
+        assertThat(snapshot.categoryTotals()).doesNotContainKey("Snap Delete");
+        assertThat(cache.findById(deleted.getId())).isEmpty();
+        assertThat(cache.findByItemId("SNAP-DELETE")).isEmpty();
+    }
+
+    @Test
+    void incrementalTotals_matchAFreshAggregateAfterMixedWrites() {
+        // Start from a snapshot that matches the table, whatever other tests left behind
+        cache.reload();
+        assertThat(catalogService.getDashboardStats(false)).isEqualTo(catalogService.getDashboardStats(true));
+
+        MenuItemResponse soup = create("SNAP-DASH-1", "Snap Soups", 10);
+        MenuItemResponse stew = create("SNAP-DASH-2", "Snap Soups", 0);
+        MenuItemResponse cake = create("SNAP-DASH-3", "Snap Desserts", 3);
+        MenuItemResponse tart = create("SNAP-DASH-4", "Snap Desserts", 8);
+        create("SNAP-DASH-5", "Snap Drinks", 1);
+
+        catalogService.updateStock(soup.getId(), StockUpdateRequest.builder().delta(-6).build());
+        catalogService.updateStock(stew.getId(), StockUpdateRequest.builder().stockCount(12).build());
+        catalogService.decrementStock("SNAP-DASH-3", 3);
+        catalogService.restoreStock("SNAP-DASH-3", 1);
+        catalogService.updateItem(tart.getId(), MenuItemRequest.builder().category("Snap Soups").stockCount(2).build());
+        catalogService.updateItem(cake.getId(), MenuItemRequest.builder().category("Snap Cakes").build());
+        catalogService.deleteItem(soup.getId());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            catalogService.updateStock(stew.getId(), StockUpdateRequest.builder().stockCount(0).build());
+            status.setRollbackOnly();
+        });
+
+        assertThat(catalogService.getDashboardStats(false)).isEqualTo(catalogService.getDashboardStats(true));
+        assertThat(cache.snapshot().categoryTotals())
+                .doesNotContainKey("Snap Desserts")
+                .containsEntry("Snap Soups", new CategoryTotals(2, 14, 2, 0, 1))
+                .containsEntry("Snap Cakes", new CategoryTotals(1, 1, 1, 0, 1));
+    }
+
+    @Test
+    void idMiss_fallsThroughToTheDatabase() {
+        // Saved without a change event, as another replica would
+        MenuItem row = menuItemRepository.save(MenuItem.builder()
+                .itemId("SNAP-MISS")
+                .name("Unseen")
+                .price(new BigDecimal("3.00"))
+                .category("Snap Miss")
+                .stockCount(2)
+                .available(true)
+                .build());
+        assertThat(itemIds(cache.snapshot().items())).doesNotContain("SNAP-MISS");
+
+        assertThat(cache.lookup(List.of("SNAP-MISS", "SNAP-NOWHERE"))).containsOnlyKeys("SNAP-MISS");
+
+        long version = cache.snapshot().version();
+        assertThat(cache.findById(row.getId())).get().extracting(MenuItemResponse::getName).isEqualTo("Unseen");
+        // The row found in the database is added to the snapshot
+        assertThat(cache.snapshot().version()).isEqualTo(version + 1);
+        assertThat(itemIds(cache.findByCategory("Snap Miss"))).containsExactly("SNAP-MISS");
+
+        // Unknown ids read the database but leave the snapshot alone
+        assertThat(cache.findById("no-such-id")).isEmpty();
+        assertThat(cache.findByItemId("SNAP-NOWHERE")).isEmpty();
+        assertThat(cache.snapshot().version()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void reload_replacesTheSnapshotWithTheDatabase() {
+        MenuItemResponse item = create("SNAP-RELOAD", "Snap Reload", 6);
+        jdbcTemplate.update("UPDATE items SET name = ?, stock_count = ? WHERE id = ?", "Edited by SQL", 1, item.getId());
+        CatalogSnapshotCache.Snapshot before = cache.snapshot();
+        assertThat(cache.findByItemId("SNAP-RELOAD").orElseThrow().getName()).isEqualTo("Dish SNAP-RELOAD");
+
+        CatalogSnapshotCache.Snapshot reloaded = cache.reload();
+
+        assertThat(reloaded.version()).isEqualTo(before.version() + 1);
+        assertThat(cache.snapshot()).isSameAs(reloaded);
+        assertThat(cache.findByItemId("SNAP-RELOAD").orElseThrow().getName()).isEqualTo("Edited by SQL");
+        assertThat(reloaded.categoryTotals().get("Snap Reload")).isEqualTo(new CategoryTotals(1, 1, 1, 0, 1));
+        assertThat(reloaded.items()).hasSize((int) menuItemRepository.count());
+    }
+
+    @Test
+    void periodicReload_picksUpChangesMadeElsewhere() throws InterruptedException {
+        MenuItemResponse item = create("SNAP-PERIODIC", "Snap Periodic", 3);
+        CatalogSnapshotCache periodic = new CatalogSnapshotCache();
+        ReflectionTestUtils.setField(periodic, "menuItemRepository", menuItemRepository);
+        ReflectionTestUtils.setField(periodic, "refreshInterval", Duration.ofMillis(100));
+        periodic.init();
+        try {
+            long version = periodic.snapshot().version();
+            jdbcTemplate.update("UPDATE items SET name = ? WHERE id = ?", "Renamed elsewhere", item.getId());
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (periodic.snapshot().version() == version && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertThat(periodic.snapshot().version()).isGreaterThan(version);
+            assertThat(periodic.findByItemId("SNAP-PERIODIC").orElseThrow().getName()).isEqualTo("Renamed elsewhere");
+        } finally {
+            periodic.shutdown();
+        }
+    }
+}
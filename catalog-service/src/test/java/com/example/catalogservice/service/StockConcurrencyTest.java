@@ -0,0 +1,313 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.dto.MenuItemRequest;
+import com.example.catalogservice.dto.ReservationRequest;
+import com.example.catalogservice.dto.ReservationResponse;
+import com.example.catalogservice.dto.StockBatchRequest;
+import com.example.catalogservice.dto.StockBatchResponse;
+import com.example.catalogservice.entity.MenuItem;
+import com.example.catalogservice.entity.ReservationStatus;
+import com.example.catalogservice.exception.DuplicateRequestException;
+import com.example.catalogservice.exception.InsufficientStockException;
+import com.example.catalogservice.exception.ReservationStateException;
+import com.example.catalogservice.repository.MenuItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Stress tests for the conditional stock decrement and the reservation lifecycle,
+ * run against an in-memory H2 database instead of the shared Postgres instance.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog-stock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.catalog.reservations.sweep-interval=PT1H"
+})
+class StockConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationExpiryTask reservationExpiryTask;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    private void createItem(String itemId, int stock) {
+        catalogService.createItem(MenuItemRequest.builder()
+                .itemId(itemId)
+                .name("Stress " + itemId)
+                .price(BigDecimal.ONE)
+                .category("Stress")
+                .stockCount(stock)
+                .build());
+    }
+
+    private MenuItem stored(String itemId) {
+        return menuItemRepository.findByItemId(itemId).orElseThrow();
+    }
+
+    /** Runs every task at once on a fixed pool and rethrows anything unexpected */
+    private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : futures) {
+                results.add(future.get(2, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void parallelDecrements_sellExactlyTheAvailableStock() throws Exception {
+        createItem("STRESS-001", 1000);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            tasks.add(() -> {
+                try {
+                    catalogService.decrementStock("STRESS-001", 1);
+                    sold.incrementAndGet();
+                } catch (InsufficientStockException ex) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        assertThat(sold).hasValue(1000);
+        assertThat(rejected).hasValue(2000);
+        assertThat(stored("STRESS-001").getStockCount()).isZero();
+        assertThat(stored("STRESS-001").getAvailable()).isFalse();
+        assertThat(catalogService.getItemByItemId("STRESS-001").getStockCount()).isZero();
+    }
+
+    @Test
+    void parallelMixedQuantities_neverOversell() throws Exception {
+        createItem("STRESS-002", 2500);
+        AtomicInteger unitsSold = new AtomicInteger();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int quantity = 1 + i % 3;
+            tasks.add(() -> {
+                try {
+                    catalogService.decrementStock("STRESS-002", quantity);
+                    unitsSold.addAndGet(quantity);
+                } catch (InsufficientStockException ignored) {
+                    // expected once stock runs low
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        int remaining = stored("STRESS-002").getStockCount();
+        assertThat(remaining).isBetween(0, 2);
+        assertThat(unitsSold.get() + remaining).isEqualTo(2500);
+    }
+
+    @Test
+    void parallelReserveAndRelease_returnEveryReleasedUnit() throws Exception {
+        createItem("STRESS-003", 200);
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            boolean keep = i % 4 == 0;
+            tasks.add(() -> {
+                ReservationResponse reservation;
+                try {
+                    reservation = reservationService.reserve("STRESS-003",
+                            ReservationRequest.builder().quantity(1).build());
+                } catch (InsufficientStockException ex) {
+                    return false;
+                }
+                if (keep) {
+                    reservationService.commit(reservation.getId());
+                    return true;
+                }
+                reservationService.release(reservation.getId());
+                return false;
+            });
+        }
+        long committed = runConcurrently(tasks).stream().filter(Boolean::booleanValue).count();
+
+        assertThat(committed).isPositive();
+        assertThat(stored("STRESS-003").getStockCount()).isEqualTo(200 - (int) committed);
+    }
+
+    @Test
+    void reservationLifecycle() throws Exception {
+        createItem("STRESS-004", 10);
+
+        ReservationResponse held = reservationService.reserve("STRESS-004",
+                ReservationRequest.builder().quantity(4).reference("order-1").build());
+        assertThat(held.getStatus()).isEqualTo(ReservationStatus.RESERVED);
+        assertThat(held.getRemainingStock()).isEqualTo(6);
+
+        assertThat(reservationService.commit(held.getId()).getStatus()).isEqualTo(ReservationStatus.COMMITTED);
+        assertThat(reservationService.commit(held.getId()).getStatus()).isEqualTo(ReservationStatus.COMMITTED);
+        assertThatThrownBy(() -> reservationService.release(held.getId()))
+                .isInstanceOf(ReservationStateException.class);
+
+        assertThatThrownBy(() -> reservationService.reserve("STRESS-004",
+                ReservationRequest.builder().quantity(7).build()))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThat(stored("STRESS-004").getStockCount()).isEqualTo(6);
+
+        ReservationResponse shortLived = reservationService.reserve("STRESS-004",
+                ReservationRequest.builder().quantity(6).ttlSeconds(1L).build());
+        assertThat(stored("STRESS-004").getStockCount()).isZero();
+
+        Thread.sleep(1100);
+        assertThat(reservationExpiryTask.sweep()).isEqualTo(1);
+        assertThat(reservationService.getReservation(shortLived.getId()).getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(stored("STRESS-004").getStockCount()).isEqualTo(6);
+        assertThatThrownBy(() -> reservationService.commit(shortLived.getId()))
+                .isInstanceOf(ReservationStateException.class);
+        assertThat(reservationService.release(shortLived.getId()).getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(stored("STRESS-004").getStockCount()).isEqualTo(6);
+    }
+
+    @Test
+    void reservationOfDeletedItem_expiresWithoutBlockingTheSweep() throws Exception {
+        createItem("STRESS-005", 5);
+        createItem("STRESS-006", 5);
+        ReservationResponse orphaned = reservationService.reserve("STRESS-005",
+                ReservationRequest.builder().quantity(2).ttlSeconds(1L).build());
+        ReservationResponse released = reservationService.reserve("STRESS-005",
+                ReservationRequest.builder().quantity(1).build());
+        ReservationResponse later = reservationService.reserve("STRESS-006",
+                ReservationRequest.builder().quantity(3).ttlSeconds(1L).build());
+        catalogService.deleteItem(stored("STRESS-005").getId());
+
+        ReservationResponse afterRelease = reservationService.release(released.getId());
+        assertThat(afterRelease.getStatus()).isEqualTo(ReservationStatus.RELEASED);
+        assertThat(afterRelease.getRemainingStock()).isNull();
+
+        Thread.sleep(1100);
+        assertThat(reservationExpiryTask.sweep()).isEqualTo(2);
+        assertThat(reservationService.getReservation(orphaned.getId()).getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(reservationService.getReservation(later.getId()).getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(stored("STRESS-006").getStockCount()).isEqualTo(5);
+        assertThat(menuItemRepository.existsByItemId("STRESS-005")).isFalse();
+    }
+
+    private static StockBatchRequest batch(Object... itemAndQuantity) {
+        List<StockBatchRequest.Line> lines = new ArrayList<>();
+        for (int i = 0; i < itemAndQuantity.length; i += 2) {
+            lines.add(new StockBatchRequest.Line((String) itemAndQuantity[i], (Integer) itemAndQuantity[i + 1]));
+        }
+        return new StockBatchRequest(lines);
+    }
+
+    @Test
+    void batchDecrement_isAllOrNothing() {
+        createItem("BATCH-A", 5);
+        createItem("BATCH-B", 1);
+
+        StockBatchResponse rejected = catalogService.decrementStockBatch(batch("BATCH-A", 2, "BATCH-B", 2, "BATCH-X", 1));
+        assertThat(rejected.isApplied()).isFalse();
+        assertThat(rejected.getResults()).extracting(StockBatchResponse.LineResult::getStatus).containsExactly(
+                StockBatchResponse.LineStatus.ROLLED_BACK,
+                StockBatchResponse.LineStatus.INSUFFICIENT_STOCK,
+                StockBatchResponse.LineStatus.NOT_FOUND);
+        assertThat(stored("BATCH-A").getStockCount()).isEqualTo(5);
+        assertThat(stored("BATCH-B").getStockCount()).isEqualTo(1);
+
+        StockBatchResponse applied = catalogService.decrementStockBatch(batch("BATCH-B", 1, "BATCH-A", 2, "BATCH-A", 1));
+        assertThat(applied.isApplied()).isTrue();
+        assertThat(applied.getResults()).extracting(StockBatchResponse.LineResult::getItemId)
+                .containsExactly("BATCH-B", "BATCH-A");
+        assertThat(applied.getResults()).extracting(StockBatchResponse.LineResult::getRemainingStock)
+                .containsExactly(0, 2);
+        assertThat(stored("BATCH-A").getStockCount()).isEqualTo(2);
+        assertThat(stored("BATCH-B").getStockCount()).isZero();
+    }
+
+    @Test
+    void overlappingBatchesInOppositeOrder_doNotDeadlockOrOversell() throws Exception {
+        createItem("BATCH-C", 500);
+        createItem("BATCH-D", 500);
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            StockBatchRequest request = i % 2 == 0
+                    ? batch("BATCH-C", 1, "BATCH-D", 1)
+                    : batch("BATCH-D", 1, "BATCH-C", 1);
+            tasks.add(() -> catalogService.decrementStockBatch(request).isApplied());
+        }
+        long applied = runConcurrently(tasks).stream().filter(Boolean::booleanValue).count();
+
+        assertThat(applied).isEqualTo(500);
+        assertThat(stored("BATCH-C").getStockCount()).isZero();
+        assertThat(stored("BATCH-D").getStockCount()).isZero();
+    }
+
+    @Test
+    void retriedBatchWithSameKey_isAppliedOnce() throws Exception {
+        createItem("BATCH-E", 100);
+
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tasks.add(() -> {
+                try {
+                    StockBatchResponse response = catalogService.decrementStockBatch(batch("BATCH-E", 3), "payment:p-1:STOCK");
+                    return response.isReplayed() ? "replayed" : "applied";
+                } catch (DuplicateRequestException e) {
+                    return "in-flight";
+                }
+            });
+        }
+        List<String> outcomes = runConcurrently(tasks);
+
+        assertThat(outcomes).containsOnlyOnce("applied");
+        assertThat(stored("BATCH-E").getStockCount()).isEqualTo(97);
+
+        StockBatchResponse retry = catalogService.decrementStockBatch(batch("BATCH-E", 3), "payment:p-1:STOCK");
+        assertThat(retry.isApplied()).isTrue();
+        assertThat(retry.isReplayed()).isTrue();
+        assertThat(stored("BATCH-E").getStockCount()).isEqualTo(97);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.orderservice.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Near-cache of catalog items for the order hot path, keyed by both catalog id and business itemId.
+ * <p>
+ * An entry is served as fresh for {@code ttl}. Entries that were read since they were fetched are
+ * offered for a background refresh once they are {@code refreshAfter} old, so popular items are
+ * renewed before they expire. Older entries are kept until {@code maxStaleness} only to answer
+ * while catalog-service is unavailable; after that the price is considered too old to charge.
+ * Ids the catalog reported as unknown are remembered for {@code negativeTtl}.
+ */
+class CatalogNearCache {
+
+    private static final class Entry {
+        private final Map<String, Object> item;
+        private final long fetchedAtNanos;
+        /** Read since it was fetched; only such entries are refreshed ahead of expiry */
+        private volatile boolean read;
+
+        private Entry(Map<String, Object> item, long fetchedAtNanos) {
+            this.item = item;
+            this.fetchedAtNanos = fetchedAtNanos;
+        }
+    }
+
+    private final Ticker ticker;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final Cache<String, Entry> entries;
+    private final Cache<String, Boolean> unknown;
+
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+    final AtomicLong negativeHits = new AtomicLong();
+
+    CatalogNearCache(int maxEntries, Duration ttl, Duration refreshAfter, Duration maxStaleness, Duration negativeTtl) {
+        this(maxEntries, ttl, refreshAfter, maxStaleness, negativeTtl, Ticker.systemTicker());
+    }
+
+    /**
+     * @param ticker time source for entry ages and expiry
+     */
+    CatalogNearCache(int maxEntries, Duration ttl, Duration refreshAfter, Duration maxStaleness, Duration negativeTtl,
+                     Ticker ticker) {
+        if (refreshAfter.compareTo(ttl) > 0 || ttl.compareTo(maxStaleness) > 0) {
+            throw new IllegalArgumentException("Catalog cache requires refresh-after <= ttl <= max-price-staleness");
+        }
+        this.ticker = ticker;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(maxStaleness)
+                .ticker(ticker)
+                .build();
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(negativeTtl)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * @return the item if it was fetched within the TTL, otherwise null; counts a hit or miss
+     */
+    Map<String, Object> getFresh(String key) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null || ticker.read() - entry.fetchedAtNanos > ttlNanos) {
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.read = true;
+        hits.incrementAndGet();
+        return entry.item;
+    }
+
+    /**
+     * @return the item if it is within the maximum staleness, for use while catalog-service is down
+     */
+    Map<String, Object> getStale(String key) {
+        Entry entry = entries.getIfPresent(key);
+        return entry != null ? entry.item : null;
+    }
+
+    /**
+     * @return true if catalog-service recently reported this id as unknown; counts a negative hit
+     */
+    boolean isUnknown(String key) {
+        if (unknown.getIfPresent(key) == null) {
+            return false;
+        }
+        negativeHits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Store a freshly fetched item under its {@code id} and {@code itemId}
+     */
+    void put(Map<String, Object> item) {
+        if (item == null) {
+            return;
+        }
+        Entry entry = new Entry(item, ticker.read());
+        if (item.get("id") instanceof String id) {
+            entries.put(id, entry);
+            unknown.invalidate(id);
+        }
+        if (item.get("itemId") instanceof String itemId) {
+            entries.put(itemId, entry);
+            unknown.invalidate(itemId);
+        }
+    }
+
+    void putUnknown(String key) {
+        entries.invalidate(key);
+        unknown.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * @return itemIds of entries that were read since they were fetched and are due for refresh
+     */
+    List<String> dueForRefresh() {
+        long now = ticker.read();
+        Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<String> due = new ArrayList<>();
+        for (Entry entry : entries.asMap().values()) {
+            if (entry.read && now - entry.fetchedAtNanos >= refreshAfterNanos && seen.add(entry)
+                    && entry.item.get("itemId") instanceof String itemId) {
+                due.add(itemId);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * @return number of cached items (each is stored under two keys)
+     */
+    long size() {
+        return entries.estimatedSize() / 2;
+    }
+}
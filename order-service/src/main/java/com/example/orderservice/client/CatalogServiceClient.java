@@ -1,58 +1,283 @@
 package com.example.orderservice.client;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * HTTP client for Catalog Service using RestTemplate
- * (Replaced Spring Cloud OpenFeign for Spring Boot 4 compatibility)
+ * (Replaced Spring Cloud OpenFeign for Spring Boot 4 compatibility).
+ * <p>
+ * Item reads are served from a {@link CatalogNearCache} when possible; popular entries are
+ * refreshed in the background in bulk lookups. Calls go through the {@code catalogService}
+ * circuit breaker, bulkhead and time limiter; when catalog-service is unavailable, reads fall
+ * back to cached entries within {@code app.catalog-client.cache.max-price-staleness}.
+ * Stock in cached entries is advisory: {@link #lookupItemsLive(Collection)} bypasses the cache,
+ * and stock is decremented atomically by catalog-service at checkout.
  */
 @Component
 public class CatalogServiceClient {
 
     private static final Logger log = LoggerFactory.getLogger(CatalogServiceClient.class);
 
+    static final String INSTANCE = "catalogService";
+
+    /** Matches the catalog-service limit on ids per lookup */
+    private static final int MAX_LOOKUP_IDS = 200;
+
     private final RestTemplate restTemplate;
     private final String catalogServiceUrl;
+    private final ResilientCalls.Guard guard;
+
+    @Value("${app.catalog-client.cache.enabled:true}")
+    private boolean cacheEnabled = true;
+
+    @Value("${app.catalog-client.cache.max-entries:5000}")
+    private int maxEntries = 5000;
+
+    /** How long an entry is used without asking catalog-service */
+    @Value("${app.catalog-client.cache.ttl:PT1M}")
+    private Duration ttl = Duration.ofMinutes(1);
+
+    /** Entries read since their last fetch are refreshed in the background once this old */
+    @Value("${app.catalog-client.cache.refresh-after:PT45S}")
+    private Duration refreshAfter = Duration.ofSeconds(45);
+
+    /** Oldest price ever charged; bounds how long entries answer while catalog-service is down */
+    @Value("${app.catalog-client.cache.max-price-staleness:PT10M}")
+    private Duration maxPriceStaleness = Duration.ofMinutes(10);
+
+    /** How long an id catalog-service reported as unknown is answered as unknown */
+    @Value("${app.catalog-client.cache.negative-ttl:PT30S}")
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    @Value("${app.catalog-client.cache.refresh-interval:PT10S}")
+    private Duration refreshInterval = Duration.ofSeconds(10);
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private CatalogNearCache cache;
+
+    private ScheduledExecutorService refresher;
+
+    private final AtomicLong refreshed = new AtomicLong();
 
     public CatalogServiceClient(
             RestTemplate restTemplate,
+            ResilientCalls resilientCalls,
             @Value("${service.catalog.url:http://localhost:8082}") String catalogServiceUrl) {
         this.restTemplate = restTemplate;
         this.catalogServiceUrl = catalogServiceUrl;
+        this.guard = resilientCalls.guard(INSTANCE);
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = new CatalogNearCache(maxEntries, ttl, refreshAfter, maxPriceStaleness, negativeTtl);
+        if (meterRegistry != null) {
+            FunctionCounter.builder("catalog.client.cache.requests", cache.hits, AtomicLong::get)
+                    .description("Catalog item reads answered by the near-cache")
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            FunctionCounter.builder("catalog.client.cache.requests", cache.misses, AtomicLong::get)
+                    .description("Catalog item reads that had to call catalog-service")
+                    .tag("result", "miss")
+                    .register(meterRegistry);
+            FunctionCounter.builder("catalog.client.cache.requests", cache.negativeHits, AtomicLong::get)
+                    .description("Catalog item reads answered as unknown from the negative cache")
+                    .tag("result", "negative")
+                    .register(meterRegistry);
+            FunctionCounter.builder("catalog.client.cache.refreshed", refreshed, AtomicLong::get)
+                    .description("Catalog items refreshed in the background before expiry")
+                    .register(meterRegistry);
+            Gauge.builder("catalog.client.cache.items", cache, CatalogNearCache::size)
+                    .description("Catalog items in the near-cache")
+                    .register(meterRegistry);
+        }
+        if (cacheEnabled) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "catalog-cache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = refreshInterval.toMillis();
+            refresher.scheduleWithFixedDelay(this::refreshPopular, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
     }
 
     /** Fetch item by catalog DB id (UUID) */
-    @SuppressWarnings("unchecked")
     public Map<String, Object> getItemById(String id) {
-        String url = catalogServiceUrl + "/catalog/items/" + id;
-        try {
-            return restTemplate.getForObject(url, Map.class);
-        } catch (RestClientException e) {
-            log.warn("Catalog getItemById failed for {}: {} — check service.catalog.url (use http://localhost:8082 locally, or CATALOG_SERVICE_URL in Docker)", url, e.getMessage());
-            return null;
-        }
+        return getItem(id, catalogServiceUrl + "/catalog/items/" + id);
     }
 
     /** Fetch item by business itemId (e.g. ITEM-0001) */
-    @SuppressWarnings("unchecked")
     public Map<String, Object> getItemByItemId(String itemId) {
         String url = UriComponentsBuilder
                 .fromUriString(catalogServiceUrl + "/catalog/items/by-item-id/{itemId}")
                 .buildAndExpand(itemId)
                 .toUriString();
+        return getItem(itemId, url);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getItem(String key, String url) {
+        if (cacheEnabled) {
+            if (cache.isUnknown(key)) {
+                return null;
+            }
+            Map<String, Object> cached = cache.getFresh(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
-            return restTemplate.getForObject(url, Map.class);
+            return guard.call(() -> {
+                Map<String, Object> item = restTemplate.getForObject(url, Map.class);
+                cache.put(item);
+                return item;
+            }, failure -> cache.getStale(key));
         } catch (RestClientException e) {
-            log.warn("Catalog getItemByItemId failed for {}: {}", url, e.getMessage());
+            if (e instanceof HttpClientErrorException.NotFound) {
+                cache.putUnknown(key);
+            }
+            log.warn("Catalog item request failed for {}: {} — check service.catalog.url (use http://localhost:8082 locally, or CATALOG_SERVICE_URL in Docker)", url, e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Resolve many items, calling catalog-service once for the ids the near-cache cannot answer.
+     * Each id may be a catalog DB id (UUID) or a business itemId.
+     * @return found items keyed by the id as passed in (unknown ids are absent),
+     *         or null if catalog-service could not be reached and not every id was cached
+     */
+    public Map<String, Map<String, Object>> lookupItems(Collection<String> ids) {
+        if (!cacheEnabled) {
+            return lookupItemsLive(ids);
+        }
+        Map<String, Map<String, Object>> found = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String id : ids) {
+            if (cache.isUnknown(id)) {
+                continue;
+            }
+            Map<String, Object> cached = cache.getFresh(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+        Map<String, Map<String, Object>> fetched = lookupItemsLive(misses);
+        if (fetched == null) {
+            return null;
+        }
+        found.putAll(fetched);
+        return found;
+    }
+
+    /**
+     * Resolve many items from catalog-service without consulting the near-cache (the results are
+     * cached). Use to confirm stock or availability before acting on a cached value.
+     * @return found items keyed by the id as passed in (unknown ids are absent),
+     *         or null if catalog-service could not be reached and not every id was cached
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<String, Object>> lookupItemsLive(Collection<String> ids) {
+        String url = catalogServiceUrl + "/catalog/items/lookup";
+        try {
+            return guard.call(() -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                Map<String, Object> response = restTemplate.postForObject(
+                        url, new HttpEntity<>(Map.of("ids", List.copyOf(ids)), headers), Map.class);
+                if (response == null || !(response.get("items") instanceof Map<?, ?> items)) {
+                    log.warn("Catalog lookup returned no items map from {}", url);
+                    return null;
+                }
+                Map<String, Map<String, Object>> found = new LinkedHashMap<>((Map<String, Map<String, Object>>) items);
+                found.values().forEach(cache::put);
+                for (String id : ids) {
+                    if (!found.containsKey(id)) {
+                        cache.putUnknown(id);
+                    }
+                }
+                return found;
+            }, failure -> lookupStale(ids));
+        } catch (RestClientException e) {
+            log.warn("Catalog lookup failed for {}: {} — check service.catalog.url (use http://localhost:8082 locally, or CATALOG_SERVICE_URL in Docker)", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Re-fetch entries that were read since their last fetch and are close to expiry,
+     * in bulk lookups, so the order path keeps hitting the cache
+     */
+    public void refreshPopular() {
+        try {
+            List<String> due = cache.dueForRefresh();
+            for (int from = 0; from < due.size(); from += MAX_LOOKUP_IDS) {
+                List<String> batch = due.subList(from, Math.min(due.size(), from + MAX_LOOKUP_IDS));
+                Map<String, Map<String, Object>> fetched = lookupItemsLive(batch);
+                if (fetched == null) {
+                    // Catalog unavailable; entries stay usable until they reach max staleness
+                    return;
+                }
+                refreshed.addAndGet(fetched.size());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Catalog cache refresh failed: {}", ex.getMessage());
+        }
+    }
+
+    /** All-or-nothing: a partial answer would report the missing ids as unknown items */
+    private Map<String, Map<String, Object>> lookupStale(Collection<String> ids) {
+        Map<String, Map<String, Object>> found = new LinkedHashMap<>();
+        for (String id : ids) {
+            Map<String, Object> item = cache.getStale(id);
+            if (item == null) {
+                return null;
+            }
+            found.put(id, item);
+        }
+        log.info("Catalog unavailable; resolved {} items from cached entries", found.size());
+        return found;
+    }
 }
@@ -1,14 +1,103 @@
 package com.example.orderservice.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
+/**
+ * HTTP client for calls to other services.
+ * <p>
+ * Connections are pooled and kept alive between calls; every call has a connect, pool-wait and
+ * read timeout so a slow downstream service cannot hold request threads indefinitely. Pool
+ * usage is published as {@code httpcomponents.httpclient.pool.*{httpclient=inter-service}}
+ * to size the pool against the Tomcat thread count.
+ */
 @Configuration
 public class FeignClientConfig {
 
+    /** Connections across all downstream services */
+    @Value("${app.http-client.max-total:100}")
+    private int maxTotal;
+
+    /** Connections to one service (host:port) */
+    @Value("${app.http-client.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${app.http-client.connect-timeout:PT2S}")
+    private Duration connectTimeout;
+
+    /** Maximum wait for response data */
+    @Value("${app.http-client.read-timeout:PT5S}")
+    private Duration readTimeout;
+
+    /** Maximum wait for a free pooled connection before failing fast */
+    @Value("${app.http-client.pool-timeout:PT1S}")
+    private Duration poolTimeout;
+
+    /** Idle keep-alive when the server does not send a Keep-Alive header; below the servers' idle timeout */
+    @Value("${app.http-client.keep-alive:PT15S}")
+    private Duration keepAlive;
+
+    /** Idle connections are closed by a background thread after this long */
+    @Value("${app.http-client.idle-eviction:PT30S}")
+    private Duration idleEviction;
+
+    /** Connections are recycled after this long so DNS and load-balancer changes are picked up */
+    @Value("${app.http-client.time-to-live:PT5M}")
+    private Duration timeToLive;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager interServiceConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        // Check connections that sat idle before reuse; the server may have closed them
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient interServiceHttpClient(PoolingHttpClientConnectionManager interServiceConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(interServiceConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .build();
+    }
+
+    @Bean
+    public MeterBinder interServiceConnectionPoolMetrics(PoolingHttpClientConnectionManager interServiceConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(interServiceConnectionManager, "inter-service");
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient interServiceHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(interServiceHttpClient));
     }
 }
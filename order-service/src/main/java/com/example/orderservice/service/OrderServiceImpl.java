@@ -14,8 +14,11 @@ import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -63,12 +66,6 @@ public class OrderServiceImpl implements OrderService {
         return true;
     }
 
-    private Map<String, Object> resolveCatalogItem(String maybeIdOrItemId) {
-        if (catalogServiceClient == null) return null;
-        Map<String, Object> byId = catalogServiceClient.getItemById(maybeIdOrItemId);
-        if (byId != null) return byId;
-        return catalogServiceClient.getItemByItemId(maybeIdOrItemId);
-    }
 
     private OrderResponse toResponse(Order order) {
         return OrderResponse.builder()
@@ -114,22 +111,55 @@ public class OrderServiceImpl implements OrderService {
 
         BigDecimal total = BigDecimal.ZERO;
 
+        // Validate every line first, then resolve the whole cart with a single catalog call
+        Set<String> requestedIds = new LinkedHashSet<>();
         for (CreateOrderRequest.OrderItemRequest itemReq : request.getItems()) {
             if (itemReq == null) continue;
-            String incomingItemId = itemReq.getItemId();
-            Integer qty = itemReq.getQuantity();
-            if (incomingItemId == null || incomingItemId.isBlank()) {
+            if (itemReq.getItemId() == null || itemReq.getItemId().isBlank()) {
                 throw new IllegalArgumentException("Item ID is required");
             }
-            if (qty == null || qty < 1) {
+            if (itemReq.getQuantity() == null || itemReq.getQuantity() < 1) {
                 throw new IllegalArgumentException("Quantity must be >= 1");
             }
+            requestedIds.add(itemReq.getItemId().trim());
+        }
+
+        Map<String, Map<String, Object>> catalogItems =
+                catalogServiceClient != null ? catalogServiceClient.lookupItems(requestedIds) : null;
+        if (catalogItems == null) {
+            throw new IllegalArgumentException(
+                    "Catalog unreachable while resolving items " + requestedIds
+                            + ". Ensure catalog-service is running and CATALOG_SERVICE_URL matches your environment (e.g. http://localhost:8082 locally).");
+        }
+
+        // Cached stock and availability may lag; confirm a rejection against catalog-service before failing
+        // the order. Stock is decremented atomically by catalog-service at checkout either way.
+        Set<String> recheck = new LinkedHashSet<>();
+        for (CreateOrderRequest.OrderItemRequest itemReq : request.getItems()) {
+            if (itemReq == null) continue;
+            String id = itemReq.getItemId().trim();
+            Map<String, Object> catalogItem = catalogItems.get(id);
+            Integer stock = catalogItem != null ? asInt(catalogItem.get("stockCount")) : null;
+            if (catalogItem != null && (!isAvailable(catalogItem) || (stock != null && stock < itemReq.getQuantity()))) {
+                recheck.add(id);
+            }
+        }
+        if (!recheck.isEmpty()) {
+            Map<String, Map<String, Object>> live = catalogServiceClient.lookupItemsLive(recheck);
+            if (live != null) {
+                catalogItems = new HashMap<>(catalogItems);
+                catalogItems.putAll(live);
+            }
+        }
+
+        for (CreateOrderRequest.OrderItemRequest itemReq : request.getItems()) {
+            if (itemReq == null) continue;
+            String incomingItemId = itemReq.getItemId().trim();
+            Integer qty = itemReq.getQuantity();
 
-            Map<String, Object> catalogItem = resolveCatalogItem(incomingItemId);
+            Map<String, Object> catalogItem = catalogItems.get(incomingItemId);
             if (catalogItem == null) {
-                throw new IllegalArgumentException(
-                        "Catalog item not found or catalog unreachable for id: " + incomingItemId
-                                + ". Ensure catalog-service is running and CATALOG_SERVICE_URL matches your environment (e.g. http://localhost:8082 locally).");
+                throw new IllegalArgumentException("Catalog item not found for id: " + incomingItemId);
             }
 
             if (!isAvailable(catalogItem)) {
@@ -0,0 +1,107 @@
+package com.example.orderservice.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogNearCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    private CatalogNearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CatalogNearCache(100, Duration.ofSeconds(60), Duration.ofSeconds(45),
+                Duration.ofMinutes(10), Duration.ofSeconds(30), now::get);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private static Map<String, Object> item(String id, String itemId) {
+        return Map.of("id", id, "itemId", itemId, "price", 10, "stockCount", 5);
+    }
+
+    // ── Test 1: Entries answer under both keys within the TTL ─────────────────
+    @Test
+    void put_servesFreshUnderIdAndItemId() {
+        Map<String, Object> item = item("uuid-1", "ITEM-0001");
+        cache.put(item);
+
+        assertSame(item, cache.getFresh("uuid-1"));
+        assertSame(item, cache.getFresh("ITEM-0001"));
+        assertEquals(2, cache.hits.get());
+        assertNull(cache.getFresh("ITEM-0002"));
+        assertEquals(1, cache.misses.get());
+    }
+
+    // ── Test 2: Past the TTL an entry is stale, past max staleness it is gone ─
+    @Test
+    void expiredEntry_isOnlyServedAsStaleUntilMaxStaleness() {
+        Map<String, Object> item = item("uuid-1", "ITEM-0001");
+        cache.put(item);
+
+        advance(Duration.ofSeconds(61));
+        assertNull(cache.getFresh("ITEM-0001"));
+        assertSame(item, cache.getStale("ITEM-0001"));
+
+        advance(Duration.ofMinutes(10));
+        assertNull(cache.getStale("ITEM-0001"));
+    }
+
+    // ── Test 3: Unknown ids are remembered for the negative TTL ───────────────
+    @Test
+    void unknownId_isRememberedForNegativeTtl() {
+        cache.putUnknown("ITEM-0404");
+        assertTrue(cache.isUnknown("ITEM-0404"));
+        assertEquals(1, cache.negativeHits.get());
+
+        advance(Duration.ofSeconds(31));
+        assertFalse(cache.isUnknown("ITEM-0404"));
+    }
+
+    // ── Test 4: Fetching an item clears its negative entry ────────────────────
+    @Test
+    void put_clearsUnknownMarker() {
+        cache.putUnknown("ITEM-0001");
+        cache.put(item("uuid-1", "ITEM-0001"));
+
+        assertFalse(cache.isUnknown("ITEM-0001"));
+        assertNotNull(cache.getFresh("ITEM-0001"));
+    }
+
+    // ── Test 5: Only entries read since their fetch are refreshed ahead ───────
+    @Test
+    void dueForRefresh_selectsReadEntriesPastRefreshAfter_once() {
+        cache.put(item("uuid-1", "ITEM-0001"));
+        cache.put(item("uuid-2", "ITEM-0002"));
+        cache.getFresh("uuid-1");
+        cache.getFresh("ITEM-0001");
+
+        assertEquals(List.of(), cache.dueForRefresh());
+
+        advance(Duration.ofSeconds(46));
+        // Stored under two keys but offered once, by itemId; ITEM-0002 was never read
+        assertEquals(List.of("ITEM-0001"), cache.dueForRefresh());
+
+        cache.put(item("uuid-1", "ITEM-0001"));
+        assertEquals(List.of(), cache.dueForRefresh());
+    }
+
+    // ── Test 6: Inconsistent durations are rejected ───────────────────────────
+    @Test
+    void constructor_rejectsTtlBeyondMaxStaleness() {
+        assertThrows(IllegalArgumentException.class, () -> new CatalogNearCache(100, Duration.ofMinutes(20),
+                Duration.ofSeconds(45), Duration.ofMinutes(10), Duration.ofSeconds(30)));
+        assertThrows(IllegalArgumentException.class, () -> new CatalogNearCache(100, Duration.ofSeconds(30),
+                Duration.ofSeconds(45), Duration.ofMinutes(10), Duration.ofSeconds(30)));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.orderservice.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogServiceClientTest {
+
+    private static final String LOOKUP_URL = "http://catalog/catalog/items/lookup";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private ResilientCalls resilientCalls;
+
+    @Mock
+    private ResilientCalls.Guard guard;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    /** Items catalog-service knows, by id and by itemId */
+    private final Map<String, Map<String, Object>> catalog = new HashMap<>();
+
+    private boolean catalogDown;
+
+    private CatalogServiceClient client;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Same contract as the real guard: 4xx propagates, any other failure goes to the fallback
+        when(guard.call(any(), any())).thenAnswer(invocation -> {
+            Supplier<Object> call = invocation.getArgument(0);
+            Function<Throwable, Object> fallback = invocation.getArgument(1);
+            try {
+                return call.get();
+            } catch (HttpClientErrorException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return fallback.apply(e);
+            }
+        });
+        when(resilientCalls.guard(CatalogServiceClient.INSTANCE)).thenReturn(guard);
+        when(restTemplate.postForObject(eq(LOOKUP_URL), any(), eq(Map.class))).thenAnswer(invocation -> {
+            if (catalogDown) {
+                throw new ResourceAccessException("Connection refused");
+            }
+            HttpEntity<Map<String, List<String>>> request = invocation.getArgument(1);
+            Map<String, Object> items = new LinkedHashMap<>();
+            for (String id : request.getBody().get("ids")) {
+                if (catalog.containsKey(id)) {
+                    items.put(id, catalog.get(id));
+                }
+            }
+            return Map.of("items", items);
+        });
+
+        client = new CatalogServiceClient(restTemplate, resilientCalls, "http://catalog");
+        ReflectionTestUtils.setField(client, "refreshInterval", Duration.ofHours(1));
+        client.init();
+        ReflectionTestUtils.setField(client, "cache", new CatalogNearCache(100, Duration.ofSeconds(60),
+                Duration.ofSeconds(45), Duration.ofMinutes(10), Duration.ofSeconds(30), now::get));
+
+        addItem("uuid-1", "ITEM-0001");
+        addItem("uuid-2", "ITEM-0002");
+        addItem("uuid-3", "ITEM-0003");
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    private void addItem(String id, String itemId) {
+        Map<String, Object> item = Map.of("id", id, "itemId", itemId, "price", 10, "stockCount", 5);
+        catalog.put(id, item);
+        catalog.put(itemId, item);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<String>> lookedUpIds() {
+        ArgumentCaptor<HttpEntity<Map<String, List<String>>>> requests = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, atLeast(0)).postForObject(eq(LOOKUP_URL), requests.capture(), eq(Map.class));
+        return requests.getAllValues().stream().map(request -> request.getBody().get("ids")).toList();
+    }
+
+    // ── Test 1: Only ids the cache cannot answer go to catalog-service ────────
+    @Test
+    void lookupItems_fetchesOnlyMisses() {
+        client.lookupItems(List.of("ITEM-0001"));
+        Map<String, Map<String, Object>> found = client.lookupItems(List.of("ITEM-0001", "uuid-2"));
+
+        assertEquals(Set.of("ITEM-0001", "uuid-2"), found.keySet());
+        assertEquals(List.of(List.of("ITEM-0001"), List.of("uuid-2")), lookedUpIds());
+
+        // Cached under both keys
+        client.lookupItems(List.of("uuid-1", "ITEM-0002"));
+        assertEquals(2, lookedUpIds().size());
+    }
+
+    // ── Test 2: Unknown ids are answered from the negative cache ──────────────
+    @Test
+    void lookupItems_remembersUnknownIds() {
+        assertTrue(client.lookupItems(List.of("ITEM-9999")).isEmpty());
+        assertTrue(client.lookupItems(List.of("ITEM-9999")).isEmpty());
+        assertEquals(1, lookedUpIds().size());
+
+        advance(Duration.ofSeconds(31));
+        client.lookupItems(List.of("ITEM-9999"));
+        assertEquals(2, lookedUpIds().size());
+    }
+
+    // ── Test 3: Past the TTL the cache is bypassed; live lookups always are ───
+    @Test
+    void expiredEntries_andLiveLookups_callCatalog() {
+        client.lookupItems(List.of("ITEM-0001"));
+        client.lookupItemsLive(List.of("ITEM-0001"));
+        advance(Duration.ofSeconds(61));
+        client.lookupItems(List.of("ITEM-0001"));
+
+        assertEquals(3, lookedUpIds().size());
+    }
+
+    // ── Test 4: Stale fallback answers only when every id is cached ───────────
+    @Test
+    void catalogDown_servesStaleEntriesAllOrNothing() {
+        client.lookupItems(List.of("ITEM-0001", "ITEM-0002"));
+        advance(Duration.ofMinutes(2));
+        catalogDown = true;
+
+        Map<String, Map<String, Object>> stale = client.lookupItems(List.of("ITEM-0001", "ITEM-0002"));
+        assertNotNull(stale);
+        assertEquals(Set.of("ITEM-0001", "ITEM-0002"), stale.keySet());
+
+        // ITEM-0003 was never cached: a partial answer would report it as unknown
+        assertNull(client.lookupItems(List.of("ITEM-0001", "ITEM-0003")));
+
+        advance(Duration.ofMinutes(9));
+        assertNull(client.lookupItems(List.of("ITEM-0001")));
+    }
+
+    // ── Test 5: Background refresh renews only entries that were read ─────────
+    @Test
+    void refreshPopular_refetchesReadEntriesInOneLookup() {
+        client.lookupItems(List.of("ITEM-0001", "ITEM-0002", "ITEM-0003"));
+        client.lookupItems(List.of("ITEM-0001"));
+        client.lookupItems(List.of("uuid-3"));
+
+        client.refreshPopular();
+        assertEquals(1, lookedUpIds().size());
+
+        advance(Duration.ofSeconds(46));
+        client.refreshPopular();
+        List<List<String>> calls = lookedUpIds();
+        assertEquals(2, calls.size());
+        assertEquals(Set.of("ITEM-0001", "ITEM-0003"), Set.copyOf(calls.get(1)));
+
+        // Refreshed entries are fresh again past the original TTL
+        advance(Duration.ofSeconds(20));
+        client.lookupItems(List.of("ITEM-0001", "ITEM-0003"));
+        assertEquals(2, lookedUpIds().size());
+    }
+
+    // ── Test 6: A refresh during an outage leaves entries usable ──────────────
+    @Test
+    void refreshPopular_catalogDown_keepsStaleEntries() {
+        client.lookupItems(List.of("ITEM-0001"));
+        client.lookupItems(List.of("ITEM-0001"));
+        advance(Duration.ofSeconds(70));
+        catalogDown = true;
+
+        assertDoesNotThrow(() -> client.refreshPopular());
+        assertNotNull(client.lookupItems(List.of("ITEM-0001")));
+    }
+
+    // ── Test 7: A 404 on a single-item read is cached as unknown ──────────────
+    @Test
+    void getItemByItemId_notFound_isCachedAsUnknown() {
+        when(restTemplate.getForObject(anyString(), eq(Map.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        assertNull(client.getItemByItemId("ITEM-0404"));
+        assertNull(client.getItemByItemId("ITEM-0404"));
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(Map.class));
+    }
+}
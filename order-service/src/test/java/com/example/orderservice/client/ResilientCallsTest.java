@@ -0,0 +1,144 @@
+package com.example.orderservice.client;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientCallsTest {
+
+    private static final String NAME = "catalogService";
+
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+
+    private ResilientCalls resilientCalls;
+
+    private ResilientCalls.Guard guard;
+
+    private final AtomicReference<Throwable> fallbackCause = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("resilience4j.circuitbreaker.instances." + NAME + ".slidingWindowSize", "4")
+                .withProperty("resilience4j.circuitbreaker.instances." + NAME + ".minimumNumberOfCalls", "4")
+                .withProperty("resilience4j.circuitbreaker.instances." + NAME + ".waitDurationInOpenState", "PT1M")
+                .withProperty("resilience4j.timelimiter.instances." + NAME + ".timeoutDuration", "PT0.2S");
+        // Durations are bound the way the application's environment binds them
+        environment.setConversionService(new ApplicationConversionService());
+        resilientCalls = new ResilientCalls(circuitBreakers, ThreadPoolBulkheadRegistry.ofDefaults(),
+                TimeLimiterRegistry.ofDefaults(), environment);
+        guard = resilientCalls.guard(NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resilientCalls.shutdown();
+    }
+
+    private CircuitBreaker breaker() {
+        return circuitBreakers.circuitBreaker(NAME);
+    }
+
+    private String fallback(Throwable cause) {
+        fallbackCause.set(cause);
+        return "fallback";
+    }
+
+    // ── Test 1: A successful call returns its result ──────────────────────────
+    @Test
+    void call_success_returnsResult() {
+        assertEquals("ok", guard.call(() -> "ok", this::fallback));
+        assertNull(fallbackCause.get());
+        assertEquals(1, breaker().getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    // ── Test 2: A 4xx bypasses both the fallback and the breaker ──────────────
+    @Test
+    void call_clientError_isRethrownAndNotCounted() {
+        for (int i = 0; i < 6; i++) {
+            HttpClientErrorException error = assertThrows(HttpClientErrorException.class,
+                    () -> guard.call(() -> {
+                        throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+                    }, this::fallback));
+            assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode());
+        }
+
+        assertNull(fallbackCause.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+        assertEquals(0, breaker().getMetrics().getNumberOfFailedCalls());
+    }
+
+    // ── Test 3: Any other failure goes to the fallback with its cause ─────────
+    @Test
+    void call_failure_usesFallback() {
+        String result = guard.call(() -> {
+            throw new ResourceAccessException("Connection refused");
+        }, this::fallback);
+
+        assertEquals("fallback", result);
+        assertInstanceOf(ResourceAccessException.class, fallbackCause.get());
+        assertEquals(1, breaker().getMetrics().getNumberOfFailedCalls());
+    }
+
+    // ── Test 4: A call past the time limit is abandoned for the fallback ──────
+    @Test
+    void call_timeout_usesFallback() {
+        long start = System.nanoTime();
+        String result = guard.call(() -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        }, this::fallback);
+
+        assertEquals("fallback", result);
+        assertInstanceOf(TimeoutException.class, fallbackCause.get());
+        assertTrue(System.nanoTime() - start < 2_000_000_000L, "caller waited past the time limit");
+    }
+
+    // ── Test 5: Once open, the breaker short-circuits to the fallback ─────────
+    @Test
+    void call_breakerOpen_skipsTheCall() {
+        for (int i = 0; i < 4; i++) {
+            guard.call(() -> {
+                throw new ResourceAccessException("Connection refused");
+            }, this::fallback);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+
+        AtomicInteger invoked = new AtomicInteger();
+        String result = guard.call(() -> {
+            invoked.incrementAndGet();
+            return "ok";
+        }, this::fallback);
+
+        assertEquals("fallback", result);
+        assertEquals(0, invoked.get());
+        assertInstanceOf(CallNotPermittedException.class, fallbackCause.get());
+    }
+
+    // ── Test 6: One guard per downstream service ──────────────────────────────
+    @Test
+    void guard_isCreatedOncePerName() {
+        assertSame(guard, resilientCalls.guard(NAME));
+        assertNotSame(guard, resilientCalls.guard("paymentService"));
+    }
+}
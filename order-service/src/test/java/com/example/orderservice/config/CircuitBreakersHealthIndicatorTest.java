@@ -0,0 +1,58 @@
+package com.example.orderservice.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.Status;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakersHealthIndicatorTest {
+
+    private final CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+
+    private final CircuitBreakersHealthIndicator indicator = new CircuitBreakersHealthIndicator(registry);
+
+    // ── Test 1: Closed breakers report UP with their details ──────────────────
+    @Test
+    void health_allClosed_isUp() {
+        registry.circuitBreaker("catalogService");
+        registry.circuitBreaker("paymentService");
+
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(2, health.getDetails().size());
+        Map<?, ?> details = (Map<?, ?>) health.getDetails().get("catalogService");
+        assertEquals(CircuitBreaker.State.CLOSED, details.get("state"));
+    }
+
+    // ── Test 2: An open breaker is UNKNOWN, not DOWN ──────────────────────────
+    @Test
+    void health_openBreaker_isUnknown() {
+        registry.circuitBreaker("catalogService");
+        registry.circuitBreaker("paymentService").transitionToOpenState();
+
+        Health health = indicator.health();
+
+        assertEquals(Status.UNKNOWN, health.getStatus());
+        assertEquals(CircuitBreaker.State.OPEN, ((Map<?, ?>) health.getDetails().get("paymentService")).get("state"));
+    }
+
+    // ── Test 3: A forced-open breaker is UNKNOWN too ──────────────────────────
+    @Test
+    void health_forcedOpenBreaker_isUnknown() {
+        registry.circuitBreaker("catalogService").transitionToForcedOpenState();
+
+        assertEquals(Status.UNKNOWN, indicator.health().getStatus());
+    }
+
+    // ── Test 4: No breakers yet is UP ─────────────────────────────────────────
+    @Test
+    void health_noBreakers_isUp() {
+        assertEquals(Status.UP, indicator.health().getStatus());
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.CatalogServiceClient;
+import com.example.orderservice.dto.CreateOrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CatalogServiceClient catalogServiceClient;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private static Map<String, Object> item(String itemId, int stock, boolean available) {
+        return Map.of("id", "uuid-" + itemId, "itemId", itemId, "name", "Dish " + itemId,
+                "price", 12.5, "stockCount", stock, "available", available);
+    }
+
+    private static CreateOrderRequest order(String itemId, int quantity) {
+        return CreateOrderRequest.builder()
+                .items(List.of(CreateOrderRequest.OrderItemRequest.builder()
+                        .itemId(itemId)
+                        .quantity(quantity)
+                        .build()))
+                .build();
+    }
+
+    // ── Test 1: A line the cache accepts is priced without a live call ────────
+    @Test
+    void createOrder_cachedItemInStock_skipsLiveLookup() {
+        when(catalogServiceClient.lookupItems(Set.of("ITEM-0001"))).thenReturn(Map.of("ITEM-0001", item("ITEM-0001", 5, true)));
+
+        OrderResponse response = orderService.createOrder("user-1", order("ITEM-0001", 2));
+
+        assertEquals(new BigDecimal("25.0"), response.getTotalAmount());
+        assertEquals("uuid-ITEM-0001", response.getItems().get(0).getCatalogItemId());
+        verify(catalogServiceClient, never()).lookupItemsLive(any());
+    }
+
+    // ── Test 2: Stale out-of-stock entry is re-checked and the order goes through
+    @Test
+    void createOrder_cachedOutOfStock_liveHasStock_succeeds() {
+        when(catalogServiceClient.lookupItems(Set.of("ITEM-0001"))).thenReturn(Map.of("ITEM-0001", item("ITEM-0001", 0, true)));
+        when(catalogServiceClient.lookupItemsLive(Set.of("ITEM-0001"))).thenReturn(Map.of("ITEM-0001", item("ITEM-0001", 3, true)));
+
+        OrderResponse response = orderService.createOrder("user-1", order("ITEM-0001", 3));
+
+        assertEquals(3, response.getItems().get(0).getQuantity());
+        verify(orderRepository).save(any(Order.class));
+    }
+
+    // ── Test 3: Stale unavailable entry is re-checked too ─────────────────────
+    @Test
+    void createOrder_cachedUnavailable_liveAvailable_succeeds() {
+        when(catalogServiceClient.lookupItems(Set.of("ITEM-0001"))).thenReturn(Map.of("ITEM-0001", item("ITEM-0001", 5, false)));
+        when(catalogServiceClient.lookupItemsLive(Set.of("ITEM-0001"))).thenReturn(Map.of("ITEM-0001", item("ITEM-0001", 5, true)));
+
+        assertNotNull(orderService.createOrder("user-1", order("ITEM-0001", 1)));
+    }
+
+    // ── Test 4: Live catalog confirms the rejection ───────────────────────────
+    @Test
+    void createOrder_liveConfirmsInsufficientStock_throws() {
+        when(catalogServiceClient.lookupItems(Set.of("ITEM-0001"))).thenReturn(Map.of("ITEM-0001", item("ITEM-0001", 1, true)));
+        when(catalogServiceClient.lookupItemsLive(Set.of("ITEM-0001"))).thenReturn(Map.of("ITEM-0001", item("ITEM-0001", 1, true)));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrder("user-1", order("ITEM-0001", 2)));
+
+        assertTrue(error.getMessage().contains("Insufficient stock"));
+        verify(orderRepository, never()).save(any());
+    }
+
+    // ── Test 5: Live catalog unreachable falls back to the cached rejection ───
+    @Test
+    void createOrder_liveUnreachable_usesCachedRejection() {
+        when(catalogServiceClient.lookupItems(Set.of("ITEM-0001"))).thenReturn(Map.of("ITEM-0001", item("ITEM-0001", 0, true)));
+        when(catalogServiceClient.lookupItemsLive(Set.of("ITEM-0001"))).thenReturn(null);
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.createOrder("user-1", order("ITEM-0001", 1)));
+        verify(orderRepository, never()).save(any());
+    }
+
+    // ── Test 6: Catalog unreachable with nothing cached fails the order ───────
+    @Test
+    void createOrder_catalogUnreachable_throws() {
+        when(catalogServiceClient.lookupItems(Set.of("ITEM-0001"))).thenReturn(null);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrder("user-1", order("ITEM-0001", 1)));
+
+        assertTrue(error.getMessage().contains("Catalog unreachable"));
+    }
+}
@@ -2,76 +2,138 @@ package com.example.paymentservice.client;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * HTTP client for Catalog Service using RestTemplate.
- * Calls /catalog/items/{itemId}/decrement-stock to update inventory after checkout.
+ * Calls /catalog/items/stock/batch to update inventory after checkout, and
+ * /catalog/items/lookup to resolve the items of a payment listing in bulk.
+ * Calls go through the {@code catalogService} circuit breaker, bulkhead and time limiter. Stock
+ * updates have no fallback; item reads are answered from the last responses seen.
  */
 @Component
 public class CatalogServiceClient {
     private static final Logger logger = LoggerFactory.getLogger(CatalogServiceClient.class);
     private static final String SERVICE_ROLE_HEADER = "X-Service-Role";
     private static final String SERVICE_PAYMENT_ROLE = "SERVICE_PAYMENT";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    static final String INSTANCE = "catalogService";
+
+    /** Matches the catalog-service limit on ids per lookup */
+    private static final int MAX_LOOKUP_IDS = 200;
 
     private final RestTemplate restTemplate;
     private final String catalogServiceUrl;
+    private final ResilientCalls.Guard guard;
+    private final StaleItemCache lastKnown;
 
     public CatalogServiceClient(
             RestTemplate restTemplate,
-            @Value("${service.catalog.url:http://catalog-service:8082}") String catalogServiceUrl) {
+            ResilientCalls resilientCalls,
+            @Value("${service.catalog.url:http://catalog-service:8082}") String catalogServiceUrl,
+            @Value("${app.catalog-client.fallback.max-entries:2000}") int fallbackMaxEntries,
+            @Value("${app.catalog-client.fallback.max-age:PT30M}") Duration fallbackMaxAge) {
         this.restTemplate = restTemplate;
         this.catalogServiceUrl = catalogServiceUrl;
+        this.guard = resilientCalls.guard(INSTANCE);
+        this.lastKnown = new StaleItemCache(fallbackMaxEntries, fallbackMaxAge);
     }
 
     /**
-     * @param itemId   catalog business itemId (e.g. "ITEM-1234")
-     * @param quantity number of units sold
-     * @return the updated item response map, or null on failure
+     * Decrement stock for several items in one call; catalog-service applies all lines or none.
+     * @param quantities business itemId → units sold
+     * @return the batch result ({@code applied}, per-line {@code results}), also when it was
+     *         rejected with 409; null if catalog-service could not be reached
+     */
+    public Map<String, Object> decrementStockBatch(Map<String, Integer> quantities) {
+        return decrementStockBatch(quantities, null);
+    }
+
+    /**
+     * As {@link #decrementStockBatch(Map)}; catalog-service applies a batch with the same
+     * idempotency key at most once and answers retries with {@code replayed = true}.
      */
     @SuppressWarnings("unchecked")
-    public Map<String, Object> decrementStock(String itemId, int quantity) {
+    public Map<String, Object> decrementStockBatch(Map<String, Integer> quantities, String idempotencyKey) {
+        List<Map<String, Object>> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((itemId, quantity) -> lines.add(Map.of("itemId", itemId, "quantity", quantity)));
         try {
-            String url = UriComponentsBuilder
-                    .fromUriString(catalogServiceUrl + "/catalog/items/{itemId}/decrement-stock")
-                    .queryParam("quantity", quantity)
-                    .buildAndExpand(itemId)
-                    .toUriString();
-
-            logger.info("Decrementing stock for item {} by {}", itemId, quantity);
+            logger.info("Decrementing stock for {} items", lines.size());
             HttpHeaders headers = new HttpHeaders();
             headers.add(SERVICE_ROLE_HEADER, SERVICE_PAYMENT_ROLE);
-            Map<String, Object> response = restTemplate.postForObject(url, new HttpEntity<>(headers), Map.class);
-            logger.info("Stock decremented successfully for item {}", itemId);
-            return response;
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            if (idempotencyKey != null) {
+                headers.add(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+            }
+            return guard.call(() -> restTemplate.postForObject(catalogServiceUrl + "/catalog/items/stock/batch",
+                    new HttpEntity<>(Map.of("lines", lines), headers), Map.class), failure -> null);
+        } catch (HttpStatusCodeException e) {
+            logger.error("Batch stock decrement rejected ({}): {}", e.getStatusCode(), e.getResponseBodyAsString());
+            return e.getResponseBodyAs(Map.class);
         } catch (RestClientException | IllegalArgumentException e) {
-            logger.error("Failed to decrement stock for item {}: {}", itemId, e.getMessage());
+            logger.error("Failed to decrement stock for {}: {}", quantities.keySet(), e.getMessage());
             return null;
         }
     }
 
     /**
-     * Fetch item details from catalog service.
+     * Resolve many items by business itemId, one catalog call per {@value #MAX_LOOKUP_IDS} ids.
+     * A chunk that cannot be fetched is answered from the last responses seen, so the result
+     * may be partial while catalog-service is slow or down.
+     * @return found items keyed by itemId; unknown or unavailable ids are absent
      */
     @SuppressWarnings("unchecked")
-    public Map<String, Object> getItemByItemId(String itemId) {
-        try {
-            String url = UriComponentsBuilder
-                    .fromUriString(catalogServiceUrl + "/catalog/items/by-item-id/{itemId}")
-                    .buildAndExpand(itemId)
-                    .toUriString();
-            return restTemplate.getForObject(url, Map.class);
-        } catch (RestClientException | IllegalArgumentException e) {
-            logger.error("Failed to fetch item {}: {}", itemId, e.getMessage());
-            return null;
+    public Map<String, Map<String, Object>> lookupItems(Collection<String> itemIds) {
+        List<String> ids = List.copyOf(itemIds);
+        Map<String, Map<String, Object>> found = new LinkedHashMap<>();
+        String url = catalogServiceUrl + "/catalog/items/lookup";
+        for (int from = 0; from < ids.size(); from += MAX_LOOKUP_IDS) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_LOOKUP_IDS));
+            try {
+                found.putAll(guard.call(() -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                    Map<String, Object> response = restTemplate.postForObject(
+                            url, new HttpEntity<>(Map.of("ids", chunk), headers), Map.class);
+                    if (response == null || !(response.get("items") instanceof Map<?, ?> items)) {
+                        logger.warn("Catalog lookup returned no items map from {}", url);
+                        return lookupStale(chunk);
+                    }
+                    Map<String, Map<String, Object>> fetched = (Map<String, Map<String, Object>>) items;
+                    fetched.values().forEach(lastKnown::put);
+                    return fetched;
+                }, failure -> lookupStale(chunk)));
+            } catch (RestClientException e) {
+                logger.error("Failed to look up {} items: {}", chunk.size(), e.getMessage());
+                found.putAll(lookupStale(chunk));
+            }
+        }
+        return found;
+    }
+
+    private Map<String, Map<String, Object>> lookupStale(Collection<String> itemIds) {
+        Map<String, Map<String, Object>> found = new LinkedHashMap<>();
+        for (String itemId : itemIds) {
+            Map<String, Object> item = lastKnown.get(itemId);
+            if (item != null) {
+                found.put(itemId, item);
+            }
         }
+        return found;
     }
 }
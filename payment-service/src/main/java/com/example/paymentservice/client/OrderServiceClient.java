@@ -3,7 +3,10 @@ package com.example.paymentservice.client;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
@@ -11,24 +14,41 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * HTTP client for Order Service using RestTemplate
- * (Replaced Spring Cloud OpenFeign for Spring Boot 4 compatibility)
+ * (Replaced Spring Cloud OpenFeign for Spring Boot 4 compatibility).
+ * Calls go through the {@code orderService} circuit breaker, bulkhead and time limiter.
  */
 @Component
 public class OrderServiceClient {
+    private static final Logger logger = LoggerFactory.getLogger(OrderServiceClient.class);
     private static final String SERVICE_ROLE_HEADER = "X-Service-Role";
     private static final String SERVICE_PAYMENT_ROLE = "SERVICE_PAYMENT";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    static final String INSTANCE = "orderService";
 
     private final RestTemplate restTemplate;
     private final String orderServiceUrl;
+    private final ResilientCalls.Guard guard;
 
     public OrderServiceClient(
             RestTemplate restTemplate,
+            ResilientCalls resilientCalls,
             @Value("${service.order.url:http://order-service:8083}") String orderServiceUrl) {
         this.restTemplate = restTemplate;
         this.orderServiceUrl = orderServiceUrl;
+        this.guard = resilientCalls.guard(INSTANCE);
     }
 
     public Object updateOrderStatus(String orderId, String status) {
+        return updateOrderStatus(orderId, status, null);
+    }
+
+    /**
+     * @param idempotencyKey sent as the Idempotency-Key header so retries can be recognised
+     * @return the updated order, or null if order-service could not be reached
+     * @throws HttpClientErrorException if order-service rejected the update with a 4xx status
+     */
+    public Object updateOrderStatus(String orderId, String status, String idempotencyKey) {
         try {
             String url = UriComponentsBuilder
                 .fromUriString(orderServiceUrl + "/orders/{id}/status")
@@ -37,8 +57,18 @@ public class OrderServiceClient {
                 .toUriString();
             HttpHeaders headers = new HttpHeaders();
             headers.add(SERVICE_ROLE_HEADER, SERVICE_PAYMENT_ROLE);
-            return restTemplate.exchange(url, HttpMethod.PATCH, new HttpEntity<>(headers), Object.class).getBody();
+            if (idempotencyKey != null) {
+                headers.add(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+            }
+            return guard.call(
+                    () -> restTemplate.exchange(url, HttpMethod.PATCH, new HttpEntity<>(headers), Object.class).getBody(),
+                    failure -> null);
+        } catch (HttpClientErrorException e) {
+            logger.warn("Order {} update to {} rejected ({}): {}", orderId, status, e.getStatusCode(),
+                    e.getResponseBodyAsString());
+            throw e;
         } catch (RestClientException | IllegalArgumentException e) {
+            logger.warn("Failed to update order {} to {}: {}", orderId, status, e.getMessage());
             return null;
         }
     }
@@ -0,0 +1,149 @@
+package com.example.paymentservice.client;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker, bulkhead and time limiter around calls to other services.
+ * <p>
+ * Each downstream service is one named instance configured under the usual resilience4j keys
+ * ({@code resilience4j.circuitbreaker.instances.<name>.*}, {@code resilience4j.thread-pool-bulkhead.instances.<name>.*},
+ * {@code resilience4j.timelimiter.instances.<name>.*}). A call runs on the instance's bounded thread pool,
+ * is abandoned once the time limit passes and is not attempted while the breaker is open, so a hung
+ * service cannot tie up request threads. 4xx responses are answers, not failures: they are neither
+ * counted by the breaker nor sent to the fallback.
+ */
+@Component
+public class ResilientCalls {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientCalls.class);
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final ThreadPoolBulkheadRegistry bulkheads;
+    private final TimeLimiterRegistry timeLimiters;
+    private final Environment environment;
+
+    private final ConcurrentHashMap<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public ResilientCalls(CircuitBreakerRegistry circuitBreakers, ThreadPoolBulkheadRegistry bulkheads,
+                          TimeLimiterRegistry timeLimiters, Environment environment) {
+        this.circuitBreakers = circuitBreakers;
+        this.bulkheads = bulkheads;
+        this.timeLimiters = timeLimiters;
+        this.environment = environment;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        guards.values().forEach(guard -> {
+            try {
+                guard.bulkhead.close();
+            } catch (Exception e) {
+                log.debug("Closing bulkhead {} failed: {}", guard.name, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @param name instance name, e.g. {@code catalogService}
+     * @return the guard for that downstream service, created on first use
+     */
+    public Guard guard(String name) {
+        return guards.computeIfAbsent(name, this::create);
+    }
+
+    private Guard create(String name) {
+        String breaker = "resilience4j.circuitbreaker.instances." + name + ".";
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowSize(environment.getProperty(breaker + "slidingWindowSize", Integer.class, 10))
+                .minimumNumberOfCalls(environment.getProperty(breaker + "minimumNumberOfCalls", Integer.class, 5))
+                .failureRateThreshold(environment.getProperty(breaker + "failureRateThreshold", Float.class, 50f))
+                .slowCallRateThreshold(environment.getProperty(breaker + "slowCallRateThreshold", Float.class, 100f))
+                .slowCallDurationThreshold(environment.getProperty(breaker + "slowCallDurationThreshold", Duration.class, Duration.ofSeconds(2)))
+                .waitDurationInOpenState(environment.getProperty(breaker + "waitDurationInOpenState", Duration.class, Duration.ofSeconds(5)))
+                .permittedNumberOfCallsInHalfOpenState(environment.getProperty(breaker + "permittedNumberOfCallsInHalfOpenState", Integer.class, 3))
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build();
+
+        String bulkhead = "resilience4j.thread-pool-bulkhead.instances." + name + ".";
+        int maxThreads = environment.getProperty(bulkhead + "maxThreadPoolSize", Integer.class, 20);
+        ThreadPoolBulkheadConfig bulkheadConfig = ThreadPoolBulkheadConfig.custom()
+                .maxThreadPoolSize(maxThreads)
+                .coreThreadPoolSize(environment.getProperty(bulkhead + "coreThreadPoolSize", Integer.class, maxThreads))
+                .queueCapacity(environment.getProperty(bulkhead + "queueCapacity", Integer.class, 20))
+                .build();
+
+        String limiter = "resilience4j.timelimiter.instances." + name + ".";
+        TimeLimiterConfig timeLimiterConfig = TimeLimiterConfig.custom()
+                .timeoutDuration(environment.getProperty(limiter + "timeoutDuration", Duration.class, Duration.ofSeconds(3)))
+                .cancelRunningFuture(true)
+                .build();
+
+        return new Guard(name,
+                circuitBreakers.circuitBreaker(name, circuitBreakerConfig),
+                bulkheads.bulkhead(name, bulkheadConfig),
+                timeLimiters.timeLimiter(name, timeLimiterConfig));
+    }
+
+    /**
+     * Protection for one downstream service
+     */
+    public static final class Guard {
+        private final String name;
+        private final CircuitBreaker circuitBreaker;
+        private final ThreadPoolBulkhead bulkhead;
+        private final TimeLimiter timeLimiter;
+
+        private Guard(String name, CircuitBreaker circuitBreaker, ThreadPoolBulkhead bulkhead, TimeLimiter timeLimiter) {
+            this.name = name;
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.timeLimiter = timeLimiter;
+        }
+
+        /**
+         * Run a remote call.
+         * @param call     the HTTP call; runs on the bulkhead's thread pool
+         * @param fallback result when the call fails, times out, is rejected by a full bulkhead
+         *                 or is not permitted by an open breaker
+         * @throws HttpClientErrorException if the service answered with a 4xx status
+         */
+        public <T> T call(Supplier<T> call, Function<Throwable, T> fallback) {
+            try {
+                return circuitBreaker.executeCallable(() ->
+                        timeLimiter.executeFutureSupplier(() -> bulkhead.executeSupplier(call).toCompletableFuture()));
+            } catch (Exception e) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof HttpClientErrorException clientError) {
+                    throw clientError;
+                }
+                log.warn("{} call failed ({}, breaker {}): {}", name, cause.getClass().getSimpleName(),
+                        circuitBreaker.getState(), cause.getMessage());
+                return fallback.apply(cause);
+            }
+        }
+
+        public String name() {
+            return name;
+        }
+    }
+}
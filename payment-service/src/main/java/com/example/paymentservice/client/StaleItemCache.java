@@ -0,0 +1,55 @@
+package com.example.paymentservice.client;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Last successful catalog item responses, keyed by both catalog id and business itemId.
+ * Only read by fallbacks, to keep answering while catalog-service is unavailable.
+ */
+class StaleItemCache {
+
+    private record Entry(Map<String, Object> item, long storedAtMillis) {
+    }
+
+    private final Duration maxAge;
+    private final Map<String, Entry> entries;
+
+    StaleItemCache(int maxEntries, Duration maxAge) {
+        this.maxAge = maxAge;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Remember an item under its {@code id} and {@code itemId}
+     */
+    synchronized void put(Map<String, Object> item) {
+        if (item == null) {
+            return;
+        }
+        Entry entry = new Entry(item, System.currentTimeMillis());
+        if (item.get("id") instanceof String id) {
+            entries.put(id, entry);
+        }
+        if (item.get("itemId") instanceof String itemId) {
+            entries.put(itemId, entry);
+        }
+    }
+
+    /**
+     * @return the last known item for a catalog id or itemId, or null if unknown or too old
+     */
+    synchronized Map<String, Object> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || System.currentTimeMillis() - entry.storedAtMillis() > maxAge.toMillis()) {
+            return null;
+        }
+        return entry.item();
+    }
+}
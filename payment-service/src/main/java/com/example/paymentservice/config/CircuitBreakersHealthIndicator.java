@@ -0,0 +1,46 @@
+package com.example.paymentservice.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reports the state of every inter-service circuit breaker under {@code /actuator/health}.
+ * An open breaker means a dependency is down, not this service, so it is reported as UNKNOWN,
+ * which keeps the overall status (and liveness/readiness) UP.
+ */
+@Component
+public class CircuitBreakersHealthIndicator implements HealthIndicator {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    public CircuitBreakersHealthIndicator(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Object> breakers = new TreeMap<>();
+        boolean open = false;
+        for (CircuitBreaker breaker : circuitBreakerRegistry.getAllCircuitBreakers()) {
+            CircuitBreaker.State state = breaker.getState();
+            CircuitBreaker.Metrics metrics = breaker.getMetrics();
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("state", state);
+            details.put("failureRate", metrics.getFailureRate());
+            details.put("slowCallRate", metrics.getSlowCallRate());
+            details.put("bufferedCalls", metrics.getNumberOfBufferedCalls());
+            details.put("failedCalls", metrics.getNumberOfFailedCalls());
+            details.put("notPermittedCalls", metrics.getNumberOfNotPermittedCalls());
+            breakers.put(breaker.getName(), details);
+            open |= state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+        }
+        return (open ? Health.unknown() : Health.up()).withDetails(breakers).build();
+    }
+}
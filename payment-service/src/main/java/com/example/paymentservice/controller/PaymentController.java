@@ -1,17 +1,30 @@
 package com.example.paymentservice.controller;
 
+import com.example.paymentservice.dto.PaymentPageResponse;
 import com.example.paymentservice.dto.PaymentRequest;
 import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.repository.PaymentFilter;
+import com.example.paymentservice.service.CheckoutIdempotency;
+import com.example.paymentservice.service.ExportFormat;
+import com.example.paymentservice.service.PaymentExportService;
 import com.example.paymentservice.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * NOTE: context-path is /payments (application.properties).
@@ -22,9 +35,18 @@ import java.util.Locale;
 @Tag(name = "Payments", description = "Checkout & payment processing endpoints")
 public class PaymentController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private CheckoutIdempotency checkoutIdempotency;
+
+    @Autowired
+    private PaymentExportService paymentExportService;
+
     private static boolean hasRole(String rolesHeader, String role) {
         if (rolesHeader == null || rolesHeader.isBlank()) return false;
         String expected = role.toUpperCase(Locale.ROOT);
@@ -48,19 +70,52 @@ public class PaymentController {
         return value == null || value.isBlank();
     }
 
-    /** POST /payments/checkout */
+    /**
+     * ISO date-time, or ISO date meaning the start of that day ({@code endOfDay}: the start of the next,
+     * so that {@code to=2026-03-31} includes the whole of 31 March)
+     */
+    private static LocalDateTime parseTime(String name, String value, boolean endOfDay) {
+        if (isBlank(value)) {
+            return null;
+        }
+        try {
+            if (value.length() == 10) {
+                LocalDate date = LocalDate.parse(value);
+                return (endOfDay ? date.plusDays(1) : date).atStartOfDay();
+            }
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO date or date-time");
+        }
+    }
+
+    /**
+     * POST /payments/checkout
+     * With an Idempotency-Key header, retries of the same checkout return the original payment
+     * (marked with Idempotent-Replayed: true) instead of charging again.
+     */
     @PostMapping("/checkout")
-    @Operation(summary = "Process checkout and update catalog stock")
-    @ApiResponse(responseCode = "200", description = "Checkout successful")
+    @Operation(summary = "Process checkout and update catalog stock",
+            description = "Send an Idempotency-Key header to make retries safe; a repeated key returns the original payment")
+    @ApiResponse(responseCode = "200", description = "Checkout successful, or replayed for a repeated Idempotency-Key")
     @ApiResponse(responseCode = "400", description = "Invalid request")
+    @ApiResponse(responseCode = "409", description = "The original request for this Idempotency-Key is still being processed")
+    @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used for a different checkout")
     public ResponseEntity<PaymentResponse> checkout(
             @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody PaymentRequest request) {
         if (isBlank(userId)) {
             return ResponseEntity.status(401).build();
         }
         request.setUserId(userId.trim());
-        return ResponseEntity.ok(paymentService.checkout(request));
+        if (isBlank(idempotencyKey)) {
+            return ResponseEntity.ok(paymentService.checkout(request));
+        }
+        CheckoutIdempotency.Outcome outcome = checkoutIdempotency.checkout(userId.trim(), idempotencyKey.trim(), request);
+        return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(outcome.replayed()))
+                .body(outcome.response());
     }
 
     /** GET /payments/orders */
@@ -74,6 +129,80 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getAllOrders());
     }
 
+    /**
+     * GET /payments/orders/page
+     * Pass the returned nextCursor as cursor for the following page, or use page numbers.
+     */
+    @GetMapping("/orders/page")
+    @Operation(summary = "Page through all payments, newest first",
+            description = "Filters: status, paymentMethod, from (inclusive), to (exclusive; a date includes that day)")
+    @ApiResponse(responseCode = "200", description = "Page returned")
+    @ApiResponse(responseCode = "400", description = "Invalid filter, limit, page or cursor")
+    public ResponseEntity<PaymentPageResponse> getAllOrdersPage(
+            @RequestHeader(value = "X-User-Roles", required = false) String roles,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor) {
+        if (!isAdmin(roles)) {
+            return ResponseEntity.status(403).build();
+        }
+        PaymentFilter filter = new PaymentFilter(null, status, paymentMethod,
+                parseTime("from", from, false), parseTime("to", to, true));
+        return ResponseEntity.ok(paymentService.getPaymentsPage(filter, page, cursor, limit));
+    }
+
+    /**
+     * GET /payments/orders/export
+     * Streams matching payments as they are read, for finance reconciliation; gzip=true returns a .gz file.
+     */
+    @GetMapping("/orders/export")
+    @Operation(summary = "Export payments as CSV or NDJSON (admin)",
+            description = "Streams rows oldest first; filters: status, paymentMethod, from (inclusive), to (exclusive; a date includes that day)")
+    @ApiResponse(responseCode = "200", description = "Export streamed")
+    @ApiResponse(responseCode = "400", description = "Invalid format or filter")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestHeader(value = "X-User-Roles", required = false) String roles,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!isAdmin(roles)) {
+            return ResponseEntity.status(403).build();
+        }
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        LocalDateTime fromTime = parseTime("from", from, false);
+        LocalDateTime toTime = parseTime("to", to, true);
+        if (fromTime != null && toTime != null && !fromTime.isBefore(toTime)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        PaymentFilter filter = new PaymentFilter(null,
+                isBlank(status) ? null : status.trim().toUpperCase(Locale.ROOT),
+                isBlank(paymentMethod) ? null : paymentMethod.trim().toUpperCase(Locale.ROOT),
+                fromTime, toTime);
+
+        String filename = "payments"
+                + (fromTime != null ? "-from-" + fromTime.toLocalDate() : "")
+                + (toTime != null ? "-to-" + toTime.toLocalDate() : "")
+                + "." + exportFormat.extension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = gzip
+                ? out -> {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                    paymentExportService.export(filter, exportFormat, compressed);
+                    compressed.finish();
+                }
+                : out -> paymentExportService.export(filter, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
     /** GET /payments/{id} */
     @GetMapping("/{id}")
     @Operation(summary = "Get payment by id")
@@ -137,4 +266,36 @@ public class PaymentController {
         }
         return ResponseEntity.ok(paymentService.getPaymentsByUser(userId));
     }
+
+    /** GET /payments/user/{userId}/page */
+    @GetMapping("/user/{userId}/page")
+    @Operation(summary = "Page through a user's payments, newest first",
+            description = "Filters: status, paymentMethod, from (inclusive), to (exclusive; a date includes that day)")
+    @ApiResponse(responseCode = "200", description = "Page returned")
+    @ApiResponse(responseCode = "400", description = "Invalid filter, limit, page or cursor")
+    public ResponseEntity<PaymentPageResponse> getByUserPage(
+            @PathVariable String userId,
+            @RequestHeader(value = "X-User-Id", required = false) String requesterUserId,
+            @RequestHeader(value = "X-User-Roles", required = false) String roles,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor) {
+        boolean admin = isAdmin(roles);
+        String effectiveRequesterUserId = isBlank(requesterUserId) ? null : requesterUserId.trim();
+        if (!admin) {
+            if (effectiveRequesterUserId == null) {
+                return ResponseEntity.status(401).build();
+            }
+            if (!effectiveRequesterUserId.equals(userId)) {
+                return ResponseEntity.status(403).build();
+            }
+        }
+        PaymentFilter filter = new PaymentFilter(userId, status, paymentMethod,
+                parseTime("from", from, false), parseTime("to", to, true));
+        return ResponseEntity.ok(paymentService.getPaymentsPage(filter, page, cursor, limit));
+    }
 }
@@ -2,6 +2,7 @@ package com.example.paymentservice.controller;
 
 import com.example.paymentservice.dto.StripeCheckoutRequest;
 import com.example.paymentservice.dto.StripeCheckoutResponse;
+import com.example.paymentservice.exception.InvalidWebhookSignatureException;
 import com.example.paymentservice.service.StripeService;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,7 +22,7 @@ import java.util.Map;
  *
  * Endpoints (context-path /payments already applied):
  *   POST /payments/stripe/create-intent  — create PaymentIntent, return clientSecret
- *   POST /payments/stripe/webhook        — receive Stripe server-to-server events
+ *   POST /payments/stripe/webhook        — receive Stripe server-to-server events (applied asynchronously)
  *   GET  /payments/stripe/status/{id}    — check PaymentIntent status
  *
  * Demo test card:
@@ -86,7 +88,8 @@ public class StripeController {
     /**
      * Receives Stripe webhook events (server-to-server).
      * Stripe signs every request with a Stripe-Signature header.
-     * We verify the signature before processing.
+     * We verify the signature, store the event and acknowledge at once;
+     * StripeWebhookProcessor updates the payment shortly after.
      *
      * To test locally:
      *   1. Install Stripe CLI
@@ -99,7 +102,8 @@ public class StripeController {
     @PostMapping("/webhook")
     @Operation(
         summary = "Stripe webhook receiver",
-        description = "Called by Stripe after payment events. Verifies signature and updates payment status."
+        description = "Called by Stripe after payment events. Verifies the signature, stores the event " +
+                      "(once per event id) and acknowledges; the payment status is updated asynchronously."
     )
     public ResponseEntity<String> handleWebhook(
             @RequestBody String payload,
@@ -108,10 +112,14 @@ public class StripeController {
         try {
             stripeService.handleWebhook(payload, sigHeader);
             return ResponseEntity.ok("OK");
-        } catch (RuntimeException e) {
+        } catch (InvalidWebhookSignatureException e) {
             // Invalid signature — return 400 so Stripe retries
             logger.warn("Webhook rejected: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (DataAccessException e) {
+            // Not stored — Stripe retries until it gets a 2xx
+            logger.error("Webhook could not be stored: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Webhook could not be stored");
         }
     }
 
@@ -0,0 +1,21 @@
+package com.example.paymentservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of payment history, newest first
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentPageResponse {
+    private List<PaymentResponse> items;
+    private int limit;
+    /** Zero-based page number when paging by offset; null when paging by cursor */
+    private Integer page;
+    /** Pass back as {@code cursor} to fetch the next page; null on the last page */
+    private String nextCursor;
+}
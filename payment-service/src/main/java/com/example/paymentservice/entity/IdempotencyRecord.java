@@ -0,0 +1,47 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A checkout made with an Idempotency-Key. Inserted in the checkout transaction before the payment,
+ * so the unique (userId, idempotencyKey) constraint makes a concurrent duplicate wait for the
+ * original and then fail instead of charging twice.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_user_key", columnNames = {"userId", "idempotencyKey"}),
+        indexes = @Index(name = "idx_idempotency_keys_expires", columnList = "expiresAt"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false, length = 200)
+    private String idempotencyKey;
+
+    /** Fingerprint of the request body; reusing a key for a different request is rejected */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    /** Payment created by the original request */
+    private String paymentId;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Transactional outbox row. Written in the same transaction as the {@link Payment} it belongs to
+ * and delivered afterwards by the outbox dispatcher, so checkout never waits on another service.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_status_next", columnList = "status, nextAttemptAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OutboxEventType type;
+
+    @Column(nullable = false)
+    private String paymentId;
+
+    /** Order id or itemId, depending on the type */
+    @Column(nullable = false)
+    private String targetId;
+
+    /** Units, for STOCK_DECREMENT */
+    private Integer quantity;
+
+    /** Sent as the Idempotency-Key header; identical on every retry */
+    @Column(nullable = false, unique = true, length = 200)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /** Not picked up before this time; also serves as the claim lease while a delivery runs */
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime deliveredAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) status = OutboxStatus.PENDING;
+        if (attempts == null) attempts = 0;
+        if (nextAttemptAt == null) nextAttemptAt = createdAt;
+    }
+}
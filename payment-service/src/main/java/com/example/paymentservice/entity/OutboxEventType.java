@@ -0,0 +1,11 @@
+package com.example.paymentservice.entity;
+
+/**
+ * Side effect of a checkout, delivered to another service by the outbox dispatcher
+ */
+public enum OutboxEventType {
+    /** PATCH the order to PAID in order-service; target = order id */
+    ORDER_PAID,
+    /** Decrement catalog stock; target = business itemId */
+    STOCK_DECREMENT
+}
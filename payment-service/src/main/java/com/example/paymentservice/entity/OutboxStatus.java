@@ -0,0 +1,9 @@
+package com.example.paymentservice.entity;
+
+public enum OutboxStatus {
+    /** Waiting for (re)delivery at nextAttemptAt */
+    PENDING,
+    DELIVERED,
+    /** Rejected by the receiver or out of attempts; needs manual attention */
+    DEAD
+}
@@ -6,7 +6,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        // History listings: equality filters first, then the (createdAt, id) keyset order
+        @Index(name = "idx_payments_created_at_id", columnList = "createdAt, id"),
+        @Index(name = "idx_payments_user_created_at_id", columnList = "userId, createdAt, id"),
+        @Index(name = "idx_payments_user_status_created_at_id", columnList = "userId, status, createdAt, id"),
+        @Index(name = "idx_payments_status_created_at_id", columnList = "status, createdAt, id"),
+        @Index(name = "idx_payments_method_created_at_id", columnList = "paymentMethod, createdAt, id"),
+        @Index(name = "idx_payments_order_id", columnList = "orderId"),
+        @Index(name = "idx_payments_reference", columnList = "reference")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,85 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A verified Stripe webhook event, stored as received and applied to its {@link Payment} later.
+ * Keyed by the Stripe event id, so a redelivered event is recognised and stored once.
+ */
+@Entity
+@Table(name = "stripe_webhook_events", indexes = {
+        @Index(name = "idx_stripe_webhook_events_status_next", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_stripe_webhook_events_intent_created", columnList = "paymentIntentId, stripeCreatedAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StripeWebhookEvent implements Persistable<String> {
+    /** Stripe event id (evt_…) */
+    @Id
+    @Column(length = 100)
+    private String id;
+
+    @Column(nullable = false, length = 100)
+    private String type;
+
+    /** pi_… the event belongs to; events of one intent are applied in {@code stripeCreatedAt} order */
+    @Column(length = 100)
+    private String paymentIntentId;
+
+    /** Raw, signature-verified payload */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /** When Stripe created the event; Stripe does not deliver in order */
+    @Column(nullable = false)
+    private LocalDateTime stripeCreatedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private WebhookEventStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /** Not picked up before this time; also serves as the claim lease while it is applied */
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime receivedAt;
+    private LocalDateTime processedAt;
+
+    /** The id is assigned by Stripe, so save() must insert rather than merge over an existing row */
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEvent = true;
+
+    @Override
+    public boolean isNew() {
+        return newEvent;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        receivedAt = LocalDateTime.now();
+        if (status == null) status = WebhookEventStatus.PENDING;
+        if (attempts == null) attempts = 0;
+        if (nextAttemptAt == null) nextAttemptAt = receivedAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markStored() {
+        newEvent = false;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.paymentservice.entity;
+
+public enum WebhookEventStatus {
+    /** Waiting to be applied at nextAttemptAt */
+    PENDING,
+    PROCESSED,
+    /** Out of attempts; needs manual attention */
+    DEAD
+}
@@ -27,6 +27,28 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyReuse(IdempotencyKeyReuseException ex) {
+        logger.warn("Idempotency-Key reused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT).body(Map.of(
+                "timestamp", LocalDateTime.now().toString(),
+                "status", 422,
+                "error", "Unprocessable Content",
+                "message", ex.getMessage()
+        ));
+    }
+
+    @ExceptionHandler(RequestInProgressException.class)
+    public ResponseEntity<Map<String, Object>> handleRequestInProgress(RequestInProgressException ex) {
+        logger.warn("Request in progress: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "timestamp", LocalDateTime.now().toString(),
+                "status", 409,
+                "error", "Conflict",
+                "message", ex.getMessage()
+        ));
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<Map<String, Object>> handleDataIntegrity(DataIntegrityViolationException ex) {
         Throwable root = ex.getRootCause();
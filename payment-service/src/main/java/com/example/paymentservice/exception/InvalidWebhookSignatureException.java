@@ -0,0 +1,10 @@
+package com.example.paymentservice.exception;
+
+/**
+ * A webhook request whose Stripe-Signature does not match its payload
+ */
+public class InvalidWebhookSignatureException extends RuntimeException {
+    public InvalidWebhookSignatureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.paymentservice.exception;
+
+/**
+ * The original request for an Idempotency-Key is still running and did not finish in time
+ */
+public class RequestInProgressException extends RuntimeException {
+    public RequestInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.entity.OutboxEvent;
+import com.example.paymentservice.entity.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, String> {
+
+    /**
+     * Lock due events, oldest first. Rows locked by another dispatcher instance are skipped
+     * (lock timeout -2 = SKIP LOCKED), so instances never claim the same event.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = com.example.paymentservice.entity.OutboxStatus.PENDING " +
+            "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<OutboxEvent> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(OutboxStatus status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = com.example.paymentservice.entity.OutboxStatus.PENDING")
+    LocalDateTime oldestPendingCreatedAt();
+
+    /**
+     * @return number of delivered events removed
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.example.paymentservice.entity.OutboxStatus.DELIVERED " +
+            "AND e.deliveredAt < :cutoff")
+    int deleteDeliveredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
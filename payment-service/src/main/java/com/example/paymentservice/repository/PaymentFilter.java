@@ -0,0 +1,16 @@
+package com.example.paymentservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria for payment history listings; null fields are not filtered on
+ *
+ * @param userId        owner of the payments
+ * @param status        e.g. COMPLETED
+ * @param paymentMethod e.g. CARD
+ * @param from          created at or after (inclusive)
+ * @param to            created before (exclusive)
+ */
+public record PaymentFilter(String userId, String status, String paymentMethod,
+                            LocalDateTime from, LocalDateTime to) {
+}
@@ -3,13 +3,15 @@ package com.example.paymentservice.repository;
 import com.example.paymentservice.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, String> {
+public interface PaymentRepository extends JpaRepository<Payment, String>, PaymentRepositoryCustom {
     Optional<Payment> findByOrderId(String orderId);
     Optional<Payment> findByReference(String reference);   // ← added for Stripe webhook lookup
+    List<Payment> findByReferenceIn(Collection<String> references);
     List<Payment> findByStatus(String status);
     List<Payment> findByUserId(String userId);
     List<Payment> findByItemId(String itemId);
@@ -0,0 +1,21 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.entity.Payment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * One page of payment history, newest first (createdAt then id, descending)
+     *
+     * @param filter         criteria every row must match
+     * @param afterCreatedAt createdAt of the last row of the previous page, or null
+     * @param afterId        id of the last row of the previous page, or null for the first page
+     * @param offset         rows to skip; 0 when paging by keyset
+     * @param limit          maximum number of rows
+     */
+    List<Payment> findHistoryPage(PaymentFilter filter, LocalDateTime afterCreatedAt, String afterId,
+                                  int offset, int limit);
+}
@@ -0,0 +1,64 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.entity.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtered history listing ordered to match the {@code (…, createdAt, id)} indexes on {@link Payment},
+ * so each page is an index range scan whether it is reached by keyset or by offset
+ */
+class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Payment> findHistoryPage(PaymentFilter filter, LocalDateTime afterCreatedAt, String afterId,
+                                         int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Payment> query = cb.createQuery(Payment.class);
+        Root<Payment> root = query.from(Payment.class);
+        Path<LocalDateTime> createdAt = root.get("createdAt");
+        Path<String> id = root.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter.userId() != null) {
+            where.add(cb.equal(root.get("userId"), filter.userId()));
+        }
+        if (filter.status() != null) {
+            where.add(cb.equal(root.get("status"), filter.status()));
+        }
+        if (filter.paymentMethod() != null) {
+            where.add(cb.equal(root.get("paymentMethod"), filter.paymentMethod()));
+        }
+        if (filter.from() != null) {
+            where.add(cb.greaterThanOrEqualTo(createdAt, filter.from()));
+        }
+        if (filter.to() != null) {
+            where.add(cb.lessThan(createdAt, filter.to()));
+        }
+        if (afterId != null) {
+            where.add(cb.or(cb.lessThan(createdAt, afterCreatedAt),
+                    cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(id, afterId))));
+        }
+        query.where(where.toArray(Predicate[]::new));
+        query.orderBy(cb.desc(createdAt), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.entity.StripeWebhookEvent;
+import com.example.paymentservice.entity.WebhookEventStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, String> {
+
+    /**
+     * Lock due events, oldest first, skipping rows locked by other workers (lock timeout -2 = SKIP LOCKED).
+     * An event is only due once every earlier pending event of its PaymentIntent is done, so each
+     * intent's events are applied one at a time and in order, whichever worker or instance claims them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM StripeWebhookEvent e WHERE e.status = com.example.paymentservice.entity.WebhookEventStatus.PENDING " +
+            "AND e.nextAttemptAt <= :now AND NOT EXISTS (SELECT 1 FROM StripeWebhookEvent p " +
+            "WHERE p.paymentIntentId = e.paymentIntentId " +
+            "AND p.status = com.example.paymentservice.entity.WebhookEventStatus.PENDING " +
+            "AND (p.stripeCreatedAt < e.stripeCreatedAt " +
+            "OR (p.stripeCreatedAt = e.stripeCreatedAt AND p.receivedAt < e.receivedAt) " +
+            "OR (p.stripeCreatedAt = e.stripeCreatedAt AND p.receivedAt = e.receivedAt AND p.id < e.id))) " +
+            "ORDER BY e.stripeCreatedAt, e.receivedAt")
+    List<StripeWebhookEvent> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(WebhookEventStatus status);
+
+    @Query("SELECT MIN(e.receivedAt) FROM StripeWebhookEvent e WHERE e.status = com.example.paymentservice.entity.WebhookEventStatus.PENDING")
+    LocalDateTime oldestPendingReceivedAt();
+
+    /**
+     * @return number of processed events removed
+     */
+    @Modifying
+    @Query("DELETE FROM StripeWebhookEvent e WHERE e.status = com.example.paymentservice.entity.WebhookEventStatus.PROCESSED " +
+            "AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
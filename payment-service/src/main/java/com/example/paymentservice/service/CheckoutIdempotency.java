@@ -0,0 +1,283 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.dto.PaymentRequest;
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.entity.IdempotencyRecord;
+import com.example.paymentservice.exception.IdempotencyKeyReuseException;
+import com.example.paymentservice.exception.RequestInProgressException;
+import com.example.paymentservice.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Idempotency-Key handling for checkout.
+ * <p>
+ * Keys are scoped per user. A hot in-memory index holds the checkouts of the last
+ * {@code app.idempotency.hot-ttl}: a duplicate arriving while the original runs waits for it, and
+ * one arriving afterwards gets the same response, without touching the database or other services.
+ * The {@link IdempotencyRecord} table is the durable store shared by all instances; its unique
+ * constraint makes a duplicate on another instance wait for the original's commit. Failed checkouts
+ * are not remembered, so the client can retry them with the same key.
+ */
+@Component
+public class CheckoutIdempotency {
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutIdempotency.class);
+
+    static final int MAX_KEY_LENGTH = 200;
+
+    /** How long keys are kept in the database */
+    @Value("${app.idempotency.ttl:P1D}")
+    private Duration ttl = Duration.ofDays(1);
+
+    /** How long completed checkouts stay in the in-memory index */
+    @Value("${app.idempotency.hot-ttl:PT10M}")
+    private Duration hotTtl = Duration.ofMinutes(10);
+
+    /** Upper bound on the in-memory index; older completed entries are dropped first */
+    @Value("${app.idempotency.hot-max-entries:10000}")
+    private int hotMaxEntries = 10000;
+
+    /** How long a duplicate waits for the original before answering 409 */
+    @Value("${app.idempotency.wait-timeout:PT30S}")
+    private Duration waitTimeout = Duration.ofSeconds(30);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactions;
+
+    private ScheduledExecutorService sweeper;
+
+    private final ConcurrentHashMap<String, InFlight> hot = new ConcurrentHashMap<>();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+
+    /**
+     * Result of a checkout made with an idempotency key
+     *
+     * @param response the payment
+     * @param replayed true if an earlier request with the same key produced it
+     */
+    public record Outcome(PaymentResponse response, boolean replayed) {
+    }
+
+    /** A checkout for one key, possibly still running */
+    private static final class InFlight {
+        private final String requestHash;
+        private final CompletableFuture<PaymentResponse> result = new CompletableFuture<>();
+        private volatile long completedAtNanos;
+
+        private InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        transactions = new TransactionTemplate(transactionManager);
+        if (meterRegistry != null) {
+            FunctionCounter.builder("payment.idempotency.requests", executed, AtomicLong::get)
+                    .description("Checkouts with an Idempotency-Key that were executed")
+                    .tag("result", "executed")
+                    .register(meterRegistry);
+            FunctionCounter.builder("payment.idempotency.requests", replayed, AtomicLong::get)
+                    .description("Checkouts with an Idempotency-Key answered with the original response")
+                    .tag("result", "replayed")
+                    .register(meterRegistry);
+            Gauge.builder("payment.idempotency.hot.size", hot, ConcurrentHashMap::size)
+                    .description("Keys in the in-memory idempotency index")
+                    .register(meterRegistry);
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Run a checkout at most once per user and key
+     * @throws IdempotencyKeyReuseException if the key was used for a different request
+     * @throws RequestInProgressException   if the original is still running after the wait timeout
+     */
+    public Outcome checkout(String userId, String key, PaymentRequest request) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String scopedKey = userId + '\n' + key;
+        String requestHash = fingerprint(request);
+
+        InFlight created = new InFlight(requestHash);
+        InFlight existing = hot.putIfAbsent(scopedKey, created);
+        if (existing != null) {
+            checkSameRequest(existing.requestHash, requestHash, key);
+            replayed.incrementAndGet();
+            return new Outcome(await(existing, key), true);
+        }
+
+        try {
+            Outcome outcome = execute(userId, key, requestHash, request);
+            created.completedAtNanos = System.nanoTime();
+            created.result.complete(outcome.response());
+            return outcome;
+        } catch (RuntimeException ex) {
+            // Not remembered: waiting duplicates see the failure, later retries run again
+            hot.remove(scopedKey, created);
+            created.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private Outcome execute(String userId, String key, String requestHash, PaymentRequest request) {
+        IdempotencyRecord stored = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, key).orElse(null);
+        if (stored != null) {
+            return replay(stored, requestHash, key);
+        }
+        try {
+            PaymentResponse response = transactions.execute(status -> {
+                // Inserted first: a concurrent duplicate on another instance blocks on the unique key until we commit
+                IdempotencyRecord record = idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .userId(userId)
+                        .idempotencyKey(key)
+                        .requestHash(requestHash)
+                        .expiresAt(LocalDateTime.now().plus(ttl))
+                        .build());
+                PaymentResponse created = paymentService.checkout(request);
+                record.setPaymentId(created.getId());
+                return created;
+            });
+            executed.incrementAndGet();
+            return new Outcome(response, false);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance committed the same key first
+            IdempotencyRecord winner = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, key)
+                    .orElseThrow(() -> e);
+            return replay(winner, requestHash, key);
+        }
+    }
+
+    private Outcome replay(IdempotencyRecord record, String requestHash, String key) {
+        checkSameRequest(record.getRequestHash(), requestHash, key);
+        replayed.incrementAndGet();
+        logger.info("Checkout with Idempotency-Key {} already processed as payment {}", key, record.getPaymentId());
+        return new Outcome(paymentService.getCheckoutResult(record.getPaymentId()), true);
+    }
+
+    private PaymentResponse await(InFlight inFlight, String key) {
+        try {
+            return inFlight.result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RequestInProgressException("Checkout with Idempotency-Key " + key + " is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException("Interrupted while waiting for Idempotency-Key " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash, String key) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyReuseException("Idempotency-Key " + key + " was already used for a different checkout");
+        }
+    }
+
+    /** SHA-256 of the fields that define a checkout; amounts compare by value (10.0 = 10.00) */
+    static String fingerprint(PaymentRequest request) {
+        BigDecimal amount = request.getAmount();
+        String canonical = String.join("\n",
+                String.valueOf(request.getItemId()),
+                String.valueOf(request.getOrderId()),
+                String.valueOf(request.getQuantity()),
+                amount != null ? amount.stripTrailingZeros().toPlainString() : "null",
+                String.valueOf(request.getPaymentMethod()));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Drop completed in-memory entries past the hot TTL (oldest first above the size limit)
+     * and expired keys from the database
+     */
+    public void sweep() {
+        long now = System.nanoTime();
+        long hotTtlNanos = hotTtl.toNanos();
+        hot.entrySet().removeIf(entry -> entry.getValue().result.isDone()
+                && now - entry.getValue().completedAtNanos > hotTtlNanos);
+        int excess = hot.size() - hotMaxEntries;
+        if (excess > 0) {
+            hot.entrySet().stream()
+                    .filter(entry -> entry.getValue().result.isDone())
+                    .sorted((a, b) -> Long.compare(a.getValue().completedAtNanos, b.getValue().completedAtNanos))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(hot::remove);
+        }
+        int purged = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (RuntimeException ex) {
+            logger.warn("Idempotency key sweep failed: {}", ex.getMessage());
+        }
+    }
+}
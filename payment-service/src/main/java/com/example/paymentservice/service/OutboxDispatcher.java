@@ -0,0 +1,344 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.client.CatalogServiceClient;
+import com.example.paymentservice.client.OrderServiceClient;
+import com.example.paymentservice.entity.OutboxEvent;
+import com.example.paymentservice.entity.OutboxStatus;
+import com.example.paymentservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers outbox events to order-service and catalog-service.
+ * <p>
+ * Due events are claimed in batches: they are locked with SKIP LOCKED and leased by pushing
+ * {@code nextAttemptAt} forward, then delivered outside any transaction. Each outcome is saved as
+ * soon as that event is delivered, and a batch still running at half its lease hands the rest back,
+ * so no other instance re-claims an event while it is being delivered here. Failed deliveries are
+ * retried with exponential backoff and jitter; events the receiver rejects, or that run out of
+ * attempts, are marked DEAD. Every delivery carries the event's idempotency key, so a retry after
+ * a lost response or an expired lease is not applied twice. Runs on a poll interval and right
+ * after each checkout commits.
+ */
+@Component
+public class OutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final String PAID = "PAID";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.outbox.poll-interval:PT2S}")
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    /** Events claimed per database round trip */
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${app.outbox.max-attempts:12}")
+    private int maxAttempts = 12;
+
+    @Value("${app.outbox.initial-backoff:PT2S}")
+    private Duration initialBackoff = Duration.ofSeconds(2);
+
+    @Value("${app.outbox.max-backoff:PT10M}")
+    private Duration maxBackoff = Duration.ofMinutes(10);
+
+    /** A claimed event becomes due again after this long if its instance dies mid-delivery */
+    @Value("${app.outbox.lease:PT1M}")
+    private Duration lease = Duration.ofMinutes(1);
+
+    /** Delivered events are deleted after this long */
+    @Value("${app.outbox.retention:P7D}")
+    private Duration retention = Duration.ofDays(7);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private CatalogServiceClient catalogServiceClient;
+
+    @Autowired(required = false)
+    private OrderServiceClient orderServiceClient;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactions;
+
+    private ScheduledExecutorService worker;
+
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+
+    private volatile long lastPurgeMillis;
+
+    private Timer deliveryLag;
+
+    private enum Outcome { DELIVERED, RETRY, REJECTED }
+
+    @PostConstruct
+    public void init() {
+        transactions = new TransactionTemplate(transactionManager);
+        if (meterRegistry != null) {
+            Gauge.builder("payment.outbox.pending", pending, AtomicLong::get)
+                    .description("Outbox events waiting for delivery")
+                    .register(meterRegistry);
+            Gauge.builder("payment.outbox.oldest.age", this, dispatcher -> dispatcher.oldestPendingAgeSeconds())
+                    .description("Age of the oldest undelivered outbox event")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            deliveryLag = Timer.builder("payment.outbox.delivery.lag")
+                    .description("Time from checkout commit to successful delivery of its side effect")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        if (enabled) {
+            worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "outbox-dispatcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = pollInterval.toMillis();
+            worker.scheduleWithFixedDelay(this::dispatchQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    /**
+     * Deliver the new events right after the checkout commits instead of on the next poll
+     */
+    @TransactionalEventListener
+    public void onEnqueued(OutboxEnqueuedEvent event) {
+        if (worker != null && wakeScheduled.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                wakeScheduled.set(false);
+                dispatchQuietly();
+            });
+        }
+    }
+
+    /**
+     * Deliver every due event
+     * @return number of events delivered
+     */
+    public int dispatch() {
+        int delivered = 0;
+        List<OutboxEvent> batch;
+        do {
+            batch = claim();
+            LocalDateTime deadline = LocalDateTime.now().plus(lease.dividedBy(2));
+            for (int i = 0; i < batch.size(); i++) {
+                if (LocalDateTime.now().isAfter(deadline)) {
+                    unclaim(batch.subList(i, batch.size()));
+                    return delivered;
+                }
+                OutboxEvent event = batch.get(i);
+                if (apply(event, deliver(event))) {
+                    delivered++;
+                }
+                transactions.executeWithoutResult(status -> outboxEventRepository.save(event));
+            }
+        } while (batch.size() == batchSize);
+        return delivered;
+    }
+
+    private void dispatchQuietly() {
+        try {
+            int delivered = dispatch();
+            if (delivered > 0) {
+                logger.debug("Delivered {} outbox events", delivered);
+            }
+            refreshStats();
+            purgeDelivered();
+        } catch (RuntimeException ex) {
+            logger.warn("Outbox dispatch failed: {}", ex.getMessage());
+        }
+    }
+
+    /** Lock a batch of due events and lease them to this instance */
+    private List<OutboxEvent> claim() {
+        return transactions.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.lockDue(now, PageRequest.of(0, batchSize));
+            due.forEach(event -> event.setNextAttemptAt(now.plus(lease)));
+            return due;
+        });
+    }
+
+    /** Make leased events that were not attempted due again right away */
+    private void unclaim(List<OutboxEvent> events) {
+        logger.warn("Outbox batch ran past half its lease; returning {} undelivered events", events.size());
+        LocalDateTime now = LocalDateTime.now();
+        events.forEach(event -> event.setNextAttemptAt(now));
+        transactions.executeWithoutResult(status -> outboxEventRepository.saveAll(events));
+    }
+
+    private Outcome deliver(OutboxEvent event) {
+        try {
+            return switch (event.getType()) {
+                case ORDER_PAID -> deliverOrderPaid(event);
+                case STOCK_DECREMENT -> deliverStockDecrement(event);
+            };
+        } catch (RuntimeException ex) {
+            event.setLastError(truncate(ex.getMessage()));
+            return Outcome.RETRY;
+        }
+    }
+
+    private Outcome deliverOrderPaid(OutboxEvent event) {
+        if (orderServiceClient == null) {
+            return Outcome.RETRY;
+        }
+        Object order;
+        try {
+            order = orderServiceClient.updateOrderStatus(event.getTargetId(), PAID, event.getIdempotencyKey());
+        } catch (HttpClientErrorException e) {
+            event.setLastError(truncate("Order status update rejected (" + e.getStatusCode() + "): "
+                    + e.getResponseBodyAsString()));
+            // A key still being applied or throttling clears up on its own; anything else never will
+            return switch (e.getStatusCode().value()) {
+                case 408, 409, 429 -> Outcome.RETRY;
+                default -> Outcome.REJECTED;
+            };
+        }
+        if (order == null) {
+            event.setLastError("order-service did not confirm the status update");
+            return Outcome.RETRY;
+        }
+        return Outcome.DELIVERED;
+    }
+
+    private Outcome deliverStockDecrement(OutboxEvent event) {
+        if (catalogServiceClient == null) {
+            return Outcome.RETRY;
+        }
+        Map<String, Object> result = catalogServiceClient.decrementStockBatch(
+                Map.of(event.getTargetId(), event.getQuantity()), event.getIdempotencyKey());
+        if (result == null || !(result.get("applied") instanceof Boolean applied)) {
+            // Unreachable, or a conflict such as the same key still being applied; try again later
+            event.setLastError(result == null ? "catalog-service unreachable" : truncate(String.valueOf(result.get("message"))));
+            return Outcome.RETRY;
+        }
+        if (!applied) {
+            event.setLastError(truncate("Stock decrement rejected: " + result.get("results")));
+            return Outcome.REJECTED;
+        }
+        return Outcome.DELIVERED;
+    }
+
+    /**
+     * Update the event for its delivery outcome
+     * @return true if delivered
+     */
+    private boolean apply(OutboxEvent event, Outcome outcome) {
+        LocalDateTime now = LocalDateTime.now();
+        event.setAttempts(event.getAttempts() + 1);
+        if (outcome == Outcome.DELIVERED) {
+            event.setStatus(OutboxStatus.DELIVERED);
+            event.setDeliveredAt(now);
+            event.setLastError(null);
+            if (deliveryLag != null) {
+                deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+            }
+        } else if (outcome == Outcome.REJECTED || event.getAttempts() >= maxAttempts) {
+            event.setStatus(OutboxStatus.DEAD);
+            logger.error("Outbox event {} ({} {} for payment {}) is dead after {} attempts: {}", event.getId(),
+                    event.getType(), event.getTargetId(), event.getPaymentId(), event.getAttempts(), event.getLastError());
+        } else {
+            event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+        }
+        count(event, outcome == Outcome.RETRY && event.getStatus() == OutboxStatus.DEAD ? "dead"
+                : outcome.name().toLowerCase());
+        return outcome == Outcome.DELIVERED;
+    }
+
+    /** Exponential backoff with ±20% jitter so failed events do not retry in lockstep */
+    private Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (capped * jitter));
+    }
+
+    private void count(OutboxEvent event, String outcome) {
+        if (meterRegistry != null) {
+            Counter.builder("payment.outbox.deliveries")
+                    .description("Outbox delivery attempts by outcome")
+                    .tag("type", event.getType().name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private void refreshStats() {
+        pending.set(outboxEventRepository.countByStatus(OutboxStatus.PENDING));
+        oldestPending.set(outboxEventRepository.oldestPendingCreatedAt());
+    }
+
+    private double oldestPendingAgeSeconds() {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    private void purgeDelivered() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeMillis < TimeUnit.HOURS.toMillis(1)) {
+            return;
+        }
+        lastPurgeMillis = now;
+        Integer purged = transactions.execute(status ->
+                outboxEventRepository.deleteDeliveredBefore(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} delivered outbox events", purged);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.paymentservice.service;
+
+/**
+ * Published when outbox events are written; the dispatcher runs right after the transaction commits
+ * instead of waiting for its next poll
+ */
+public record OutboxEnqueuedEvent(String paymentId) {
+}
@@ -0,0 +1,43 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.entity.OutboxEvent;
+import com.example.paymentservice.entity.OutboxEventType;
+import com.example.paymentservice.repository.OutboxEventRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes checkout side effects to the transactional outbox. Must be called inside the transaction
+ * that saves the payment, so either both are stored or neither is.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ApplicationEventPublisher eventPublisher) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @param paymentId payment the side effect belongs to
+     * @param targetId  order id for ORDER_PAID, itemId for STOCK_DECREMENT
+     * @param quantity  units for STOCK_DECREMENT, otherwise null
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueue(OutboxEventType type, String paymentId, String targetId, Integer quantity) {
+        OutboxEvent event = outboxEventRepository.save(OutboxEvent.builder()
+                .type(type)
+                .paymentId(paymentId)
+                .targetId(targetId)
+                .quantity(quantity)
+                .idempotencyKey("payment:" + paymentId + ":" + type)
+                .build());
+        eventPublisher.publishEvent(new OutboxEnqueuedEvent(paymentId));
+        return event;
+    }
+}
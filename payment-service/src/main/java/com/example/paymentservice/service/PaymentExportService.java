@@ -0,0 +1,225 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.repository.PaymentFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams payments for finance reconciliation straight from a forward-only JDBC cursor to the response.
+ * <p>
+ * Rows are read {@code app.export.fetch-size} at a time inside a read-only transaction (Postgres only
+ * uses a server-side cursor when autocommit is off) and written as they arrive, so memory stays flat
+ * however many rows match. Rows are in {@code createdAt, id} order and carry the catalog itemId only;
+ * there is no per-row catalog lookup.
+ */
+@Service
+public class PaymentExportService {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentExportService.class);
+
+    static final String[] COLUMNS = {"id", "reference", "createdAt", "updatedAt", "userId", "orderId", "itemId",
+            "quantity", "amount", "paymentMethod", "status", "isSuccessCheckout"};
+
+    private static final String SELECT = "SELECT id, reference, created_at, updated_at, user_id, order_id, item_id,"
+            + " quantity, amount, payment_method, status, is_success_checkout FROM payments";
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Write every payment matching the filter (status and createdAt range; userId and paymentMethod
+     * are honoured too) to {@code target}
+     * @return number of rows written
+     */
+    public long export(PaymentFilter filter, ExportFormat format, OutputStream target) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (filter.userId() != null) {
+            sql.append(" AND user_id = ?");
+            args.add(filter.userId());
+        }
+        if (filter.status() != null) {
+            sql.append(" AND status = ?");
+            args.add(filter.status());
+        }
+        if (filter.paymentMethod() != null) {
+            sql.append(" AND payment_method = ?");
+            args.add(filter.paymentMethod());
+        }
+        if (filter.from() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        sql.append(" ORDER BY created_at, id");
+
+        OutputStream out = new BufferedOutputStream(target, 64 * 1024);
+        RowWriter writer = format == ExportFormat.CSV ? new CsvWriter(out) : new NdjsonWriter(out);
+        long started = System.nanoTime();
+        long[] rows = {0};
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            writer.header();
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, (RowCallbackHandler) resultSet -> {
+                try {
+                    writer.row(resultSet);
+                    rows[0]++;
+                } catch (IOException e) {
+                    // Client went away; abandon the cursor
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            out.flush();
+        } catch (UncheckedIOException e) {
+            logger.info("Payment export aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        logger.info("Exported {} payments as {} in {} ms", rows[0], format,
+                (System.nanoTime() - started) / 1_000_000);
+        return rows[0];
+    }
+
+    private interface RowWriter {
+        void header() throws IOException;
+
+        void row(ResultSet resultSet) throws SQLException, IOException;
+    }
+
+    /** RFC 4180 CSV with a header line */
+    private static final class CsvWriter implements RowWriter {
+        private final OutputStream out;
+        private final StringBuilder line = new StringBuilder(256);
+
+        private CsvWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void header() throws IOException {
+            out.write(String.join(",", COLUMNS).getBytes(StandardCharsets.UTF_8));
+            out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            line.setLength(0);
+            text(rs.getString(1)).append(',');
+            text(rs.getString(2)).append(',');
+            plain(timestamp(rs.getTimestamp(3))).append(',');
+            plain(timestamp(rs.getTimestamp(4))).append(',');
+            text(rs.getString(5)).append(',');
+            text(rs.getString(6)).append(',');
+            text(rs.getString(7)).append(',');
+            plain(rs.getObject(8)).append(',');
+            BigDecimal amount = rs.getBigDecimal(9);
+            plain(amount != null ? amount.toPlainString() : null).append(',');
+            text(rs.getString(10)).append(',');
+            text(rs.getString(11)).append(',');
+            plain(rs.getObject(12));
+            line.append("\r\n");
+            out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private StringBuilder plain(Object value) {
+            return value != null ? line.append(value) : line;
+        }
+
+        /**
+         * Quotes when needed; a leading =, +, -, @, tab or carriage return is prefixed with ' so
+         * spreadsheets do not evaluate user-supplied ids as formulas
+         */
+        private StringBuilder text(String value) {
+            if (value == null || value.isEmpty()) {
+                return line;
+            }
+            char first = value.charAt(0);
+            if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return line.append(value);
+            }
+            return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    /** One JSON object per line */
+    private final class NdjsonWriter implements RowWriter {
+        private final OutputStream out;
+
+        private NdjsonWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void header() {
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(COLUMNS[0], rs.getString(1));
+            row.put(COLUMNS[1], rs.getString(2));
+            row.put(COLUMNS[2], timestamp(rs.getTimestamp(3)));
+            row.put(COLUMNS[3], timestamp(rs.getTimestamp(4)));
+            row.put(COLUMNS[4], rs.getString(5));
+            row.put(COLUMNS[5], rs.getString(6));
+            row.put(COLUMNS[6], rs.getString(7));
+            row.put(COLUMNS[7], rs.getObject(8));
+            row.put(COLUMNS[8], rs.getBigDecimal(9));
+            row.put(COLUMNS[9], rs.getString(10));
+            row.put(COLUMNS[10], rs.getString(11));
+            row.put(COLUMNS[11], rs.getObject(12));
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        }
+    }
+
+    private static String timestamp(Timestamp value) {
+        return value != null ? value.toLocalDateTime().toString() : null;
+    }
+}
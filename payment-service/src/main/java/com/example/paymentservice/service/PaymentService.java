@@ -1,13 +1,17 @@
 package com.example.paymentservice.service;
 
+import com.example.paymentservice.dto.PaymentPageResponse;
 import com.example.paymentservice.dto.PaymentRequest;
 import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.repository.PaymentFilter;
 import java.util.List;
 
 public interface PaymentService {
     PaymentResponse checkout(PaymentRequest request);
+    PaymentResponse getCheckoutResult(String paymentId);
     List<PaymentResponse> getAllOrders();
     PaymentResponse getPaymentById(String paymentId);
     PaymentResponse getPaymentByOrderId(String orderId);
     List<PaymentResponse> getPaymentsByUser(String userId);
+    PaymentPageResponse getPaymentsPage(PaymentFilter filter, Integer page, String cursor, int limit);
 }
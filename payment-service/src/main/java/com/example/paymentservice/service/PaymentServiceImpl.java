@@ -1,10 +1,12 @@
 package com.example.paymentservice.service;
 
 import com.example.paymentservice.client.CatalogServiceClient;
-import com.example.paymentservice.client.OrderServiceClient;
+import com.example.paymentservice.dto.PaymentPageResponse;
 import com.example.paymentservice.dto.PaymentRequest;
 import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.entity.OutboxEventType;
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.repository.PaymentFilter;
 import com.example.paymentservice.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -13,8 +15,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,14 +28,16 @@ import java.util.stream.Collectors;
 public class PaymentServiceImpl implements PaymentService {
     private static final Logger logger = LoggerFactory.getLogger(PaymentServiceImpl.class);
 
+    static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private PaymentRepository paymentRepository;
 
     @Autowired(required = false)
     private CatalogServiceClient catalogServiceClient;
 
-    @Autowired(required = false)
-    private OrderServiceClient orderServiceClient;
+    @Autowired
+    private OutboxService outboxService;
 
     // ── helper ────────────────────────────────────────────────────────────────
 
@@ -51,20 +59,42 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     private PaymentResponse enrichWithCatalog(PaymentResponse resp) {
-        if (catalogServiceClient != null && resp.getItemId() != null) {
-            try {
-                Map<String, Object> item = catalogServiceClient.getItemByItemId(resp.getItemId());
-                if (item != null) {
-                    resp.setItemName((String) item.get("name"));
-                    resp.setItemCategory((String) item.get("category"));
-                    Object stock = item.get("stockCount");
-                    if (stock instanceof Number number) resp.setRemainingStock(number.intValue());
-                }
-            } catch (Exception e) {
-                logger.warn("Could not enrich payment {} with catalog info: {}", resp.getId(), e.getMessage());
+        enrichWithCatalog(List.of(resp));
+        return resp;
+    }
+
+    /**
+     * Add catalog details to the responses with one bulk lookup for their distinct itemIds.
+     * Rows whose item cannot be resolved are returned as they are.
+     */
+    private List<PaymentResponse> enrichWithCatalog(List<PaymentResponse> responses) {
+        if (catalogServiceClient == null || responses.isEmpty()) {
+            return responses;
+        }
+        Set<String> itemIds = responses.stream()
+                .map(PaymentResponse::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (itemIds.isEmpty()) {
+            return responses;
+        }
+        Map<String, Map<String, Object>> items;
+        try {
+            items = catalogServiceClient.lookupItems(itemIds);
+        } catch (Exception e) {
+            logger.warn("Could not enrich {} payments with catalog info: {}", responses.size(), e.getMessage());
+            return responses;
+        }
+        for (PaymentResponse resp : responses) {
+            Map<String, Object> item = resp.getItemId() != null ? items.get(resp.getItemId()) : null;
+            if (item != null) {
+                resp.setItemName((String) item.get("name"));
+                resp.setItemCategory((String) item.get("category"));
+                Object stock = item.get("stockCount");
+                if (stock instanceof Number number) resp.setRemainingStock(number.intValue());
             }
         }
-        return resp;
+        return responses;
     }
 
     // ── checkout ──────────────────────────────────────────────────────────────
@@ -103,37 +133,37 @@ public class PaymentServiceImpl implements PaymentService {
         Payment saved = paymentRepository.save(payment);
         logger.info("Payment {} saved with reference {}", saved.getId(), reference);
 
-        // Update order status (integration point with order-service)
-        if (orderServiceClient != null && saved.getIsSuccessCheckout() && saved.getOrderId() != null && !saved.getOrderId().isBlank()) {
-            try {
-                orderServiceClient.updateOrderStatus(saved.getOrderId(), "PAID");
-                logger.info("Order {} marked as PAID", saved.getOrderId());
-            } catch (Exception e) {
-                logger.warn("Could not update order status for {}: {}", saved.getOrderId(), e.getMessage());
+        // Order status and stock are updated by the outbox dispatcher once this transaction commits
+        if (saved.getIsSuccessCheckout()) {
+            if (saved.getOrderId() != null && !saved.getOrderId().isBlank()) {
+                outboxService.enqueue(OutboxEventType.ORDER_PAID, saved.getId(), saved.getOrderId(), null);
             }
+            outboxService.enqueue(OutboxEventType.STOCK_DECREMENT, saved.getId(), saved.getItemId(), saved.getQuantity());
         }
 
-        // Decrement catalog stock in real-time
-        if (catalogServiceClient != null && saved.getIsSuccessCheckout()) {
-            Map<String, Object> updatedItem = catalogServiceClient.decrementStock(
-                    saved.getItemId(), saved.getQuantity());
-            if (updatedItem != null) {
-                Object remaining = updatedItem.get("stockCount");
-                logger.info("Stock decremented. Remaining for {}: {}", saved.getItemId(), remaining);
-            }
-        }
-
-        return enrichWithCatalog(toResponse(saved));
+        return toResponse(saved);
     }
 
     // ── queries ───────────────────────────────────────────────────────────────
 
+    /**
+     * The checkout response for a stored payment, read locally without catalog enrichment
+     * (used to replay an idempotent checkout)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PaymentResponse getCheckoutResult(String paymentId) {
+        Payment p = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId));
+        return toResponse(p);
+    }
+
     @Override
     public List<PaymentResponse> getAllOrders() {
-        return paymentRepository.findAllByOrderByCreatedAtDesc()
+        return enrichWithCatalog(paymentRepository.findAllByOrderByCreatedAtDesc()
                 .stream()
-                .map(p -> enrichWithCatalog(toResponse(p)))
-                .collect(Collectors.toList());
+                .map(this::toResponse)
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -152,9 +182,56 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public List<PaymentResponse> getPaymentsByUser(String userId) {
-        return paymentRepository.findByUserId(userId)
+        return enrichWithCatalog(paymentRepository.findByUserId(userId)
                 .stream()
-                .map(p -> enrichWithCatalog(toResponse(p)))
-                .collect(Collectors.toList());
+                .map(this::toResponse)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * One page of history matching the filter, newest first. Pages are addressed either by
+     * {@code cursor} (keyset; cost independent of depth) or by zero-based {@code page} number
+     * (offset; for page-number UIs over shallow result sets). Every page carries the cursor of the next.
+     */
+    @Override
+    public PaymentPageResponse getPaymentsPage(PaymentFilter filter, Integer page, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        boolean byCursor = cursor != null && !cursor.isBlank();
+        if (byCursor && page != null) {
+            throw new IllegalArgumentException("Pass either page or cursor, not both");
+        }
+        if (page != null && page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        if (filter.from() != null && filter.to() != null && !filter.from().isBefore(filter.to())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        PaymentFilter normalized = new PaymentFilter(filter.userId(), upper(filter.status()),
+                upper(filter.paymentMethod()), filter.from(), filter.to());
+
+        PaymentCursor after = byCursor ? PaymentCursor.decode(cursor) : null;
+        int offset = page != null ? Math.multiplyExact(page, limit) : 0;
+
+        // Fetch one extra row to learn whether another page follows. The query runs in its own read-only
+        // transaction, so no connection is held while the page is enriched from catalog-service.
+        List<Payment> rows = paymentRepository.findHistoryPage(normalized,
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, offset, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<Payment> payments = hasMore ? rows.subList(0, limit) : rows;
+
+        return PaymentPageResponse.builder()
+                .items(enrichWithCatalog(payments.stream()
+                        .map(this::toResponse)
+                        .collect(Collectors.toList())))
+                .limit(limit)
+                .page(byCursor ? null : (page != null ? page : 0))
+                .nextCursor(hasMore ? PaymentCursor.after(payments.get(limit - 1)).encode() : null)
+                .build();
+    }
+
+    private static String upper(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toUpperCase(Locale.ROOT);
     }
 }
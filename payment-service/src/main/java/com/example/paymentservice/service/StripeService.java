@@ -3,7 +3,12 @@ package com.example.paymentservice.service;
 import com.example.paymentservice.dto.StripeCheckoutRequest;
 import com.example.paymentservice.dto.StripeCheckoutResponse;
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.StripeWebhookEvent;
+import com.example.paymentservice.exception.InvalidWebhookSignatureException;
 import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.repository.StripeWebhookEventRepository;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.stripe.Stripe;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
@@ -11,13 +16,20 @@ import com.stripe.model.Event;
 import com.stripe.model.PaymentIntent;
 import com.stripe.net.Webhook;
 import com.stripe.param.PaymentIntentCreateParams;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Service
 public class StripeService {
@@ -31,9 +43,18 @@ public class StripeService {
     private String webhookSecret;
 
     private final PaymentRepository paymentRepository;
+    private final StripeWebhookEventRepository webhookEventRepository;
+    private final StripeWebhookProcessor webhookProcessor;
 
-    public StripeService(PaymentRepository paymentRepository) {
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    public StripeService(PaymentRepository paymentRepository,
+                         StripeWebhookEventRepository webhookEventRepository,
+                         StripeWebhookProcessor webhookProcessor) {
         this.paymentRepository = paymentRepository;
+        this.webhookEventRepository = webhookEventRepository;
+        this.webhookProcessor = webhookProcessor;
     }
 
     // Set the Stripe API key once on startup
@@ -101,14 +122,19 @@ public class StripeService {
     // ── 2. Handle Webhook ─────────────────────────────────────────────────────
 
     /**
-     * Verifies the Stripe webhook signature and processes the event.
-     * Called by StripeController when Stripe POSTs to /payments/stripe/webhook.
+     * Verifies the Stripe webhook signature and stores the event for {@link StripeWebhookProcessor}.
+     * Called by StripeController when Stripe POSTs to /payments/stripe/webhook; only the insert runs
+     * on the request thread, so Stripe is acknowledged immediately.
      *
      * Key events handled:
-     *   payment_intent.succeeded  → mark payment COMPLETED
-     *   payment_intent.payment_failed → mark payment FAILED
+     *   payment_intent.succeeded, charge.succeeded          → mark payment COMPLETED
+     *   payment_intent.payment_failed, charge.failed        → mark payment FAILED
+     *   payment_intent.canceled                             → mark payment CANCELLED
+     *
+     * @return false if the event was already received (Stripe retried it), or is of a type we ignore
+     * @throws InvalidWebhookSignatureException if the signature does not match the payload
      */
-    public void handleWebhook(String payload, String sigHeader) {
+    public boolean handleWebhook(String payload, String sigHeader) {
         Event event;
 
         // Step 1: Verify the webhook came from Stripe (not a random POST)
@@ -116,57 +142,58 @@ public class StripeService {
             event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
         } catch (SignatureVerificationException e) {
             logger.warn("Stripe webhook signature verification failed: {}", e.getMessage());
-            throw new RuntimeException("Invalid Stripe webhook signature");
+            throw new InvalidWebhookSignatureException("Invalid Stripe webhook signature");
+        }
+
+        if (!StripeWebhookProcessor.HANDLED_TYPES.contains(event.getType())) {
+            logger.debug("Unhandled Stripe event type: {}", event.getType());
+            count("ignored");
+            return false;
+        }
+
+        // Step 2: Stripe retries until acknowledged; the event id is the primary key
+        if (webhookEventRepository.existsById(event.getId())) {
+            logger.info("Duplicate Stripe webhook {} {}", event.getType(), event.getId());
+            count("duplicate");
+            return false;
+        }
+        try {
+            webhookEventRepository.saveAndFlush(StripeWebhookEvent.builder()
+                    .id(event.getId())
+                    .type(event.getType())
+                    .paymentIntentId(paymentIntentId(event))
+                    .payload(payload)
+                    .stripeCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(event.getCreated()), ZoneId.systemDefault()))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // The same event delivered twice at once
+            logger.info("Duplicate Stripe webhook {} {}", event.getType(), event.getId());
+            count("duplicate");
+            return false;
         }
+        logger.info("Stripe webhook accepted: {} {}", event.getType(), event.getId());
+        count("accepted");
+        webhookProcessor.wake();
+        return true;
+    }
+
+    /**
+     * The PaymentIntent an event belongs to, read from the raw data object
+     * (avoids SDK model version mismatches)
+     */
+    private static String paymentIntentId(Event event) {
+        JsonObject dataObj = JsonParser.parseString(event.getDataObjectDeserializer().getRawJson()).getAsJsonObject();
+        String field = event.getType().startsWith("charge.") ? "payment_intent" : "id";
+        return dataObj.has(field) && !dataObj.get(field).isJsonNull() ? dataObj.get(field).getAsString() : null;
+    }
 
-        logger.info("Stripe webhook received: {} {}", event.getType(), event.getId());
-
-        // Step 2: Parse the raw event payload JSON directly using Gson
-        // This avoids all SDK version mismatch issues entirely
-        com.google.gson.JsonObject fullEvent = com.google.gson.JsonParser
-                .parseString(payload).getAsJsonObject();
-        com.google.gson.JsonObject dataObj = fullEvent
-                .getAsJsonObject("data")
-                .getAsJsonObject("object");
-
-        // Step 3: Handle event types using raw JSON fields
-        switch (event.getType()) {
-
-            case "payment_intent.succeeded" -> {
-                String piId = dataObj.has("id") ? dataObj.get("id").getAsString() : null;
-                logger.info("PaymentIntent succeeded: {}", piId);
-                if (piId != null) updatePaymentStatus(piId, "COMPLETED", true);
-            }
-
-            case "charge.succeeded" -> {
-                String piId = dataObj.has("payment_intent")
-                        && !dataObj.get("payment_intent").isJsonNull()
-                        ? dataObj.get("payment_intent").getAsString() : null;
-                logger.info("Charge succeeded for PaymentIntent: {}", piId);
-                if (piId != null) updatePaymentStatus(piId, "COMPLETED", true);
-            }
-
-            case "charge.failed" -> {
-                String piId = dataObj.has("payment_intent")
-                        && !dataObj.get("payment_intent").isJsonNull()
-                        ? dataObj.get("payment_intent").getAsString() : null;
-                logger.warn("Charge failed for PaymentIntent: {}", piId);
-                if (piId != null) updatePaymentStatus(piId, "FAILED", false);
-            }
-
-            case "payment_intent.payment_failed" -> {
-                String piId = dataObj.has("id") ? dataObj.get("id").getAsString() : null;
-                logger.warn("PaymentIntent failed: {}", piId);
-                if (piId != null) updatePaymentStatus(piId, "FAILED", false);
-            }
-
-            case "payment_intent.canceled" -> {
-                String piId = dataObj.has("id") ? dataObj.get("id").getAsString() : null;
-                logger.info("PaymentIntent canceled: {}", piId);
-                if (piId != null) updatePaymentStatus(piId, "CANCELLED", false);
-            }
-
-            default -> logger.debug("Unhandled Stripe event type: {}", event.getType());
+    private void count(String result) {
+        if (meterRegistry != null) {
+            Counter.builder("payment.stripe.webhook.received")
+                    .description("Stripe webhook deliveries by result")
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .increment();
         }
     }
 
@@ -179,15 +206,4 @@ public class StripeService {
     public PaymentIntent getPaymentIntentStatus(String paymentIntentId) throws StripeException {
         return PaymentIntent.retrieve(paymentIntentId);
     }
-
-    // ── Helper ────────────────────────────────────────────────────────────────
-
-    private void updatePaymentStatus(String stripeRef, String status, boolean success) {
-        paymentRepository.findByReference(stripeRef).ifPresentOrElse(payment -> {
-            payment.setStatus(status);
-            payment.setIsSuccessCheckout(success);
-            paymentRepository.save(payment);
-            logger.info("Payment {} updated to {}", payment.getId(), status);
-        }, () -> logger.warn("No payment record found for Stripe ref {}", stripeRef));
-    }
-}
\ No newline at end of file
+}
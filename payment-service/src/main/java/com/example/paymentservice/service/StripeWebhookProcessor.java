@@ -0,0 +1,408 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.StripeWebhookEvent;
+import com.example.paymentservice.entity.WebhookEventStatus;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.repository.StripeWebhookEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies stored Stripe webhook events to payments, off the request thread.
+ * <p>
+ * A pool of workers claims due events in batches: they are locked with SKIP LOCKED and leased by
+ * pushing {@code nextAttemptAt} forward. A batch holds at most one event per PaymentIntent (the
+ * earliest pending one), so each intent's events are applied in Stripe creation order however many
+ * workers or instances run. The payments of a batch are loaded and saved together in one transaction.
+ * An event whose payment is not stored yet, or whose batch fails, is retried with exponential backoff
+ * and jitter until it runs out of attempts and is marked DEAD. Workers poll, and are woken as soon as
+ * a webhook is accepted.
+ */
+@Component
+public class StripeWebhookProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookProcessor.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /** Payment status and success flag for each event type that changes a payment */
+    private record Transition(String status, boolean success) {
+    }
+
+    private static final Map<String, Transition> TRANSITIONS = Map.of(
+            "payment_intent.succeeded", new Transition("COMPLETED", true),
+            "charge.succeeded", new Transition("COMPLETED", true),
+            "payment_intent.payment_failed", new Transition("FAILED", false),
+            "charge.failed", new Transition("FAILED", false),
+            "payment_intent.canceled", new Transition("CANCELLED", false));
+
+    /** Event types that are stored and applied; others are acknowledged and dropped */
+    public static final Set<String> HANDLED_TYPES = TRANSITIONS.keySet();
+
+    @Value("${app.stripe.webhook.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.stripe.webhook.workers:4}")
+    private int workers = 4;
+
+    @Value("${app.stripe.webhook.poll-interval:PT1S}")
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /** Events claimed per database round trip */
+    @Value("${app.stripe.webhook.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${app.stripe.webhook.max-attempts:10}")
+    private int maxAttempts = 10;
+
+    @Value("${app.stripe.webhook.initial-backoff:PT2S}")
+    private Duration initialBackoff = Duration.ofSeconds(2);
+
+    @Value("${app.stripe.webhook.max-backoff:PT10M}")
+    private Duration maxBackoff = Duration.ofMinutes(10);
+
+    /** A claimed event becomes due again after this long if its worker dies mid-batch */
+    @Value("${app.stripe.webhook.lease:PT1M}")
+    private Duration lease = Duration.ofMinutes(1);
+
+    /** Processed events are deleted after this long; redeliveries within it are recognised as duplicates */
+    @Value("${app.stripe.webhook.retention:P30D}")
+    private Duration retention = Duration.ofDays(30);
+
+    @Autowired
+    private StripeWebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactions;
+
+    private ScheduledExecutorService pool;
+
+    /** Wake-ups queued but not started, so a burst of webhooks does not flood the pool */
+    private final AtomicInteger wakesQueued = new AtomicInteger();
+
+    private final AtomicBoolean statsRefreshing = new AtomicBoolean();
+
+    private final AtomicLong queueDepth = new AtomicLong();
+
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+
+    private volatile long lastPurgeMillis;
+
+    private Timer processingLag;
+
+    private enum Outcome { PROCESSED, RETRY }
+
+    @PostConstruct
+    public void init() {
+        transactions = new TransactionTemplate(transactionManager);
+        if (meterRegistry != null) {
+            Gauge.builder("payment.stripe.webhook.queue.depth", queueDepth, AtomicLong::get)
+                    .description("Stripe webhook events accepted but not yet applied")
+                    .register(meterRegistry);
+            Gauge.builder("payment.stripe.webhook.oldest.age", this, processor -> processor.oldestPendingAgeSeconds())
+                    .description("Age of the oldest Stripe webhook event not yet applied")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            processingLag = Timer.builder("payment.stripe.webhook.lag")
+                    .description("Time from accepting a Stripe webhook to applying it")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        if (enabled) {
+            AtomicInteger threadCount = new AtomicInteger();
+            pool = Executors.newScheduledThreadPool(workers, runnable -> {
+                Thread thread = new Thread(runnable, "stripe-webhook-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = pollInterval.toMillis();
+            for (int i = 0; i < workers; i++) {
+                // Staggered so the workers do not poll in lockstep
+                pool.scheduleWithFixedDelay(this::processQuietly, intervalMs + i * intervalMs / workers,
+                        intervalMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Start applying right after a webhook is accepted instead of on the next poll
+     */
+    public void wake() {
+        if (pool != null && wakesQueued.get() < workers) {
+            wakesQueued.incrementAndGet();
+            pool.execute(() -> {
+                wakesQueued.decrementAndGet();
+                processQuietly();
+            });
+        }
+    }
+
+    /**
+     * Apply every due event
+     * @return number of events applied
+     */
+    public int process() {
+        int processed = 0;
+        List<StripeWebhookEvent> batch;
+        do {
+            batch = claim();
+            if (!batch.isEmpty()) {
+                processed += applyBatch(batch);
+            }
+            // Not "until a short batch": applying a batch can make the next event of each intent due
+        } while (!batch.isEmpty());
+        return processed;
+    }
+
+    private void processQuietly() {
+        try {
+            int processed = process();
+            if (processed > 0) {
+                logger.debug("Applied {} Stripe webhook events", processed);
+            }
+            refreshStats();
+            purgeProcessed();
+        } catch (RuntimeException ex) {
+            logger.warn("Stripe webhook processing failed: {}", ex.getMessage());
+        }
+    }
+
+    /** Lock a batch of due events and lease them to this worker */
+    private List<StripeWebhookEvent> claim() {
+        return transactions.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<StripeWebhookEvent> due = webhookEventRepository.lockDue(now, PageRequest.of(0, batchSize));
+            due.forEach(event -> event.setNextAttemptAt(now.plus(lease)));
+            return due;
+        });
+    }
+
+    /** Fields of a claimed event that a rolled-back batch has to restore */
+    private record ClaimedState(WebhookEventStatus status, int attempts, LocalDateTime processedAt) {
+        static ClaimedState of(StripeWebhookEvent event) {
+            return new ClaimedState(event.getStatus(), event.getAttempts(), event.getProcessedAt());
+        }
+
+        void restore(StripeWebhookEvent event) {
+            event.setStatus(status);
+            event.setAttempts(attempts);
+            event.setProcessedAt(processedAt);
+        }
+    }
+
+    /**
+     * Apply a batch in one transaction; if it fails, every event in it is retried
+     * @return number of events processed
+     */
+    private int applyBatch(List<StripeWebhookEvent> batch) {
+        List<ClaimedState> claimed = batch.stream().map(ClaimedState::of).toList();
+        List<Outcome> outcomes;
+        try {
+            outcomes = transactions.execute(status -> {
+                Map<String, Payment> payments = paymentRepository.findByReferenceIn(batch.stream()
+                                .map(StripeWebhookEvent::getPaymentIntentId)
+                                .filter(Objects::nonNull)
+                                .toList())
+                        .stream()
+                        .collect(Collectors.toMap(Payment::getReference, Function.identity(), (a, b) -> a));
+                Set<Payment> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+                List<Outcome> results = new ArrayList<>(batch.size());
+                for (StripeWebhookEvent event : batch) {
+                    Outcome outcome = apply(event, payments, changed);
+                    mark(event, outcome);
+                    results.add(outcome);
+                }
+                paymentRepository.saveAll(changed);
+                webhookEventRepository.saveAll(batch);
+                return results;
+            });
+        } catch (RuntimeException ex) {
+            logger.warn("Applying {} Stripe webhook events failed: {}", batch.size(), ex.getMessage());
+            outcomes = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                StripeWebhookEvent event = batch.get(i);
+                claimed.get(i).restore(event);
+                event.setLastError(truncate(ex.getMessage()));
+                mark(event, Outcome.RETRY);
+                outcomes.add(Outcome.RETRY);
+            }
+            transactions.executeWithoutResult(status -> webhookEventRepository.saveAll(batch));
+        }
+
+        int processed = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (record(batch.get(i), outcomes.get(i))) {
+                processed++;
+            }
+        }
+        return processed;
+    }
+
+    private Outcome apply(StripeWebhookEvent event, Map<String, Payment> payments, Set<Payment> changed) {
+        Transition transition = TRANSITIONS.get(event.getType());
+        if (transition == null || event.getPaymentIntentId() == null) {
+            return Outcome.PROCESSED;
+        }
+        Payment payment = payments.get(event.getPaymentIntentId());
+        if (payment == null) {
+            // The webhook can arrive before create-intent has stored the payment
+            event.setLastError("No payment record found for Stripe ref " + event.getPaymentIntentId());
+            return Outcome.RETRY;
+        }
+        if (transition.status().equals(payment.getStatus())) {
+            // charge.succeeded and payment_intent.succeeded both report the same payment
+            logger.debug("Payment {} already {}; {} {} has no effect", payment.getId(), payment.getStatus(),
+                    event.getType(), event.getId());
+            return Outcome.PROCESSED;
+        }
+        if ("COMPLETED".equals(payment.getStatus())) {
+            logger.warn("Payment {} is COMPLETED; ignoring {} {}", payment.getId(), event.getType(), event.getId());
+            return Outcome.PROCESSED;
+        }
+        payment.setStatus(transition.status());
+        payment.setIsSuccessCheckout(transition.success());
+        changed.add(payment);
+        logger.info("Payment {} updated to {} by {} {}", payment.getId(), transition.status(),
+                event.getType(), event.getId());
+        return Outcome.PROCESSED;
+    }
+
+    /** Update the event for its outcome */
+    private void mark(StripeWebhookEvent event, Outcome outcome) {
+        LocalDateTime now = LocalDateTime.now();
+        event.setAttempts(event.getAttempts() + 1);
+        if (outcome == Outcome.PROCESSED) {
+            event.setStatus(WebhookEventStatus.PROCESSED);
+            event.setProcessedAt(now);
+            event.setLastError(null);
+        } else if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(WebhookEventStatus.DEAD);
+            logger.error("Stripe webhook event {} ({} for {}) is dead after {} attempts: {}", event.getId(),
+                    event.getType(), event.getPaymentIntentId(), event.getAttempts(), event.getLastError());
+        } else {
+            event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+        }
+    }
+
+    /**
+     * Record metrics for a stored outcome
+     * @return true if processed
+     */
+    private boolean record(StripeWebhookEvent event, Outcome outcome) {
+        if (outcome == Outcome.PROCESSED) {
+            if (processingLag != null) {
+                processingLag.record(Duration.between(event.getReceivedAt(), event.getProcessedAt()));
+            }
+            count(event, "processed");
+            return true;
+        }
+        count(event, event.getStatus() == WebhookEventStatus.DEAD ? "dead" : "retry");
+        return false;
+    }
+
+    /** Exponential backoff with ±20% jitter so failed events do not retry in lockstep */
+    private Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (capped * jitter));
+    }
+
+    private void count(StripeWebhookEvent event, String outcome) {
+        if (meterRegistry != null) {
+            Counter.builder("payment.stripe.webhook.events")
+                    .description("Stripe webhook events applied, by outcome")
+                    .tag("type", event.getType())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    /** One worker at a time refreshes the gauges */
+    private void refreshStats() {
+        if (!statsRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            queueDepth.set(webhookEventRepository.countByStatus(WebhookEventStatus.PENDING));
+            oldestPending.set(webhookEventRepository.oldestPendingReceivedAt());
+        } finally {
+            statsRefreshing.set(false);
+        }
+    }
+
+    private double oldestPendingAgeSeconds() {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    private void purgeProcessed() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (now - lastPurgeMillis < TimeUnit.HOURS.toMillis(1)) {
+                return;
+            }
+            lastPurgeMillis = now;
+        }
+        Integer purged = transactions.execute(status ->
+                webhookEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} processed Stripe webhook events", purged);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.paymentservice;
+
+import com.example.paymentservice.dto.PaymentRequest;
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.entity.IdempotencyRecord;
+import com.example.paymentservice.exception.IdempotencyKeyReuseException;
+import com.example.paymentservice.repository.IdempotencyRecordRepository;
+import com.example.paymentservice.service.CheckoutIdempotency;
+import com.example.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CheckoutIdempotencyTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CheckoutIdempotency checkoutIdempotency;
+
+    private PaymentRequest request;
+
+    @BeforeEach
+    void setUp() {
+        checkoutIdempotency.init();
+        request = PaymentRequest.builder()
+                .itemId("ITEM-0001")
+                .userId("user-001")
+                .quantity(2)
+                .amount(new BigDecimal("25.00"))
+                .paymentMethod("CARD")
+                .build();
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(any(), any())).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        checkoutIdempotency.shutdown();
+    }
+
+    // ── Test 1: Concurrent duplicates run the checkout once ───────────────────
+    @Test
+    void concurrentDuplicates_shouldWaitForOriginalAndReplayIt() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentService.checkout(any(PaymentRequest.class))).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return PaymentResponse.builder().id("pay-001").status("COMPLETED").build();
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CheckoutIdempotency.Outcome>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> checkoutIdempotency.checkout("user-001", "key-1", request)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            int replayed = 0;
+            for (Future<CheckoutIdempotency.Outcome> future : futures) {
+                CheckoutIdempotency.Outcome outcome = future.get(5, TimeUnit.SECONDS);
+                assertEquals("pay-001", outcome.response().getId());
+                if (outcome.replayed()) replayed++;
+            }
+            assertEquals(7, replayed);
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(paymentService, times(1)).checkout(any(PaymentRequest.class));
+    }
+
+    // ── Test 2: Same key with a different body is rejected ────────────────────
+    @Test
+    void reusedKeyWithDifferentRequest_shouldBeRejected() {
+        when(paymentService.checkout(any(PaymentRequest.class)))
+                .thenReturn(PaymentResponse.builder().id("pay-001").build());
+        checkoutIdempotency.checkout("user-001", "key-2", request);
+
+        PaymentRequest changed = PaymentRequest.builder()
+                .itemId("ITEM-0001")
+                .userId("user-001")
+                .quantity(3)
+                .amount(new BigDecimal("37.50"))
+                .paymentMethod("CARD")
+                .build();
+
+        assertThrows(IdempotencyKeyReuseException.class,
+                () -> checkoutIdempotency.checkout("user-001", "key-2", changed));
+        verify(paymentService, times(1)).checkout(any(PaymentRequest.class));
+    }
+
+    // ── Test 3: Key committed by another instance is replayed ─────────────────
+    @Test
+    void keyCommittedElsewhere_shouldReplayStoredPayment() {
+        // The first checkout records the request hash the other instance would have stored
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        when(paymentService.checkout(any(PaymentRequest.class)))
+                .thenReturn(PaymentResponse.builder().id("pay-001").build());
+        checkoutIdempotency.checkout("user-001", "key-3a", request);
+        verify(idempotencyRecordRepository).saveAndFlush(stored.capture());
+
+        IdempotencyRecord winner = IdempotencyRecord.builder()
+                .userId("user-001")
+                .idempotencyKey("key-3")
+                .requestHash(stored.getValue().getRequestHash())
+                .paymentId("pay-777")
+                .build();
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotency_keys_user_key"));
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey("user-001", "key-3"))
+                .thenReturn(Optional.empty(), Optional.of(winner));
+        when(paymentService.getCheckoutResult("pay-777"))
+                .thenReturn(PaymentResponse.builder().id("pay-777").build());
+
+        CheckoutIdempotency.Outcome outcome = checkoutIdempotency.checkout("user-001", "key-3", request);
+
+        assertTrue(outcome.replayed());
+        assertEquals("pay-777", outcome.response().getId());
+        verify(paymentService, times(1)).checkout(any(PaymentRequest.class));
+    }
+}
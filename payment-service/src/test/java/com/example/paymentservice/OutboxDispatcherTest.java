@@ -0,0 +1,233 @@
+package com.example.paymentservice;
+
+import com.example.paymentservice.client.CatalogServiceClient;
+import com.example.paymentservice.client.OrderServiceClient;
+import com.example.paymentservice.entity.OutboxEvent;
+import com.example.paymentservice.entity.OutboxEventType;
+import com.example.paymentservice.entity.OutboxStatus;
+import com.example.paymentservice.repository.OutboxEventRepository;
+import com.example.paymentservice.service.OutboxDispatcher;
+import com.example.paymentservice.service.OutboxService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Outbox claiming, leasing, retries and dead-lettering, against an in-memory H2 database.
+ * The worker is disabled; the test drives {@link OutboxDispatcher#dispatch()} itself and
+ * stands in for order-service and catalog-service with mocked clients.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payment-outbox;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.outbox.enabled=false",
+        "app.stripe.webhook.enabled=false",
+        "app.outbox.max-attempts=3",
+        "app.outbox.initial-backoff=PT10S",
+        "app.outbox.lease=PT1M"
+})
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private OrderServiceClient orderServiceClient;
+
+    @MockitoBean
+    private CatalogServiceClient catalogServiceClient;
+
+    @AfterEach
+    void clear() {
+        outboxEventRepository.deleteAll();
+    }
+
+    /** Enqueue as checkout does, inside a transaction */
+    private OutboxEvent enqueue(OutboxEventType type, String paymentId, String targetId, Integer quantity) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> outboxService.enqueue(type, paymentId, targetId, quantity));
+    }
+
+    private OutboxEvent orderPaid(String paymentId, String orderId) {
+        return enqueue(OutboxEventType.ORDER_PAID, paymentId, orderId, null);
+    }
+
+    private OutboxEvent stored(OutboxEvent event) {
+        return outboxEventRepository.findById(event.getId()).orElseThrow();
+    }
+
+    /** Skip the backoff so the next dispatch picks the event up again */
+    private void makeDue(OutboxEvent event) {
+        OutboxEvent current = stored(event);
+        current.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEventRepository.save(current);
+    }
+
+    @Test
+    void delivered_eventIsMarkedWithItsLease() {
+        OutboxEvent event = orderPaid("pay-lease", "order-lease");
+        AtomicReference<LocalDateTime> leasedUntil = new AtomicReference<>();
+        when(orderServiceClient.updateOrderStatus(eq("order-lease"), eq("PAID"), anyString())).thenAnswer(call -> {
+            // The claim has committed: other instances see the event leased while it is delivered
+            leasedUntil.set(stored(event).getNextAttemptAt());
+            return Map.of("status", "PAID");
+        });
+
+        LocalDateTime before = LocalDateTime.now();
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+
+        assertThat(leasedUntil.get()).isAfter(before.plusSeconds(55));
+        OutboxEvent delivered = stored(event);
+        assertThat(delivered.getStatus()).isEqualTo(OutboxStatus.DELIVERED);
+        assertThat(delivered.getAttempts()).isEqualTo(1);
+        assertThat(delivered.getDeliveredAt()).isNotNull();
+        assertThat(delivered.getLastError()).isNull();
+        assertThat(dispatcher.dispatch()).isZero();
+    }
+
+    @Test
+    void unconfirmedDelivery_isRetriedWithBackoff() {
+        OutboxEvent event = orderPaid("pay-retry", "order-retry");
+        when(orderServiceClient.updateOrderStatus(anyString(), anyString(), anyString())).thenReturn(null);
+
+        LocalDateTime before = LocalDateTime.now();
+        assertThat(dispatcher.dispatch()).isZero();
+
+        OutboxEvent retried = stored(event);
+        assertThat(retried.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getLastError()).isNotBlank();
+        // 10 s initial backoff with ±20% jitter
+        assertThat(retried.getNextAttemptAt()).isBetween(before.plusSeconds(7), LocalDateTime.now().plusSeconds(13));
+
+        // Not due yet
+        assertThat(dispatcher.dispatch()).isZero();
+        verify(orderServiceClient, times(1)).updateOrderStatus(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void clientErrors_areRejectedUnlessTheyCanClearUp() {
+        OutboxEvent missing = orderPaid("pay-404", "order-404");
+        OutboxEvent inFlight = orderPaid("pay-409", "order-409");
+        OutboxEvent throttled = orderPaid("pay-429", "order-429");
+        when(orderServiceClient.updateOrderStatus(eq("order-404"), anyString(), anyString()))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        when(orderServiceClient.updateOrderStatus(eq("order-409"), anyString(), anyString()))
+                .thenThrow(new HttpClientErrorException(HttpStatus.CONFLICT));
+        when(orderServiceClient.updateOrderStatus(eq("order-429"), anyString(), anyString()))
+                .thenThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+
+        dispatcher.dispatch();
+
+        assertThat(stored(missing).getStatus()).isEqualTo(OutboxStatus.DEAD);
+        assertThat(stored(missing).getAttempts()).isEqualTo(1);
+        assertThat(stored(missing).getLastError()).contains("404");
+        assertThat(stored(inFlight).getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(stored(throttled).getStatus()).isEqualTo(OutboxStatus.PENDING);
+    }
+
+    @Test
+    void rejectedStockDecrement_isDead() {
+        OutboxEvent event = enqueue(OutboxEventType.STOCK_DECREMENT, "pay-stock", "ITEM-0001", 2);
+        when(catalogServiceClient.decrementStockBatch(anyMap(), anyString()))
+                .thenReturn(Map.of("applied", false, "results", "INSUFFICIENT_STOCK"));
+
+        dispatcher.dispatch();
+
+        assertThat(stored(event).getStatus()).isEqualTo(OutboxStatus.DEAD);
+        verify(catalogServiceClient).decrementStockBatch(Map.of("ITEM-0001", 2), "payment:pay-stock:STOCK_DECREMENT");
+    }
+
+    @Test
+    void retries_stopAfterMaxAttempts_andReuseTheIdempotencyKey() {
+        OutboxEvent event = orderPaid("pay-dead", "order-dead");
+        when(orderServiceClient.updateOrderStatus(anyString(), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            dispatcher.dispatch();
+            assertThat(stored(event).getAttempts()).isEqualTo(attempt);
+            makeDue(event);
+        }
+        dispatcher.dispatch();
+
+        OutboxEvent dead = stored(event);
+        assertThat(dead.getStatus()).isEqualTo(OutboxStatus.DEAD);
+        assertThat(dead.getAttempts()).isEqualTo(3);
+        assertThat(dead.getLastError()).isEqualTo("connection reset");
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(orderServiceClient, times(3)).updateOrderStatus(eq("order-dead"), eq("PAID"), keys.capture());
+        assertThat(keys.getAllValues()).containsOnly("payment:pay-dead:ORDER_PAID");
+    }
+
+    @Test
+    void batchPastHalfItsLease_handsTheRestBack() {
+        OutboxEvent first = orderPaid("pay-slow-1", "order-slow-1");
+        OutboxEvent second = orderPaid("pay-slow-2", "order-slow-2");
+        OutboxEvent third = orderPaid("pay-slow-3", "order-slow-3");
+        when(orderServiceClient.updateOrderStatus(anyString(), anyString(), any())).thenAnswer(call -> {
+            Thread.sleep(300);
+            return Map.of("status", "PAID");
+        });
+        Duration lease = (Duration) ReflectionTestUtils.getField(dispatcher, "lease");
+        ReflectionTestUtils.setField(dispatcher, "lease", Duration.ofMillis(400));
+        try {
+            assertThat(dispatcher.dispatch()).isEqualTo(1);
+        } finally {
+            ReflectionTestUtils.setField(dispatcher, "lease", lease);
+        }
+
+        int delivered = 0;
+        for (OutboxEvent event : new OutboxEvent[]{first, second, third}) {
+            OutboxEvent stored = stored(event);
+            if (stored.getStatus() == OutboxStatus.DELIVERED) {
+                delivered++;
+                continue;
+            }
+            // Handed back untouched and due right away
+            assertThat(stored.getStatus()).isEqualTo(OutboxStatus.PENDING);
+            assertThat(stored.getAttempts()).isZero();
+            assertThat(stored.getNextAttemptAt()).isBeforeOrEqualTo(LocalDateTime.now());
+        }
+        assertThat(delivered).isEqualTo(1);
+
+        // Due again straight away
+        assertThat(dispatcher.dispatch()).isEqualTo(2);
+    }
+}
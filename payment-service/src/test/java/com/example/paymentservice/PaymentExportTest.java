@@ -0,0 +1,169 @@
+package com.example.paymentservice;
+
+import com.example.paymentservice.controller.PaymentController;
+import com.example.paymentservice.repository.PaymentFilter;
+import com.example.paymentservice.service.ExportFormat;
+import com.example.paymentservice.service.PaymentExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CSV and NDJSON export of payments: quoting, the spreadsheet formula guard, filters and gzip,
+ * against an in-memory H2 database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payment-export;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.outbox.enabled=false",
+        "app.stripe.webhook.enabled=false",
+        "app.export.fetch-size=2"
+})
+class PaymentExportTest {
+
+    private static final String HEADER = "id,reference,createdAt,updatedAt,userId,orderId,itemId,"
+            + "quantity,amount,paymentMethod,status,isSuccessCheckout\r\n";
+
+    private static final String ROW_1 = "pay-1,\"ref, with \"\"quotes\"\"\",2026-01-01T10:00,2026-01-01T10:00,"
+            + "user-1,order-1,ITEM-0001,2,25.00,CARD,COMPLETED,true\r\n";
+    private static final String ROW_2 = "pay-2,'-1,2026-01-02T10:00,2026-01-02T10:00,"
+            + "\"'=HYPERLINK(\"\"http://x\"\")\",,'+ITEM,1,5.50,CASH,FAILED,false\r\n";
+    private static final String ROW_3 = "pay-3,'@sum,2026-01-03T10:00,2026-01-03T10:00,"
+            + "'\tuser,\"line1\nline2\",\"'\rITEM\",3,0.10,ONLINE,COMPLETED,true\r\n";
+    private static final String ROW_4 = "pay-4,,2026-01-04T10:00,2026-01-04T10:00,"
+            + "user-4,order-4,ITEM-0004,1,9.99,CARD,COMPLETED,true\r\n";
+
+    @Autowired
+    private PaymentExportService exportService;
+
+    @Autowired
+    private PaymentController paymentController;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM payments");
+        insert("pay-1", "ref, with \"quotes\"", 1, "user-1", "order-1", "ITEM-0001", 2, "25.00", "CARD", "COMPLETED", true);
+        insert("pay-2", "-1", 2, "=HYPERLINK(\"http://x\")", null, "+ITEM", 1, "5.50", "CASH", "FAILED", false);
+        insert("pay-3", "@sum", 3, "\tuser", "line1\nline2", "\rITEM", 3, "0.10", "ONLINE", "COMPLETED", true);
+        insert("pay-4", null, 4, "user-4", "order-4", "ITEM-0004", 1, "9.99", "CARD", "COMPLETED", true);
+    }
+
+    private void insert(String id, String reference, int day, String userId, String orderId, String itemId,
+                        int quantity, String amount, String paymentMethod, String status, boolean success) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.of(2026, 1, day, 10, 0));
+        jdbcTemplate.update("INSERT INTO payments (id, reference, created_at, updated_at, user_id, order_id, item_id,"
+                        + " quantity, amount, payment_method, status, is_success_checkout)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, reference, createdAt, createdAt, userId, orderId, itemId, quantity, new BigDecimal(amount),
+                paymentMethod, status, success);
+    }
+
+    private String export(PaymentFilter filter, ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.export(filter, format, out);
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertThat(rows).isEqualTo(format == ExportFormat.CSV
+                ? text.split("\r\n").length - 1
+                : text.lines().count());
+        return text;
+    }
+
+    private static PaymentFilter all() {
+        return new PaymentFilter(null, null, null, null, null);
+    }
+
+    @Test
+    void csv_quotesAndGuardsEveryRow_oldestFirst() throws IOException {
+        assertThat(export(all(), ExportFormat.CSV)).isEqualTo(HEADER + ROW_1 + ROW_2 + ROW_3 + ROW_4);
+    }
+
+    @Test
+    void csv_appliesFilters() throws IOException {
+        PaymentFilter completedInRange = new PaymentFilter(null, "COMPLETED", null,
+                LocalDateTime.of(2026, 1, 2, 0, 0), LocalDateTime.of(2026, 1, 4, 10, 0));
+        assertThat(export(completedInRange, ExportFormat.CSV)).isEqualTo(HEADER + ROW_3);
+
+        PaymentFilter card = new PaymentFilter(null, null, "CARD", null, null);
+        assertThat(export(card, ExportFormat.CSV)).isEqualTo(HEADER + ROW_1 + ROW_4);
+
+        PaymentFilter user = new PaymentFilter("user-4", null, null, null, null);
+        assertThat(export(user, ExportFormat.CSV)).isEqualTo(HEADER + ROW_4);
+
+        PaymentFilter none = new PaymentFilter(null, "REFUNDED", null, null, null);
+        assertThat(export(none, ExportFormat.CSV)).isEqualTo(HEADER);
+    }
+
+    @Test
+    void ndjson_writesOneRawObjectPerLine() throws IOException {
+        List<String> lines = export(all(), ExportFormat.NDJSON).lines().toList();
+        assertThat(lines).hasSize(4);
+
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        List<String> names = new ArrayList<>();
+        first.propertyNames().forEach(names::add);
+        assertThat(names).containsExactly("id", "reference", "createdAt", "updatedAt", "userId", "orderId",
+                "itemId", "quantity", "amount", "paymentMethod", "status", "isSuccessCheckout");
+        assertThat(first.get("reference").asString()).isEqualTo("ref, with \"quotes\"");
+        assertThat(first.get("createdAt").asString()).isEqualTo("2026-01-01T10:00");
+        assertThat(first.get("quantity").asInt()).isEqualTo(2);
+        assertThat(first.get("amount").decimalValue()).isEqualByComparingTo("25.00");
+        assertThat(first.get("isSuccessCheckout").asBoolean()).isTrue();
+
+        // JSON needs no formula guard: values are written as stored
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertThat(second.get("userId").asString()).isEqualTo("=HYPERLINK(\"http://x\")");
+        assertThat(second.get("orderId").isNull()).isTrue();
+        assertThat(objectMapper.readTree(lines.get(2)).get("orderId").asString()).isEqualTo("line1\nline2");
+        assertThat(objectMapper.readTree(lines.get(3)).get("reference").isNull()).isTrue();
+    }
+
+    @Test
+    void gzip_wrapsTheSameCsv() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = paymentController.exportOrders(
+                "ADMIN", "csv", "completed", null, null, null, true);
+
+        assertThat(response.getHeaders().getContentType().toString()).isEqualTo("application/gzip");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("payments.csv.gz");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(HEADER + ROW_1 + ROW_3 + ROW_4);
+        }
+    }
+
+    @Test
+    void export_requiresAdmin() {
+        assertThat(paymentController.exportOrders("USER", "csv", null, null, null, null, false).getStatusCode().value())
+                .isEqualTo(403);
+    }
+}
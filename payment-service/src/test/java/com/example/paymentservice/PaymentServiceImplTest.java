@@ -2,10 +2,14 @@ package com.example.paymentservice;
 
 import com.example.paymentservice.client.CatalogServiceClient;
 import com.example.paymentservice.client.OrderServiceClient;
+import com.example.paymentservice.dto.PaymentPageResponse;
 import com.example.paymentservice.dto.PaymentRequest;
 import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.entity.OutboxEventType;
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.repository.PaymentFilter;
 import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.OutboxService;
 import com.example.paymentservice.service.PaymentServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,7 +21,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +41,9 @@ class PaymentServiceImplTest {
     @Mock
     private OrderServiceClient orderServiceClient;
 
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -126,9 +135,9 @@ class PaymentServiceImplTest {
         assertTrue(ex.getMessage().contains("Payment not found for order"));
     }
 
-    // ── Test 6: Checkout triggers order status update ─────────────────────────
+    // ── Test 6: Checkout queues the order status update ───────────────────────
     @Test
-    void checkout_shouldCallOrderService_whenOrderIdPresent() {
+    void checkout_shouldQueueOrderStatusUpdate_whenOrderIdPresent() {
         PaymentRequest request = PaymentRequest.builder()
                 .itemId("ITEM-0001")
                 .orderId("order-999")
@@ -142,6 +151,69 @@ class PaymentServiceImplTest {
 
         paymentService.checkout(request);
 
-        verify(orderServiceClient, times(1)).updateOrderStatus("order-001", "PAID");
+        verify(outboxService, times(1)).enqueue(OutboxEventType.ORDER_PAID, "pay-001", "order-001", null);
+        verify(outboxService, times(1)).enqueue(OutboxEventType.STOCK_DECREMENT, "pay-001", "ITEM-0001", 2);
+        // Delivered by the outbox dispatcher after commit, never inside checkout
+        verifyNoInteractions(orderServiceClient, catalogServiceClient);
+    }
+
+    // ── Test 7: Listing resolves catalog items in one bulk lookup ─────────────
+    @Test
+    void getAllOrders_shouldEnrichWithOneCatalogLookup() {
+        Payment second = Payment.builder()
+                .id("pay-002")
+                .itemId("ITEM-0001")
+                .userId("user-002")
+                .quantity(1)
+                .build();
+        Payment third = Payment.builder()
+                .id("pay-003")
+                .itemId("ITEM-0002")
+                .userId("user-003")
+                .quantity(1)
+                .build();
+        when(paymentRepository.findAllByOrderByCreatedAtDesc()).thenReturn(List.of(samplePayment, second, third));
+        when(catalogServiceClient.lookupItems(any())).thenReturn(Map.of(
+                "ITEM-0001", Map.of("name", "Latte", "category", "DRINK", "stockCount", 40)));
+
+        List<PaymentResponse> result = paymentService.getAllOrders();
+
+        assertEquals(3, result.size());
+        assertEquals("Latte", result.get(0).getItemName());
+        assertEquals("Latte", result.get(1).getItemName());
+        // Unknown to the catalog: returned without enrichment
+        assertNull(result.get(2).getItemName());
+        verify(catalogServiceClient, times(1)).lookupItems(Set.of("ITEM-0001", "ITEM-0002"));
+        verifyNoMoreInteractions(catalogServiceClient);
+    }
+
+    // ── Test 8: History pages continue from the returned cursor ───────────────
+    @Test
+    void getPaymentsPage_shouldContinueFromCursor() {
+        Payment older = Payment.builder()
+                .id("pay-000")
+                .itemId("ITEM-0001")
+                .userId("user-001")
+                .createdAt(samplePayment.getCreatedAt().minusMinutes(5))
+                .build();
+        PaymentFilter filter = new PaymentFilter("user-001", "completed", null, null, null);
+        PaymentFilter normalized = new PaymentFilter("user-001", "COMPLETED", null, null, null);
+        when(paymentRepository.findHistoryPage(normalized, null, null, 0, 2))
+                .thenReturn(List.of(samplePayment, older));
+
+        PaymentPageResponse first = paymentService.getPaymentsPage(filter, null, null, 1);
+
+        assertEquals(1, first.getItems().size());
+        assertEquals("pay-001", first.getItems().get(0).getId());
+        assertNotNull(first.getNextCursor());
+
+        when(paymentRepository.findHistoryPage(normalized, samplePayment.getCreatedAt(), "pay-001", 0, 2))
+                .thenReturn(List.of(older));
+
+        PaymentPageResponse second = paymentService.getPaymentsPage(filter, null, first.getNextCursor(), 1);
+
+        assertEquals("pay-000", second.getItems().get(0).getId());
+        assertNull(second.getNextCursor());
+        assertNull(second.getPage());
     }
-}
\ No newline at end of file
+}
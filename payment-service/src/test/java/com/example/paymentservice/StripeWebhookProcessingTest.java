@@ -0,0 +1,132 @@
+package com.example.paymentservice;
+
+import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.StripeWebhookEvent;
+import com.example.paymentservice.entity.WebhookEventStatus;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.repository.StripeWebhookEventRepository;
+import com.example.paymentservice.service.StripeService;
+import com.example.paymentservice.service.StripeWebhookProcessor;
+import com.stripe.net.Webhook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Webhook ingestion and asynchronous application, against an in-memory H2 database.
+ * Workers are disabled; the test drives {@link StripeWebhookProcessor#process()} itself.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payment-webhooks;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.outbox.enabled=false",
+        "app.stripe.webhook.enabled=false",
+        "stripe.webhook.secret=whsec_test_secret"
+})
+class StripeWebhookProcessingTest {
+
+    private static final String SECRET = "whsec_test_secret";
+
+    @Autowired
+    private StripeService stripeService;
+
+    @Autowired
+    private StripeWebhookProcessor webhookProcessor;
+
+    @Autowired
+    private StripeWebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private Payment pendingPayment(String paymentIntentId) {
+        return paymentRepository.save(Payment.builder()
+                .itemId("ITEM-0001")
+                .userId("user-001")
+                .quantity(1)
+                .amount(new BigDecimal("10.00"))
+                .paymentMethod("STRIPE")
+                .status("PENDING")
+                .isSuccessCheckout(false)
+                .reference(paymentIntentId)
+                .build());
+    }
+
+    private static String payload(String eventId, String type, long created, String paymentIntentId) {
+        String object = type.startsWith("charge.")
+                ? "{\"id\":\"ch_" + eventId + "\",\"object\":\"charge\",\"payment_intent\":\"" + paymentIntentId + "\"}"
+                : "{\"id\":\"" + paymentIntentId + "\",\"object\":\"payment_intent\"}";
+        return "{\"id\":\"" + eventId + "\",\"object\":\"event\",\"api_version\":\"2023-10-16\",\"created\":" + created
+                + ",\"type\":\"" + type + "\",\"data\":{\"object\":" + object + "}}";
+    }
+
+    private static String sign(String payload) throws Exception {
+        long timestamp = System.currentTimeMillis() / 1000;
+        String signature = Webhook.Util.computeHmacSha256(SECRET, timestamp + "." + payload);
+        return "t=" + timestamp + ",v1=" + signature;
+    }
+
+    @Test
+    void redeliveredEvent_isStoredOnce() throws Exception {
+        pendingPayment("pi_dedup");
+        String payload = payload("evt_dedup", "payment_intent.succeeded", 1_700_000_000L, "pi_dedup");
+
+        assertThat(stripeService.handleWebhook(payload, sign(payload))).isTrue();
+        assertThat(stripeService.handleWebhook(payload, sign(payload))).isFalse();
+
+        StripeWebhookEvent stored = webhookEventRepository.findById("evt_dedup").orElseThrow();
+        assertThat(stored.getPaymentIntentId()).isEqualTo("pi_dedup");
+        assertThat(stored.getStatus()).isEqualTo(WebhookEventStatus.PENDING);
+
+        webhookProcessor.process();
+
+        assertThat(webhookEventRepository.findById("evt_dedup").orElseThrow().getStatus())
+                .isEqualTo(WebhookEventStatus.PROCESSED);
+        assertThat(paymentRepository.findByReference("pi_dedup").orElseThrow().getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void eventsOfOneIntent_areAppliedInStripeOrder() throws Exception {
+        Payment payment = pendingPayment("pi_order");
+        // Delivered newest first: the failed first attempt arrives after the success
+        String succeeded = payload("evt_order_2", "payment_intent.succeeded", 1_700_000_100L, "pi_order");
+        String charged = payload("evt_order_3", "charge.succeeded", 1_700_000_100L, "pi_order");
+        String failed = payload("evt_order_1", "charge.failed", 1_700_000_000L, "pi_order");
+        stripeService.handleWebhook(succeeded, sign(succeeded));
+        stripeService.handleWebhook(charged, sign(charged));
+        stripeService.handleWebhook(failed, sign(failed));
+
+        webhookProcessor.process();
+
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus()).isEqualTo("COMPLETED");
+        for (String id : new String[]{"evt_order_1", "evt_order_2", "evt_order_3"}) {
+            StripeWebhookEvent event = webhookEventRepository.findById(id).orElseThrow();
+            assertThat(event.getStatus()).isEqualTo(WebhookEventStatus.PROCESSED);
+        }
+        LocalDateTime failedAt = webhookEventRepository.findById("evt_order_1").orElseThrow().getProcessedAt();
+        LocalDateTime succeededAt = webhookEventRepository.findById("evt_order_2").orElseThrow().getProcessedAt();
+        assertThat(failedAt).isBeforeOrEqualTo(succeededAt);
+    }
+
+    @Test
+    void eventBeforeItsPayment_isRetried() throws Exception {
+        String payload = payload("evt_early", "payment_intent.succeeded", 1_700_000_000L, "pi_early");
+        stripeService.handleWebhook(payload, sign(payload));
+
+        webhookProcessor.process();
+
+        StripeWebhookEvent event = webhookEventRepository.findById("evt_early").orElseThrow();
+        assertThat(event.getStatus()).isEqualTo(WebhookEventStatus.PENDING);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getNextAttemptAt()).isAfter(LocalDateTime.now());
+    }
+}
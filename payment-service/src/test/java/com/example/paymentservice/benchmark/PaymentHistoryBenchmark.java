@@ -0,0 +1,189 @@
+package com.example.paymentservice.benchmark;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.dto.PaymentPageResponse;
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.repository.PaymentFilter;
+import com.example.paymentservice.service.PaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the payment history queries over a seeded {@code payments} table.
+ * <p>
+ * Sample-time mode reports p50/p90/p99 per benchmark. The {@code adminDeepOffset} benchmark shows the cost
+ * of page numbers far into the listing that the keyset {@code adminDeepCursor} avoids; {@code legacyUserHistory}
+ * is the previous unbounded {@code /payments/user/{userId}} query. Seeds an in-memory H2 database by default;
+ * pass {@code -Dbenchmark.db.url=jdbc:postgresql://…} (with {@code .username}/{@code .password}) to measure
+ * against Postgres. Catalog enrichment is pointed at a closed port, so its breaker opens and it drops out.
+ * <p>
+ * Run with: {@code ./mvnw -Pbenchmark test-compile exec:exec}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class PaymentHistoryBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int DAYS = 365;
+    private static final int PAGE_SIZE = 50;
+    private static final String[] METHODS = {"CARD", "CASH", "ONLINE"};
+
+    @Param({"1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private LocalDateTime now;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("benchmark.db.url", "jdbc:h2:mem:payment-bench;DB_CLOSE_DELAY=-1");
+        boolean h2 = url.startsWith("jdbc:h2:");
+        context = new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.username=" + System.getProperty("benchmark.db.username", "sa"),
+                        "spring.datasource.password=" + System.getProperty("benchmark.db.password", ""),
+                        "spring.datasource.driver-class-name=" + (h2 ? "org.h2.Driver" : "org.postgresql.Driver"),
+                        "spring.jpa.database-platform=" + (h2 ? "org.hibernate.dialect.H2Dialect" : "org.hibernate.dialect.PostgreSQLDialect"),
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "app.outbox.enabled=false",
+                        "app.stripe.webhook.enabled=false",
+                        "service.catalog.url=http://localhost:1",
+                        "service.order.url=http://localhost:1")
+                .run();
+        paymentService = context.getBean(PaymentService.class);
+        now = LocalDateTime.now();
+        seed(context.getBean(JdbcTemplate.class));
+
+        // Cursor of the last row on the page halfway through the full listing
+        PaymentPageResponse middle = paymentService.getPaymentsPage(
+                new PaymentFilter(null, null, null, null, null), rows / 2 / PAGE_SIZE - 1, null, PAGE_SIZE);
+        deepCursor = middle.getNextCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        Random random = new Random(42);
+        String sql = "INSERT INTO payments (id, item_id, order_id, user_id, quantity, amount, payment_method, status,"
+                + " is_success_checkout, reference, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < rows; i++) {
+            int roll = random.nextInt(100);
+            String status = roll < 90 ? "COMPLETED" : roll < 97 ? "PENDING" : "FAILED";
+            Timestamp createdAt = Timestamp.valueOf(now.minusSeconds(random.nextInt(DAYS * 86_400)));
+            batch.add(new Object[]{
+                    UUID.randomUUID().toString(),
+                    "ITEM-" + String.format("%04d", random.nextInt(500)),
+                    "order-" + i,
+                    "user-" + random.nextInt(USERS),
+                    1 + random.nextInt(3),
+                    BigDecimal.valueOf(100 + random.nextInt(10_000), 2),
+                    METHODS[random.nextInt(METHODS.length)],
+                    status,
+                    "COMPLETED".equals(status),
+                    "PAY-" + Integer.toHexString(i).toUpperCase(),
+                    createdAt,
+                    createdAt});
+            if (batch.size() == 10_000) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+
+    private static String randomUser() {
+        return "user-" + ThreadLocalRandom.current().nextInt(USERS);
+    }
+
+    @Benchmark
+    public PaymentPageResponse adminFirstPage() {
+        return paymentService.getPaymentsPage(new PaymentFilter(null, null, null, null, null), null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PaymentPageResponse adminFiltered() {
+        return paymentService.getPaymentsPage(
+                new PaymentFilter(null, "FAILED", "CASH", now.minusDays(30), null), null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PaymentPageResponse adminDeepCursor() {
+        return paymentService.getPaymentsPage(new PaymentFilter(null, null, null, null, null), null, deepCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PaymentPageResponse adminDeepOffset() {
+        return paymentService.getPaymentsPage(
+                new PaymentFilter(null, null, null, null, null), rows / 2 / PAGE_SIZE, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PaymentPageResponse userFirstPage() {
+        return paymentService.getPaymentsPage(new PaymentFilter(randomUser(), null, null, null, null), null, null, 20);
+    }
+
+    @Benchmark
+    public PaymentPageResponse userFiltered() {
+        return paymentService.getPaymentsPage(
+                new PaymentFilter(randomUser(), "COMPLETED", null, now.minusDays(90), now), null, null, 20);
+    }
+
+    /** Previous endpoint: every payment of the user, unpaginated */
+    @Benchmark
+    public List<PaymentResponse> legacyUserHistory() {
+        return paymentService.getPaymentsByUser(randomUser());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PaymentHistoryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}